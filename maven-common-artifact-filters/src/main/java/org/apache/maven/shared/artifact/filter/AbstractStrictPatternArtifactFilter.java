@@ -50,9 +50,15 @@ public abstract class AbstractStrictPatternArtifactFilter implements ArtifactFil
     // fields -----------------------------------------------------------------
 
     /**
-     * The list of artifact patterns to match, as described above.
+     * The tokens of the list of artifact patterns to match, as described above, split once when the filter is created.
      */
-    private final List<String> patterns;
+    private final String[][] patternTokens;
+
+    /**
+     * The version ranges of the pattern tokens, parsed once when the filter is created. <code>null</code> for tokens
+     * which aren't version ranges and for invalid ranges.
+     */
+    private final VersionRange[][] patternRanges;
 
     /**
      * Whether this filter should include or exclude artifacts that match the patterns.
@@ -73,8 +79,20 @@ public abstract class AbstractStrictPatternArtifactFilter implements ArtifactFil
      */
     public AbstractStrictPatternArtifactFilter( List<String> patterns, boolean include )
     {
-        this.patterns = patterns;
         this.include = include;
+
+        patternTokens = new String[patterns == null ? 0 : patterns.size()][];
+        patternRanges = new VersionRange[patternTokens.length][];
+        for ( int i = 0; i < patternTokens.length; i++ )
+        {
+            patternTokens[i] = patterns.get( i ).split( ":" );
+
+            patternRanges[i] = new VersionRange[patternTokens[i].length];
+            for ( int j = 0; j < patternTokens[i].length; j++ )
+            {
+                patternRanges[i][j] = parseVersionRange( patternTokens[i][j] );
+            }
+        }
     }
 
     // ArtifactFilter methods -------------------------------------------------
@@ -86,9 +104,21 @@ public abstract class AbstractStrictPatternArtifactFilter implements ArtifactFil
     {
         boolean matched = false;
 
-        for ( String pattern : patterns )
+        String[] tokens = null;
+
+        for ( int i = 0; i < patternTokens.length; i++ )
         {
-            if ( include( artifact, pattern ) )
+            if ( tokens == null )
+            {
+                tokens = new String[] {
+                    artifact.getGroupId(),
+                    artifact.getArtifactId(),
+                    artifact.getType(),
+                    artifact.getBaseVersion()
+                };
+            }
+
+            if ( include( tokens, patternTokens[i], patternRanges[i] ) )
             {
                 matched = true;
                 break;
@@ -101,31 +131,24 @@ public abstract class AbstractStrictPatternArtifactFilter implements ArtifactFil
     // private methods --------------------------------------------------------
 
     /**
-     * Gets whether the specified artifact matches the specified pattern.
+     * Gets whether the specified artifact tokens match the specified pattern.
      * 
-     * @param artifact
-     *            the artifact to check
-     * @param pattern
-     *            the pattern to match, as defined above
+     * @param tokens
+     *            the groupId, artifactId, type and base version of the artifact to check
+     * @param patternTokens
+     *            the tokens of the pattern to match, as defined above
+     * @param patternRanges
+     *            the version ranges of the pattern tokens
      * @return <code>true</code> if the specified artifact is matched by the specified pattern
      */
-    private boolean include( Artifact artifact, String pattern )
+    private boolean include( String[] tokens, String[] patternTokens, VersionRange[] patternRanges )
     {
-        String[] tokens = new String[] {
-            artifact.getGroupId(),
-            artifact.getArtifactId(),
-            artifact.getType(),
-            artifact.getBaseVersion()
-        };
-
-        String[] patternTokens = pattern.split( ":" );
-
         // fail immediately if pattern tokens outnumber tokens to match
         boolean matched = ( patternTokens.length <= tokens.length );
 
         for ( int i = 0; matched && i < patternTokens.length; i++ )
         {
-            matched = matches( tokens[i], patternTokens[i] );
+            matched = matches( tokens[i], patternTokens[i], patternRanges[i] );
         }
 
         return matched;
@@ -138,9 +161,11 @@ public abstract class AbstractStrictPatternArtifactFilter implements ArtifactFil
      *            the token to check
      * @param pattern
      *            the pattern segment to match, as defined above
+     * @param range
+     *            the version range of the pattern segment, or <code>null</code>
      * @return <code>true</code> if the specified token is matched by the specified pattern segment
      */
-    private boolean matches( String token, String pattern )
+    private boolean matches( String token, String pattern, VersionRange range )
     {
         boolean matches;
 
@@ -173,7 +198,7 @@ public abstract class AbstractStrictPatternArtifactFilter implements ArtifactFil
         // support versions range 
         else if ( pattern.startsWith( "[" ) || pattern.startsWith( "(" ))
         {
-        	matches = isVersionIncludedInRange(token, pattern);
+            matches = range != null && range.containsVersion( new DefaultArtifactVersion( token ) );
         }
         // support exact match
         else
@@ -184,12 +209,27 @@ public abstract class AbstractStrictPatternArtifactFilter implements ArtifactFil
         return matches;
     }
     
-    private boolean isVersionIncludedInRange(final String version, final String range) {
-    	try {
-			return VersionRange.createFromVersionSpec(range).containsVersion(new DefaultArtifactVersion(version));
-		} catch (InvalidVersionSpecificationException e) {
-			return false;
-		}
-	}
+    /**
+     * Parses the specified pattern segment if it is a version range.
+     * 
+     * @param pattern
+     *            the pattern segment, as defined above
+     * @return the version range, or <code>null</code> if the pattern segment isn't a valid version range
+     */
+    private static VersionRange parseVersionRange( String pattern )
+    {
+        if ( !pattern.startsWith( "[" ) && !pattern.startsWith( "(" ) )
+        {
+            return null;
+        }
+        try
+        {
+            return VersionRange.createFromVersionSpec( pattern );
+        }
+        catch ( InvalidVersionSpecificationException e )
+        {
+            return null;
+        }
+    }
 
 }
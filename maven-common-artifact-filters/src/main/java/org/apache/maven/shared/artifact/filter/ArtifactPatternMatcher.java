@@ -0,0 +1,403 @@
+package org.apache.maven.shared.artifact.filter;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
+import org.apache.maven.artifact.versioning.VersionRange;
+
+/**
+ * The patterns of a {@link PatternIncludesArtifactFilter}, compiled once when the filter is created.
+ * <p>
+ * Each pattern is split into its segments up front, and the values to match are tokenized in place, so matching an
+ * artifact doesn't create any strings. Patterns which start with a literal groupId are indexed by that groupId and only
+ * checked against artifacts of the same group. Matching behaves exactly like splitting the pattern and the value with
+ * <code>String.split( ":" )</code> and checking every pattern in its original order.
+ * <p>
+ * Like the filters using it, a matcher isn't thread safe, as it remembers the results for dependency trail items.
+ *
+ * @since 1.5
+ */
+class ArtifactPatternMatcher
+{
+    private static final int[] NO_PATTERNS = new int[0];
+
+    private static final String NO_MATCH = new String();
+
+    private final String[] patterns;
+
+    private final Segment[][] segments;
+
+    private final boolean[] leadingWildcard;
+
+    /** The indexes of the patterns starting with a literal groupId, in ascending order, by groupId. */
+    private final Map<String, int[]> patternsByGroupId = new HashMap<String, int[]>();
+
+    /** The indexes of all other patterns, in ascending order. */
+    private final int[] unindexedPatterns;
+
+    /** The pattern matched by each dependency trail item seen so far, or {@link #NO_MATCH}. */
+    private final Map<String, String> trailItemMatches = new HashMap<String, String>();
+
+    ArtifactPatternMatcher( final List<String> patterns )
+    {
+        this.patterns = patterns.toArray( new String[patterns.size()] );
+        segments = new Segment[this.patterns.length][];
+        leadingWildcard = new boolean[this.patterns.length];
+
+        final Map<String, List<Integer>> indexed = new HashMap<String, List<Integer>>();
+        final List<Integer> unindexed = new ArrayList<Integer>();
+
+        for ( int i = 0; i < this.patterns.length; i++ )
+        {
+            final String[] patternTokens = this.patterns[i].split( ":" );
+
+            segments[i] = new Segment[patternTokens.length];
+            for ( int j = 0; j < patternTokens.length; j++ )
+            {
+                segments[i][j] = Segment.compile( patternTokens[j] );
+            }
+
+            leadingWildcard[i] = patternTokens.length > 0 && "*".equals( patternTokens[0] );
+
+            if ( patternTokens.length > 0 && segments[i][0].kind == Segment.EXACT )
+            {
+                List<Integer> group = indexed.get( patternTokens[0] );
+                if ( group == null )
+                {
+                    group = new ArrayList<Integer>();
+                    indexed.put( patternTokens[0], group );
+                }
+                group.add( Integer.valueOf( i ) );
+            }
+            else
+            {
+                unindexed.add( Integer.valueOf( i ) );
+            }
+        }
+
+        for ( Map.Entry<String, List<Integer>> entry : indexed.entrySet() )
+        {
+            patternsByGroupId.put( entry.getKey(), toArray( entry.getValue() ) );
+        }
+        unindexedPatterns = toArray( unindexed );
+    }
+
+    /**
+     * Gets the first pattern matching the specified value.
+     *
+     * @param value the artifact id, dependency conflict id, versionless key or dependency trail item to match
+     * @param groupId the groupId of the artifact the value belongs to, used to select the candidate patterns if it is
+     *            the first token of the value. May be <code>null</code>.
+     * @param regionMatch whether a pattern also matches if it is contained in the value
+     * @return the matching pattern, or <code>null</code> if none matches
+     */
+    String match( final String value, final String groupId, final boolean regionMatch )
+    {
+        // trailing empty tokens are dropped, like String.split() does
+        int end = value.length();
+        while ( end > 0 && value.charAt( end - 1 ) == ':' )
+        {
+            end--;
+        }
+        int tokenCount;
+        if ( value.length() == 0 )
+        {
+            tokenCount = 1;
+        }
+        else if ( end == 0 )
+        {
+            tokenCount = 0;
+        }
+        else
+        {
+            tokenCount = 1;
+            for ( int i = value.indexOf( ':' ); i >= 0 && i < end; i = value.indexOf( ':', i + 1 ) )
+            {
+                tokenCount++;
+            }
+        }
+
+        int[] indexed = NO_PATTERNS;
+        int[] unindexed = unindexedPatterns;
+        if ( regionMatch || groupId == null || !isFirstToken( value, end, groupId ) )
+        {
+            // the region match doesn't depend on the tokens, so check every pattern
+            unindexed = null;
+        }
+        else
+        {
+            final int[] group = patternsByGroupId.get( groupId );
+            if ( group != null )
+            {
+                indexed = group;
+            }
+        }
+
+        if ( unindexed == null )
+        {
+            for ( int i = 0; i < patterns.length; i++ )
+            {
+                if ( matches( i, value, end, tokenCount, regionMatch ) )
+                {
+                    return patterns[i];
+                }
+            }
+            return null;
+        }
+
+        // visit both candidate lists in the original order of the patterns
+        int x = 0;
+        int y = 0;
+        while ( x < indexed.length || y < unindexed.length )
+        {
+            final int i;
+            if ( y == unindexed.length || ( x < indexed.length && indexed[x] < unindexed[y] ) )
+            {
+                i = indexed[x++];
+            }
+            else
+            {
+                i = unindexed[y++];
+            }
+
+            if ( matches( i, value, end, tokenCount, false ) )
+            {
+                return patterns[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the first pattern matching the specified dependency trail item, either by its tokens or as a region of the
+     * item. The result is remembered, as the same items appear in the trails of many artifacts.
+     *
+     * @param trailItem the dependency trail item to match
+     * @return the matching pattern, or <code>null</code> if none matches
+     */
+    String matchTrailItem( final String trailItem )
+    {
+        String pattern = trailItemMatches.get( trailItem );
+        if ( pattern == null )
+        {
+            pattern = match( trailItem, null, true );
+            trailItemMatches.put( trailItem, pattern == null ? NO_MATCH : pattern );
+        }
+        return pattern == NO_MATCH ? null : pattern;
+    }
+
+    private boolean matches( final int index, final String value, final int end, final int tokenCount,
+                             final boolean regionMatch )
+    {
+        final Segment[] patternSegments = segments[index];
+
+        // fail immediately if pattern tokens outnumber tokens to match
+        if ( patternSegments.length <= tokenCount && matchesTokens( patternSegments, value, 0, end ) )
+        {
+            return true;
+        }
+
+        // case of starting '*' like '*:jar:*'
+        if ( leadingWildcard[index] && patternSegments.length < tokenCount )
+        {
+            int start = 0;
+            for ( int skip = tokenCount - patternSegments.length; skip > 0; skip-- )
+            {
+                start = value.indexOf( ':', start ) + 1;
+            }
+            if ( matchesTokens( patternSegments, value, start, end ) )
+            {
+                return true;
+            }
+        }
+
+        return regionMatch && value.indexOf( patterns[index] ) > -1;
+    }
+
+    private static boolean matchesTokens( final Segment[] patternSegments, final String value, final int start,
+                                          final int end )
+    {
+        int tokenStart = start;
+        for ( Segment segment : patternSegments )
+        {
+            int tokenEnd = value.indexOf( ':', tokenStart );
+            if ( tokenEnd < 0 || tokenEnd > end )
+            {
+                tokenEnd = end;
+            }
+
+            if ( !segment.matches( value, tokenStart, tokenEnd ) )
+            {
+                return false;
+            }
+            tokenStart = tokenEnd + 1;
+        }
+        return true;
+    }
+
+    private static boolean isFirstToken( final String value, final int end, final String token )
+    {
+        final int length = token.length();
+        return token.indexOf( ':' ) < 0 && ( length == end || ( length < end && value.charAt( length ) == ':' ) )
+            && value.startsWith( token );
+    }
+
+    private static int[] toArray( final List<Integer> list )
+    {
+        final int[] array = new int[list.size()];
+        for ( int i = 0; i < array.length; i++ )
+        {
+            array[i] = list.get( i ).intValue();
+        }
+        return array;
+    }
+
+    /**
+     * A pattern segment, matching a single token of a value.
+     */
+    private static final class Segment
+    {
+        static final int ANY = 0;
+
+        static final int CONTAINS = 1;
+
+        static final int SUFFIX = 2;
+
+        static final int PREFIX = 3;
+
+        static final int PARTS = 4;
+
+        static final int RANGE = 5;
+
+        static final int EXACT = 6;
+
+        final int kind;
+
+        final String text;
+
+        final String[] parts;
+
+        final VersionRange range;
+
+        private Segment( final int kind, final String text, final String[] parts, final VersionRange range )
+        {
+            this.kind = kind;
+            this.text = text;
+            this.parts = parts;
+            this.range = range;
+        }
+
+        static Segment compile( final String pattern )
+        {
+            // support full wildcard and implied wildcard
+            if ( "*".equals( pattern ) || pattern.length() == 0 )
+            {
+                return new Segment( ANY, pattern, null, null );
+            }
+            // support contains wildcard
+            else if ( pattern.startsWith( "*" ) && pattern.endsWith( "*" ) )
+            {
+                return new Segment( CONTAINS, pattern.substring( 1, pattern.length() - 1 ), null, null );
+            }
+            // support leading wildcard
+            else if ( pattern.startsWith( "*" ) )
+            {
+                return new Segment( SUFFIX, pattern.substring( 1 ), null, null );
+            }
+            // support trailing wildcard
+            else if ( pattern.endsWith( "*" ) )
+            {
+                return new Segment( PREFIX, pattern.substring( 0, pattern.length() - 1 ), null, null );
+            }
+            // support wildcards in the middle of a pattern segment
+            else if ( pattern.indexOf( '*' ) > -1 )
+            {
+                return new Segment( PARTS, pattern, pattern.split( "\\*" ), null );
+            }
+            // support versions range
+            else if ( pattern.startsWith( "[" ) || pattern.startsWith( "(" ) )
+            {
+                VersionRange range;
+                try
+                {
+                    range = VersionRange.createFromVersionSpec( pattern );
+                }
+                catch ( final InvalidVersionSpecificationException e )
+                {
+                    range = null;
+                }
+                return new Segment( RANGE, pattern, null, range );
+            }
+            // support exact match
+            else
+            {
+                return new Segment( EXACT, pattern, null, null );
+            }
+        }
+
+        boolean matches( final String value, final int start, final int end )
+        {
+            switch ( kind )
+            {
+                case ANY:
+                    return true;
+                case CONTAINS:
+                    return indexOf( value, start, end, text ) != -1;
+                case SUFFIX:
+                    return text.length() <= end - start
+                        && value.regionMatches( end - text.length(), text, 0, text.length() );
+                case PREFIX:
+                    return text.length() <= end - start && value.regionMatches( start, text, 0, text.length() );
+                case PARTS:
+                    int lastPartEnd = -1;
+                    for ( String part : parts )
+                    {
+                        final int idx = indexOf( value, start, end, part );
+                        if ( idx <= lastPartEnd )
+                        {
+                            return false;
+                        }
+                        lastPartEnd = idx + part.length();
+                    }
+                    return true;
+                case RANGE:
+                    return range != null
+                        && range.containsVersion( new DefaultArtifactVersion( value.substring( start, end ) ) );
+                default:
+                    return text.length() == end - start && value.regionMatches( start, text, 0, text.length() );
+            }
+        }
+
+        /**
+         * @return the index of the first occurrence of <code>text</code> in the token, relative to the token start
+         */
+        private static int indexOf( final String value, final int start, final int end, final String text )
+        {
+            final int idx = value.indexOf( text, start );
+            return ( idx >= 0 && idx + text.length() <= end ) ? idx - start : -1;
+        }
+    }
+}
@@ -27,9 +27,6 @@ import java.util.Set;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.ArtifactUtils;
 import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
-import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
-import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
-import org.apache.maven.artifact.versioning.VersionRange;
 import org.codehaus.plexus.logging.Logger;
 
 /**
@@ -45,12 +42,19 @@ public class PatternIncludesArtifactFilter
 
     private final List<String> negativePatterns;
 
+    private final ArtifactPatternMatcher positiveMatcher;
+
+    private final ArtifactPatternMatcher negativeMatcher;
+
     private final boolean actTransitively;
 
     private final Set<String> patternsTriggered = new HashSet<String>();
 
     private final List<String> filteredArtifactIds = new ArrayList<String>();
 
+    /** The keys of the artifact being matched by {@link #patternMatches(Artifact)}, if any. */
+    private ArtifactKeys currentKeys;
+
     public PatternIncludesArtifactFilter( final List<String> patterns )
     {
         this( patterns, false );
@@ -78,6 +82,8 @@ public class PatternIncludesArtifactFilter
 
         positivePatterns = pos;
         negativePatterns = neg;
+        positiveMatcher = new ArtifactPatternMatcher( pos );
+        negativeMatcher = new ArtifactPatternMatcher( neg );
     }
 
     public boolean include( final Artifact artifact )
@@ -94,7 +100,17 @@ public class PatternIncludesArtifactFilter
 
     protected boolean patternMatches( final Artifact artifact )
     {
-        return ( positiveMatch( artifact ) == Boolean.TRUE ) || ( negativeMatch( artifact ) == Boolean.FALSE );
+        // the positive and the negative patterns are matched against the same keys
+        final ArtifactKeys previousKeys = currentKeys;
+        currentKeys = keysOf( artifact );
+        try
+        {
+            return ( positiveMatch( artifact ) == Boolean.TRUE ) || ( negativeMatch( artifact ) == Boolean.FALSE );
+        }
+        finally
+        {
+            currentKeys = previousKeys;
+        }
     }
 
     protected void addFilteredArtifactId( final String artifactId )
@@ -110,7 +126,7 @@ public class PatternIncludesArtifactFilter
         }
         else
         {
-            return Boolean.valueOf( match( artifact, negativePatterns ) );
+            return Boolean.valueOf( match( keysOf( artifact ), negativeMatcher ) );
         }
     }
 
@@ -122,27 +138,34 @@ public class PatternIncludesArtifactFilter
         }
         else
         {
-            return Boolean.valueOf( match( artifact, positivePatterns ) );
+            return Boolean.valueOf( match( keysOf( artifact ), positiveMatcher ) );
         }
     }
 
-    private boolean match( final Artifact artifact, final List<String> patterns )
+    private ArtifactKeys keysOf( final Artifact artifact )
     {
-        final String shortId = ArtifactUtils.versionlessKey( artifact );
-        final String id = artifact.getDependencyConflictId();
-        final String wholeId = artifact.getId();
+        if ( ( currentKeys != null ) && ( currentKeys.artifact == artifact ) )
+        {
+            return currentKeys;
+        }
+        return new ArtifactKeys( artifact );
+    }
 
-        if ( matchAgainst( wholeId, patterns, false ) )
+    private boolean match( final ArtifactKeys keys, final ArtifactPatternMatcher matcher )
+    {
+        final String groupId = keys.artifact.getGroupId();
+
+        if ( matchAgainst( keys.id, groupId, matcher ) )
         {
             return true;
         }
 
-        if ( matchAgainst( id, patterns, false ) )
+        if ( matchAgainst( keys.dependencyConflictId, groupId, matcher ) )
         {
             return true;
         }
 
-        if ( matchAgainst( shortId, patterns, false ) )
+        if ( matchAgainst( keys.versionlessKey, groupId, matcher ) )
         {
             return true;
         }
@@ -150,14 +173,18 @@ public class PatternIncludesArtifactFilter
         if ( actTransitively )
         {
             @SuppressWarnings( "unchecked" )
-            final List<String> depTrail = artifact.getDependencyTrail();
+            final List<String> depTrail = keys.artifact.getDependencyTrail();
 
             if ( ( depTrail != null ) && depTrail.size() > 1 )
             {
                 for ( String trailItem : depTrail )
                 {
-                    if ( matchAgainst( trailItem, patterns, true ) )
+                    // trail items are shared by all the transitive dependencies below them, so remember the results
+                    final String pattern = matcher.matchTrailItem( trailItem );
+
+                    if ( pattern != null )
                     {
+                        patternsTriggered.add( pattern );
                         return true;
                     }
                 }
@@ -167,131 +194,17 @@ public class PatternIncludesArtifactFilter
         return false;
     }
 
-    private boolean matchAgainst( final String value, final List<String> patterns, final boolean regionMatch )
-    {
-        for ( String pattern : patterns )
-        {
-            final String[] patternTokens = pattern.split( ":" );
-            final String[] tokens = value.split( ":" );
-
-            // fail immediately if pattern tokens outnumber tokens to match
-            boolean matched = ( patternTokens.length <= tokens.length );
-
-            for ( int i = 0; matched && i < patternTokens.length; i++ )
-            {
-                matched = matches( tokens[i], patternTokens[i] );
-            }
-
-            // // case of starting '*' like '*:jar:*'
-            if ( !matched && patternTokens.length < tokens.length && patternTokens.length > 0
-                && "*".equals( patternTokens[0] ) )
-            {
-                matched = true;
-                for ( int i = 0; matched && i < patternTokens.length; i++ )
-                {
-                    matched = matches( tokens[i + ( tokens.length - patternTokens.length )], patternTokens[i] );
-                }
-            }
-
-            if ( matched )
-            {
-                patternsTriggered.add( pattern );
-                return true;
-            }
-
-            if ( regionMatch && value.indexOf( pattern ) > -1 )
-            {
-                patternsTriggered.add( pattern );
-                return true;
-            }
-
-        }
-        return false;
-
-    }
-
-    /**
-     * Gets whether the specified token matches the specified pattern segment.
-     * 
-     * @param token the token to check
-     * @param pattern the pattern segment to match, as defined above
-     * @return <code>true</code> if the specified token is matched by the specified pattern segment
-     */
-    private boolean matches( final String token, final String pattern )
+    private boolean matchAgainst( final String value, final String groupId, final ArtifactPatternMatcher matcher )
     {
-        boolean matches;
+        final String pattern = matcher.match( value, groupId, false );
 
-        // support full wildcard and implied wildcard
-        if ( "*".equals( pattern ) || pattern.length() == 0 )
+        if ( pattern != null )
         {
-            matches = true;
-        }
-        // support contains wildcard
-        else if ( pattern.startsWith( "*" ) && pattern.endsWith( "*" ) )
-        {
-            final String contains = pattern.substring( 1, pattern.length() - 1 );
-
-            matches = ( token.indexOf( contains ) != -1 );
-        }
-        // support leading wildcard
-        else if ( pattern.startsWith( "*" ) )
-        {
-            final String suffix = pattern.substring( 1, pattern.length() );
-
-            matches = token.endsWith( suffix );
-        }
-        // support trailing wildcard
-        else if ( pattern.endsWith( "*" ) )
-        {
-            final String prefix = pattern.substring( 0, pattern.length() - 1 );
-
-            matches = token.startsWith( prefix );
-        }
-        // support wildcards in the middle of a pattern segment
-        else if ( pattern.indexOf( '*' ) > -1 )
-        {
-            String[] parts = pattern.split( "\\*" );
-            int lastPartEnd = -1;
-            boolean match = true;
-
-            for ( String part : parts )
-            {
-                int idx = token.indexOf( part );
-                if ( idx <= lastPartEnd )
-                {
-                    match = false;
-                    break;
-                }
-
-                lastPartEnd = idx + part.length();
-            }
-
-            matches = match;
-        }
-        // support versions range
-        else if ( pattern.startsWith( "[" ) || pattern.startsWith( "(" ) )
-        {
-            matches = isVersionIncludedInRange( token, pattern );
-        }
-        // support exact match
-        else
-        {
-            matches = token.equals( pattern );
+            patternsTriggered.add( pattern );
+            return true;
         }
 
-        return matches;
-    }
-
-    private boolean isVersionIncludedInRange( final String version, final String range )
-    {
-        try
-        {
-            return VersionRange.createFromVersionSpec( range ).containsVersion( new DefaultArtifactVersion( version ) );
-        }
-        catch ( final InvalidVersionSpecificationException e )
-        {
-            return false;
-        }
+        return false;
     }
 
     public void reportMissedCriteria( final Logger logger )
@@ -347,6 +260,28 @@ public class PatternIncludesArtifactFilter
         return "artifact inclusion filter";
     }
 
+    /**
+     * The keys of an artifact to match, computed once per {@link #patternMatches(Artifact)} call.
+     */
+    static final class ArtifactKeys
+    {
+        final Artifact artifact;
+
+        final String versionlessKey;
+
+        final String dependencyConflictId;
+
+        final String id;
+
+        ArtifactKeys( final Artifact artifact )
+        {
+            this.artifact = artifact;
+            versionlessKey = ArtifactUtils.versionlessKey( artifact );
+            dependencyConflictId = artifact.getDependencyConflictId();
+            id = artifact.getId();
+        }
+    }
+
     public void reportFilteredArtifacts( final Logger logger )
     {
         if ( !filteredArtifactIds.isEmpty() && logger.isDebugEnabled() )
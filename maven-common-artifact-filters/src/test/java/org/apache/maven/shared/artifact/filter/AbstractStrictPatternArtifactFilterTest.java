@@ -329,6 +329,13 @@ public abstract class AbstractStrictPatternArtifactFilterTest extends TestCase
         assertExcluded( "groupId:artifactId:type:(,1.0],[1.2,)");
     }
 
+    public void testInvalidRangeVersion()
+    {
+        artifact = createArtifact( "groupId", "artifactId", "type", "1.0.1" );
+        assertExcluded( "groupId:artifactId:type:[1.0" );
+        assertExcluded( "groupId:artifactId:type:(1.0.1]" );
+    }
+
     public void testWildcardsWithRangeVersion()
     {
         artifact = createArtifact( "groupId", "artifactId", "type", "1.0.1" );
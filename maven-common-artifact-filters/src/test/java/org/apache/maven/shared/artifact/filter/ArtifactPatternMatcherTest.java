@@ -0,0 +1,280 @@
+package org.apache.maven.shared.artifact.filter;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
+import org.apache.maven.artifact.versioning.VersionRange;
+
+public class ArtifactPatternMatcherTest
+    extends TestCase
+{
+    private static final String[] PATTERN_SEGMENTS =
+        { "", "*", "group", "gr*", "*oup", "*ou*", "g*p", "g*o*p", "g**p", "artifact", "jar", "1.0", "[1.0,2.0)",
+            "(,1.0]", "[invalid", "1.*", "*.0" };
+
+    private static final String[] VALUE_TOKENS = { "", "group", "groupgroup", "artifact", "jar", "1.0", "1.5", "2.0" };
+
+    public void testShouldMatchLikeSplittingPatternsAndValues()
+    {
+        final List<String> patterns = new ArrayList<String>();
+        for ( String first : PATTERN_SEGMENTS )
+        {
+            patterns.add( first );
+            patterns.add( first + ":" );
+            patterns.add( ":" + first );
+            for ( String second : PATTERN_SEGMENTS )
+            {
+                patterns.add( first + ":" + second );
+                patterns.add( "*:" + first + ":" + second );
+                patterns.add( first + ":*:" + second );
+            }
+        }
+
+        final List<String> values = new ArrayList<String>();
+        values.add( ":::" );
+        for ( String first : VALUE_TOKENS )
+        {
+            values.add( first );
+            values.add( first + "::" );
+            for ( String second : VALUE_TOKENS )
+            {
+                values.add( first + ":" + second );
+                values.add( first + "::" + second );
+                for ( String third : VALUE_TOKENS )
+                {
+                    values.add( first + ":" + second + ":" + third );
+                }
+            }
+        }
+
+        for ( String pattern : patterns )
+        {
+            final ArtifactPatternMatcher matcher = new ArtifactPatternMatcher( Arrays.asList( pattern, "*:nothing" ) );
+
+            for ( String value : values )
+            {
+                final String groupId = value.indexOf( ':' ) < 0 ? value : value.substring( 0, value.indexOf( ':' ) );
+
+                for ( int i = 0; i < 2; i++ )
+                {
+                    final boolean regionMatch = i == 1;
+                    final String expected = matches( value, pattern, regionMatch ) ? pattern : null;
+                    final String message = "'" + pattern + "' against '" + value + "'";
+
+                    assertEquals( message, expected, matcher.match( value, groupId, regionMatch ) );
+                    assertEquals( message, expected, matcher.match( value, null, regionMatch ) );
+                }
+            }
+        }
+    }
+
+    public void testShouldReturnFirstMatchingPatternInOrder()
+    {
+        final ArtifactPatternMatcher matcher =
+            new ArtifactPatternMatcher( Arrays.asList( "other:*", "*:artifact", "group:artifact", "group" ) );
+
+        assertEquals( "*:artifact", matcher.match( "group:artifact", "group", false ) );
+        assertEquals( "group", matcher.match( "group:other", "group", false ) );
+        assertNull( matcher.match( "third:other", "third", false ) );
+    }
+
+    public void testShouldRememberTrailItemMatches()
+    {
+        final List<String> matched = new ArrayList<String>();
+        final ArtifactPatternMatcher matcher = new ArtifactPatternMatcher( Arrays.asList( "group:other", "artifact" ) )
+        {
+            @Override
+            String match( final String value, final String groupId, final boolean regionMatch )
+            {
+                matched.add( value );
+                return super.match( value, groupId, regionMatch );
+            }
+        };
+
+        for ( int i = 0; i < 2; i++ )
+        {
+            assertEquals( "artifact", matcher.matchTrailItem( "group:artifact:jar:1.0" ) );
+            assertEquals( "group:other", matcher.matchTrailItem( "group:other:jar:1.0" ) );
+            assertNull( matcher.matchTrailItem( "group:third:jar:1.0" ) );
+        }
+
+        assertEquals( Arrays.asList( "group:artifact:jar:1.0", "group:other:jar:1.0", "group:third:jar:1.0" ),
+                      matched );
+    }
+
+    /**
+     * Matches 2000 artifacts against 50 patterns, with and without dependency trails. Enable it with
+     * <code>-Dartifact.filter.benchmark=true</code>.
+     */
+    public void testBenchmark()
+    {
+        if ( !Boolean.getBoolean( "artifact.filter.benchmark" ) )
+        {
+            return;
+        }
+
+        final List<String> patterns = new ArrayList<String>();
+        for ( int i = 0; i < 50; i++ )
+        {
+            switch ( i % 5 )
+            {
+                case 0:
+                    patterns.add( "org.example.group" + i + ":artifact" + i );
+                    break;
+                case 1:
+                    patterns.add( "org.example.group" + i + ":*:jar:*" );
+                    break;
+                case 2:
+                    patterns.add( "*:artifact" + i + "*" );
+                    break;
+                case 3:
+                    patterns.add( "org.example.*:artifact" + i + ":jar:[1.0,2.0)" );
+                    break;
+                default:
+                    patterns.add( "!org.example.group" + i + ":art*fact" + i );
+                    break;
+            }
+        }
+
+        final List<Artifact> artifacts = new ArrayList<Artifact>();
+        for ( int i = 0; i < 2000; i++ )
+        {
+            final Artifact artifact =
+                new DefaultArtifact( "org.example.group" + ( i % 100 ), "artifact" + i,
+                                     VersionRange.createFromVersion( "1." + ( i % 10 ) ), "compile", "jar", null,
+                                     new DefaultArtifactHandler( "jar" ) );
+            artifact.setDependencyTrail( Arrays.asList( "org.example:root:jar:1.0", "org.example.group" + ( i % 7 )
+                + ":parent" + ( i % 13 ) + ":jar:1.0", artifact.getId() ) );
+            artifacts.add( artifact );
+        }
+
+        for ( int i = 0; i < 2; i++ )
+        {
+            final boolean actTransitively = i == 1;
+            long best = Long.MAX_VALUE;
+            int included = 0;
+            for ( int run = 0; run < 20; run++ )
+            {
+                final PatternIncludesArtifactFilter filter =
+                    new PatternIncludesArtifactFilter( patterns, actTransitively );
+                included = 0;
+                final long start = System.nanoTime();
+                for ( Artifact artifact : artifacts )
+                {
+                    if ( filter.include( artifact ) )
+                    {
+                        included++;
+                    }
+                }
+                best = Math.min( best, System.nanoTime() - start );
+            }
+            System.out.println( "PatternIncludesArtifactFilter (actTransitively=" + actTransitively + "): "
+                + ( best / 1000 ) + " us for " + artifacts.size() + " artifacts, " + included + " included" );
+        }
+    }
+
+    /**
+     * The original matching of a pattern, splitting both the pattern and the value.
+     */
+    private static boolean matches( final String value, final String pattern, final boolean regionMatch )
+    {
+        final String[] patternTokens = pattern.split( ":" );
+        final String[] tokens = value.split( ":" );
+
+        boolean matched = ( patternTokens.length <= tokens.length );
+
+        for ( int i = 0; matched && i < patternTokens.length; i++ )
+        {
+            matched = matchesToken( tokens[i], patternTokens[i] );
+        }
+
+        if ( !matched && patternTokens.length < tokens.length && patternTokens.length > 0
+            && "*".equals( patternTokens[0] ) )
+        {
+            matched = true;
+            for ( int i = 0; matched && i < patternTokens.length; i++ )
+            {
+                matched = matchesToken( tokens[i + ( tokens.length - patternTokens.length )], patternTokens[i] );
+            }
+        }
+
+        return matched || ( regionMatch && value.indexOf( pattern ) > -1 );
+    }
+
+    private static boolean matchesToken( final String token, final String pattern )
+    {
+        if ( "*".equals( pattern ) || pattern.length() == 0 )
+        {
+            return true;
+        }
+        else if ( pattern.startsWith( "*" ) && pattern.endsWith( "*" ) )
+        {
+            return token.indexOf( pattern.substring( 1, pattern.length() - 1 ) ) != -1;
+        }
+        else if ( pattern.startsWith( "*" ) )
+        {
+            return token.endsWith( pattern.substring( 1 ) );
+        }
+        else if ( pattern.endsWith( "*" ) )
+        {
+            return token.startsWith( pattern.substring( 0, pattern.length() - 1 ) );
+        }
+        else if ( pattern.indexOf( '*' ) > -1 )
+        {
+            int lastPartEnd = -1;
+            for ( String part : pattern.split( "\\*" ) )
+            {
+                int idx = token.indexOf( part );
+                if ( idx <= lastPartEnd )
+                {
+                    return false;
+                }
+                lastPartEnd = idx + part.length();
+            }
+            return true;
+        }
+        else if ( pattern.startsWith( "[" ) || pattern.startsWith( "(" ) )
+        {
+            try
+            {
+                return VersionRange.createFromVersionSpec( pattern ).containsVersion(
+                    new DefaultArtifactVersion( token ) );
+            }
+            catch ( final InvalidVersionSpecificationException e )
+            {
+                return false;
+            }
+        }
+        else
+        {
+            return token.equals( pattern );
+        }
+    }
+}
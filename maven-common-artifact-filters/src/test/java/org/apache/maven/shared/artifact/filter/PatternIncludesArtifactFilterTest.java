@@ -19,11 +19,16 @@ package org.apache.maven.shared.artifact.filter;
  * under the License.
  */
 
+import java.util.Collections;
 import java.util.List;
 
 import junit.framework.TestCase;
 
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
 import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
+import org.apache.maven.artifact.versioning.VersionRange;
 
 public class PatternIncludesArtifactFilterTest
     extends TestCase
@@ -126,6 +131,24 @@ public class PatternIncludesArtifactFilterTest
         tck.testShouldIncludeWhenWildcardCoversPartOfGroupIdAndEverythingElse();
     }
 
+    public void testShouldMatchThroughTheOverridablePositiveMatch()
+    {
+        final Artifact artifact =
+            new DefaultArtifact( "group", "artifact", VersionRange.createFromVersion( "1.0" ), null, "jar", null,
+                                 new DefaultArtifactHandler( "jar" ) );
+
+        final ArtifactFilter filter = new PatternIncludesArtifactFilter( Collections.singletonList( "other" ) )
+        {
+            @Override
+            protected Boolean positiveMatch( final Artifact candidate )
+            {
+                return Boolean.valueOf( candidate == artifact );
+            }
+        };
+
+        assertEquals( true, filter.include( artifact ) );
+    }
+
     // See comment in TCK.
     // public void testShouldIncludeDirectDependencyWhenInvertedWildcardMatchesButDoesntMatchTransitiveChild()
     // {
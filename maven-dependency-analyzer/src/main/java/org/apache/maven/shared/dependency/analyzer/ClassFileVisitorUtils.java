@@ -28,8 +28,11 @@ import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Enumeration;
 import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 
 /**
@@ -55,10 +58,27 @@ public final class ClassFileVisitorUtils
 
     public static void accept( URL url, ClassFileVisitor visitor )
         throws IOException
+    {
+        accept( url, visitor, false );
+    }
+
+    /**
+     * Visits the classes of a library.
+     * 
+     * @param url the jar file or exploded directory of the library
+     * @param visitor the visitor
+     * @param randomAccess whether to read a local jar file through its central directory. Entries which aren't
+     *            classes are skipped without reading them, so a corrupt jar file is only detected if the visitor reads
+     *            the corrupt class files.
+     * @throws IOException if the library can't be read
+     * @since 1.4
+     */
+    public static void accept( URL url, ClassFileVisitor visitor, boolean randomAccess )
+        throws IOException
     {
         if ( url.getPath().endsWith( ".jar" ) )
         {
-            acceptJar( url, visitor );
+            acceptJar( url, visitor, randomAccess );
         }
         else if ( url.getProtocol().equalsIgnoreCase( "file" ) )
         {
@@ -90,9 +110,22 @@ public final class ClassFileVisitorUtils
 
     // private methods --------------------------------------------------------
 
-    private static void acceptJar( URL url, ClassFileVisitor visitor )
+    private static void acceptJar( URL url, ClassFileVisitor visitor, boolean randomAccess )
         throws IOException
     {
+        if ( randomAccess && url.getProtocol().equalsIgnoreCase( "file" ) )
+        {
+            try
+            {
+                acceptJar( new File( new URI( url.toString() ) ), visitor );
+                return;
+            }
+            catch ( URISyntaxException exception )
+            {
+                // not a valid file URI, stream it below
+            }
+        }
+
         JarInputStream in = new JarInputStream( url.openStream() );
 
         JarEntry entry = null;
@@ -110,6 +143,39 @@ public final class ClassFileVisitorUtils
         in.close();
     }
 
+    private static void acceptJar( File file, ClassFileVisitor visitor )
+        throws IOException
+    {
+        ZipFile zipFile = new ZipFile( file );
+
+        try
+        {
+            for ( Enumeration<? extends ZipEntry> entries = zipFile.entries(); entries.hasMoreElements(); )
+            {
+                ZipEntry entry = entries.nextElement();
+                String name = entry.getName();
+
+                if ( name.endsWith( ".class" ) )
+                {
+                    InputStream in = zipFile.getInputStream( entry );
+
+                    try
+                    {
+                        visitClass( name, in, visitor );
+                    }
+                    finally
+                    {
+                        in.close();
+                    }
+                }
+            }
+        }
+        finally
+        {
+            zipFile.close();
+        }
+    }
+
     private static void acceptDirectory( File directory, ClassFileVisitor visitor )
         throws IOException
     {
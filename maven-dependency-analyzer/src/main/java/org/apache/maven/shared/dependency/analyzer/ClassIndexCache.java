@@ -0,0 +1,203 @@
+package org.apache.maven.shared.dependency.analyzer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Persistent cache of the classes contained in jar files, one index file per jar file. An index is only used while
+ * the jar file still has the size and modification time it had when the index got written.
+ * <p/>
+ * The class names are stored sorted, each one as the length of the prefix it shares with the previous one followed by
+ * the remaining characters, which keeps an index to a fraction of the size of the jar's central directory.
+ * 
+ * @version $Id$
+ * @since 1.4
+ */
+final class ClassIndexCache
+{
+    // constants --------------------------------------------------------------
+
+    private static final int FORMAT_VERSION = 0xC1A55001;
+
+    // fields -----------------------------------------------------------------
+
+    private final File directory;
+
+    // constructors -----------------------------------------------------------
+
+    ClassIndexCache( File directory )
+    {
+        this.directory = directory;
+    }
+
+    // methods ----------------------------------------------------------------
+
+    /**
+     * @return the cached classes of the jar file, or <code>null</code> if there is no up to date index
+     */
+    Set<String> get( File jar )
+    {
+        File index = getIndexFile( jar );
+        if ( !index.isFile() )
+        {
+            return null;
+        }
+
+        try
+        {
+            DataInputStream in = new DataInputStream( new ByteArrayInputStream( readFully( index ) ) );
+
+            if ( in.readInt() != FORMAT_VERSION || !jar.getAbsolutePath().equals( in.readUTF() )
+                || in.readLong() != jar.length() || in.readLong() != jar.lastModified() )
+            {
+                return null;
+            }
+
+            int count = in.readInt();
+            Set<String> classes = new HashSet<String>( count * 4 / 3 + 1 );
+            String previous = "";
+            for ( int i = 0; i < count; i++ )
+            {
+                int shared = in.readUnsignedShort();
+                String name = previous.substring( 0, shared ) + in.readUTF();
+                classes.add( name );
+                previous = name;
+            }
+            return classes;
+        }
+        catch ( IOException exception )
+        {
+            // truncated or otherwise unreadable index, analyze the jar again
+            return null;
+        }
+        catch ( IndexOutOfBoundsException exception )
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the index of a jar file. The index is written to a temporary file first, so concurrent builds sharing the
+     * cache never see a partial index.
+     */
+    void put( File jar, long length, long lastModified, Set<String> classes )
+        throws IOException
+    {
+        if ( !directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory() )
+        {
+            throw new IOException( "Cannot create class index cache directory: " + directory );
+        }
+
+        String[] names = classes.toArray( new String[classes.size()] );
+        Arrays.sort( names );
+
+        File temp = File.createTempFile( jar.getName(), ".tmp", directory );
+        try
+        {
+            DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( temp ) ) );
+            try
+            {
+                out.writeInt( FORMAT_VERSION );
+                out.writeUTF( jar.getAbsolutePath() );
+                out.writeLong( length );
+                out.writeLong( lastModified );
+                out.writeInt( names.length );
+                String previous = "";
+                for ( String name : names )
+                {
+                    int shared = sharedPrefixLength( previous, name );
+                    out.writeShort( shared );
+                    out.writeUTF( name.substring( shared ) );
+                    previous = name;
+                }
+            }
+            finally
+            {
+                out.close();
+            }
+
+            File index = getIndexFile( jar );
+            if ( !temp.renameTo( index ) )
+            {
+                // the target can't be replaced on some platforms
+                index.delete();
+                temp.renameTo( index );
+            }
+        }
+        finally
+        {
+            temp.delete();
+        }
+    }
+
+    private File getIndexFile( File jar )
+    {
+        String path = jar.getAbsolutePath();
+
+        // the path is stored in the index as well, so a hash collision is merely a cache miss
+        return new File( directory, jar.getName() + '-' + Integer.toHexString( path.hashCode() ) + ".idx" );
+    }
+
+    private static int sharedPrefixLength( String a, String b )
+    {
+        int length = Math.min( a.length(), b.length() );
+        int i = 0;
+        while ( i < length && a.charAt( i ) == b.charAt( i ) )
+        {
+            i++;
+        }
+        return i;
+    }
+
+    private static byte[] readFully( File file )
+        throws IOException
+    {
+        InputStream in = new FileInputStream( file );
+        try
+        {
+            byte[] bytes = new byte[(int) file.length()];
+            int offset = 0;
+            int read;
+            while ( offset < bytes.length && ( read = in.read( bytes, offset, bytes.length - offset ) ) != -1 )
+            {
+                offset += read;
+            }
+            return bytes;
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+}
@@ -19,7 +19,9 @@ package org.apache.maven.shared.dependency.analyzer;
  * under the License.
  */
 
+import java.io.File;
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.Set;
 import java.util.zip.ZipException;
@@ -36,10 +38,87 @@ import org.codehaus.plexus.component.annotations.Component;
 public class DefaultClassAnalyzer
     implements ClassAnalyzer
 {
+    // fields -----------------------------------------------------------------
+
+    private ClassIndexCache cache;
+
     // ClassAnalyzer methods --------------------------------------------------
 
     public Set<String> analyze( URL url )
         throws IOException
+    {
+        File jar = cache != null ? toJarFile( url ) : null;
+
+        if ( jar == null )
+        {
+            return analyzeClasses( url );
+        }
+
+        Set<String> classes = cache.get( jar );
+
+        if ( classes == null )
+        {
+            // stamp before reading, a jar file modified meanwhile doesn't match the index afterwards
+            long length = jar.length();
+            long lastModified = jar.lastModified();
+
+            classes = analyzeClasses( url );
+
+            try
+            {
+                cache.put( jar, length, lastModified, classes );
+            }
+            catch ( IOException exception )
+            {
+                // the cache is only an optimization, analyze the jar again next time
+            }
+        }
+
+        return classes;
+    }
+
+    // public methods ---------------------------------------------------------
+
+    /**
+     * Sets the directory caching the classes of the analyzed jar files across builds. Jar files in the local
+     * repository rarely change, a cached index is used as long as the jar file has the same size and modification
+     * time. Exploded directories are always analyzed.
+     * 
+     * @param cacheDirectory the cache directory, <code>null</code> to disable the cache, which is the default
+     * @since 1.4
+     */
+    public void setCacheDirectory( File cacheDirectory )
+    {
+        cache = cacheDirectory != null ? new ClassIndexCache( cacheDirectory ) : null;
+    }
+
+    // private methods --------------------------------------------------------
+
+    private static File toJarFile( URL url )
+    {
+        if ( !url.getProtocol().equalsIgnoreCase( "file" ) || !url.getPath().endsWith( ".jar" ) )
+        {
+            return null;
+        }
+
+        try
+        {
+            File file = new File( url.toURI() );
+            return file.isFile() ? file : null;
+        }
+        catch ( URISyntaxException exception )
+        {
+            return null;
+        }
+        catch ( IllegalArgumentException exception )
+        {
+            // not a local file, e.g. an UNC path
+            return null;
+        }
+    }
+
+    private Set<String> analyzeClasses( URL url )
+        throws IOException
     {
         CollectorClassFileVisitor visitor = new CollectorClassFileVisitor();
 
@@ -23,11 +23,18 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.project.MavenProject;
@@ -58,6 +65,11 @@ public class DefaultProjectDependencyAnalyzer
     @Requirement
     private DependencyAnalyzer dependencyAnalyzer;
 
+    /**
+     * Number of dependency libraries analyzed at once
+     */
+    private int threads = 1;
+
     // ProjectDependencyAnalyzer methods --------------------------------------
 
     /*
@@ -74,7 +86,19 @@ public class DefaultProjectDependencyAnalyzer
 
             Set<Artifact> declaredArtifacts = buildDeclaredArtifacts( project );
 
-            Set<Artifact> usedArtifacts = buildUsedArtifacts( artifactClassMap, dependencyClasses );
+            Map<String, Set<Artifact>> duplicateClasses = new TreeMap<String, Set<Artifact>>();
+
+            Map<String, Artifact> classArtifactMap = buildClassArtifactMap( artifactClassMap, duplicateClasses );
+
+            Set<Artifact> usedArtifacts;
+            if ( isFindArtifactForClassNameOverridden() )
+            {
+                usedArtifacts = buildUsedArtifactsByClassName( artifactClassMap, dependencyClasses );
+            }
+            else
+            {
+                usedArtifacts = buildUsedArtifacts( classArtifactMap, dependencyClasses );
+            }
 
             Set<Artifact> usedDeclaredArtifacts = new LinkedHashSet<Artifact>( declaredArtifacts );
             usedDeclaredArtifacts.retainAll( usedArtifacts );
@@ -86,7 +110,7 @@ public class DefaultProjectDependencyAnalyzer
             unusedDeclaredArtifacts = removeAll( unusedDeclaredArtifacts, usedArtifacts );
 
             return new ProjectDependencyAnalysis( usedDeclaredArtifacts, usedUndeclaredArtifacts,
-                                                  unusedDeclaredArtifacts );
+                                                  unusedDeclaredArtifacts, duplicateClasses );
         }
         catch ( IOException exception )
         {
@@ -107,22 +131,18 @@ public class DefaultProjectDependencyAnalyzer
      */
     private Set<Artifact> removeAll( Set<Artifact> start, Set<Artifact> remove )
     {
-        Set<Artifact> results = new LinkedHashSet<Artifact>( start.size() );
+        Set<String> removeConflictIds = new HashSet<String>( remove.size() * 2 );
 
-        for ( Artifact artifact : start )
+        for ( Artifact artifact : remove )
         {
-            boolean found = false;
+            removeConflictIds.add( artifact.getDependencyConflictId() );
+        }
 
-            for ( Artifact artifact2 : remove )
-            {
-                if ( artifact.getDependencyConflictId().equals( artifact2.getDependencyConflictId() ) )
-                {
-                    found = true;
-                    break;
-                }
-            }
+        Set<Artifact> results = new LinkedHashSet<Artifact>( start.size() );
 
-            if ( !found )
+        for ( Artifact artifact : start )
+        {
+            if ( !removeConflictIds.contains( artifact.getDependencyConflictId() ) )
             {
                 results.add( artifact );
             }
@@ -131,16 +151,40 @@ public class DefaultProjectDependencyAnalyzer
         return results;
     }
 
+    // public methods ---------------------------------------------------------
+
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Sets the number of dependency libraries whose classes are collected at once. More than one thread requires a
+     * thread-safe {@link ClassAnalyzer}, which the default one is.
+     * 
+     * @param threads the number of threads, <code>1</code> by default
+     * @since 1.4
+     */
+    public void setThreads( int threads )
+    {
+        this.threads = threads;
+    }
+
     // private methods --------------------------------------------------------
 
     private Map<Artifact, Set<String>> buildArtifactClassMap( MavenProject project )
         throws IOException
     {
-        Map<Artifact, Set<String>> artifactClassMap = new LinkedHashMap<Artifact, Set<String>>();
-
         @SuppressWarnings( "unchecked" )
         Set<Artifact> dependencyArtifacts = project.getArtifacts();
 
+        if ( threads > 1 )
+        {
+            return buildArtifactClassMapInParallel( dependencyArtifacts );
+        }
+
+        Map<Artifact, Set<String>> artifactClassMap = new LinkedHashMap<Artifact, Set<String>>();
+
         for ( Artifact artifact : dependencyArtifacts )
         {
             File file = artifact.getFile();
@@ -158,6 +202,126 @@ public class DefaultProjectDependencyAnalyzer
         return artifactClassMap;
     }
 
+    /**
+     * Analyzes the dependency libraries concurrently, the resulting map keeps the order of the artifacts.
+     */
+    private Map<Artifact, Set<String>> buildArtifactClassMapInParallel( Set<Artifact> dependencyArtifacts )
+        throws IOException
+    {
+        Map<Artifact, Future<Set<String>>> futures = new LinkedHashMap<Artifact, Future<Set<String>>>();
+
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+
+        try
+        {
+            for ( Artifact artifact : dependencyArtifacts )
+            {
+                File file = artifact.getFile();
+
+                if ( file != null && file.getName().endsWith( ".jar" ) )
+                {
+                    final URL url = file.toURL();
+
+                    futures.put( artifact, executor.submit( new Callable<Set<String>>()
+                    {
+                        public Set<String> call()
+                            throws IOException
+                        {
+                            return classAnalyzer.analyze( url );
+                        }
+                    } ) );
+                }
+            }
+
+            Map<Artifact, Set<String>> artifactClassMap = new LinkedHashMap<Artifact, Set<String>>();
+
+            for ( Map.Entry<Artifact, Future<Set<String>>> entry : futures.entrySet() )
+            {
+                try
+                {
+                    artifactClassMap.put( entry.getKey(), entry.getValue().get() );
+                }
+                catch ( InterruptedException exception )
+                {
+                    Thread.currentThread().interrupt();
+                    throw new IOException( "Interrupted while analyzing " + entry.getKey() );
+                }
+                catch ( ExecutionException exception )
+                {
+                    Throwable cause = exception.getCause();
+                    if ( cause instanceof IOException )
+                    {
+                        throw (IOException) cause;
+                    }
+                    if ( cause instanceof RuntimeException )
+                    {
+                        throw (RuntimeException) cause;
+                    }
+                    if ( cause instanceof Error )
+                    {
+                        throw (Error) cause;
+                    }
+                    IOException e = new IOException( "Cannot analyze " + entry.getKey() );
+                    e.initCause( cause );
+                    throw e;
+                }
+            }
+
+            return artifactClassMap;
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Inverts the artifact class map. A class contained in several artifacts is mapped to the first of them, like the
+     * default {@link #findArtifactForClassName(Map, String)} does, and recorded in <code>duplicateClasses</code>
+     * together with all the artifacts containing it.
+     */
+    private Map<String, Artifact> buildClassArtifactMap( Map<Artifact, Set<String>> artifactClassMap,
+                                                         Map<String, Set<Artifact>> duplicateClasses )
+    {
+        int size = 0;
+        for ( Set<String> classes : artifactClassMap.values() )
+        {
+            size += classes.size();
+        }
+
+        Map<String, Artifact> classArtifactMap = new HashMap<String, Artifact>( size * 4 / 3 + 1 );
+
+        for ( Map.Entry<Artifact, Set<String>> entry : artifactClassMap.entrySet() )
+        {
+            Artifact artifact = entry.getKey();
+
+            for ( String className : entry.getValue() )
+            {
+                Artifact first = classArtifactMap.get( className );
+
+                if ( first == null )
+                {
+                    classArtifactMap.put( className, artifact );
+                }
+                else
+                {
+                    Set<Artifact> artifacts = duplicateClasses.get( className );
+
+                    if ( artifacts == null )
+                    {
+                        artifacts = new LinkedHashSet<Artifact>();
+                        artifacts.add( first );
+                        duplicateClasses.put( className, artifacts );
+                    }
+
+                    artifacts.add( artifact );
+                }
+            }
+        }
+
+        return classArtifactMap;
+    }
+
     protected Set<String> buildDependencyClasses( MavenProject project )
         throws IOException
     {
@@ -193,7 +357,28 @@ public class DefaultProjectDependencyAnalyzer
         return declaredArtifacts;
     }
     
-    private Set<Artifact> buildUsedArtifacts( Map<Artifact, Set<String>> artifactClassMap, Set<String> dependencyClasses )
+    private Set<Artifact> buildUsedArtifacts( Map<String, Artifact> classArtifactMap, Set<String> dependencyClasses )
+    {
+        Set<Artifact> usedArtifacts = new HashSet<Artifact>();
+
+        for ( String className : dependencyClasses )
+        {
+            Artifact artifact = classArtifactMap.get( className );
+
+            if ( artifact != null )
+            {
+                usedArtifacts.add( artifact );
+            }
+        }
+
+        return usedArtifacts;
+    }
+
+    /**
+     * Used by subclasses overriding {@link #findArtifactForClassName(Map, String)}, which get asked for every class.
+     */
+    private Set<Artifact> buildUsedArtifactsByClassName( Map<Artifact, Set<String>> artifactClassMap,
+                                                         Set<String> dependencyClasses )
     {
         Set<Artifact> usedArtifacts = new HashSet<Artifact>();
 
@@ -210,6 +395,33 @@ public class DefaultProjectDependencyAnalyzer
         return usedArtifacts;
     }
 
+    private boolean isFindArtifactForClassNameOverridden()
+    {
+        for ( Class<?> type = getClass(); type != DefaultProjectDependencyAnalyzer.class;
+              type = type.getSuperclass() )
+        {
+            try
+            {
+                type.getDeclaredMethod( "findArtifactForClassName", Map.class, String.class );
+                return true;
+            }
+            catch ( NoSuchMethodException exception )
+            {
+                // not overridden by this class
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Finds the artifact containing the given class. The analysis only calls this method if a subclass overrides it,
+     * and looks up the classes in an index otherwise, which returns the same artifacts as this implementation.
+     * 
+     * @param artifactClassMap the classes of the dependency libraries, in the order of the artifacts
+     * @param className the class name to look up
+     * @return the first artifact containing the class, or <code>null</code> if none does
+     */
     protected Artifact findArtifactForClassName( Map<Artifact, Set<String>> artifactClassMap, String className )
     {
         for ( Map.Entry<Artifact, Set<String>> entry : artifactClassMap.entrySet() )
@@ -23,7 +23,9 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.maven.artifact.Artifact;
@@ -44,6 +46,8 @@ public class ProjectDependencyAnalysis
 
     private final Set<Artifact> unusedDeclaredArtifacts;
 
+    private final Map<String, Set<Artifact>> duplicateClasses;
+
     // constructors -----------------------------------------------------------
 
     public ProjectDependencyAnalysis()
@@ -53,10 +57,21 @@ public class ProjectDependencyAnalysis
 
     public ProjectDependencyAnalysis( Set<Artifact> usedDeclaredArtifacts, Set<Artifact> usedUndeclaredArtifacts,
                                       Set<Artifact> unusedDeclaredArtifacts )
+    {
+        this( usedDeclaredArtifacts, usedUndeclaredArtifacts, unusedDeclaredArtifacts, null );
+    }
+
+    /**
+     * @since 1.4
+     */
+    public ProjectDependencyAnalysis( Set<Artifact> usedDeclaredArtifacts, Set<Artifact> usedUndeclaredArtifacts,
+                                      Set<Artifact> unusedDeclaredArtifacts,
+                                      Map<String, Set<Artifact>> duplicateClasses )
     {
         this.usedDeclaredArtifacts = safeCopy( usedDeclaredArtifacts );
         this.usedUndeclaredArtifacts = safeCopy( usedUndeclaredArtifacts );
         this.unusedDeclaredArtifacts = safeCopy( unusedDeclaredArtifacts );
+        this.duplicateClasses = safeCopy( duplicateClasses );
     }
 
     // public methods ---------------------------------------------------------
@@ -85,6 +100,17 @@ public class ProjectDependencyAnalysis
         return unusedDeclaredArtifacts;
     }
 
+    /**
+     * Classes contained in more than one dependency artifact, with the artifacts containing them. Usages of such a
+     * class are attributed to the first of these artifacts. Not taken into account by {@link #equals(Object)}.
+     * 
+     * @since 1.4
+     */
+    public Map<String, Set<Artifact>> getDuplicateClasses()
+    {
+        return duplicateClasses;
+    }
+
     /**
      * Filter not-compile scoped artifacts from unused declared.
      * 
@@ -103,7 +129,8 @@ public class ProjectDependencyAnalysis
             }
         }
 
-        return new ProjectDependencyAnalysis( usedDeclaredArtifacts, usedUndeclaredArtifacts, filteredUnusedDeclared );
+        return new ProjectDependencyAnalysis( usedDeclaredArtifacts, usedUndeclaredArtifacts, filteredUnusedDeclared,
+                                              duplicateClasses );
     }
 
     /**
@@ -166,7 +193,8 @@ public class ProjectDependencyAnalysis
             throw new ProjectDependencyAnalyzerException( "Trying to force use of dependencies which are " + builder );
         }
 
-        return new ProjectDependencyAnalysis( forcedUsedDeclared, usedUndeclaredArtifacts, forcedUnusedDeclared );
+        return new ProjectDependencyAnalysis( forcedUsedDeclared, usedUndeclaredArtifacts, forcedUnusedDeclared,
+                                              duplicateClasses );
     }
 
     // Object methods ---------------------------------------------------------
@@ -232,6 +260,16 @@ public class ProjectDependencyAnalysis
             buffer.append( "unusedDeclaredArtifacts=" ).append( getUnusedDeclaredArtifacts() );
         }
 
+        if ( !getDuplicateClasses().isEmpty() )
+        {
+            if ( buffer.length() > 0)
+            {
+                buffer.append( "," );
+            }
+
+            buffer.append( "duplicateClasses=" ).append( getDuplicateClasses() );
+        }
+
         buffer.insert( 0, "[" );
         buffer.insert( 0, getClass().getName() );
 
@@ -247,4 +285,19 @@ public class ProjectDependencyAnalysis
         return ( set == null ) ? Collections.<Artifact> emptySet()
                         : Collections.unmodifiableSet( new LinkedHashSet<Artifact>( set ) );
     }
+
+    private Map<String, Set<Artifact>> safeCopy( Map<String, Set<Artifact>> map )
+    {
+        if ( map == null )
+        {
+            return Collections.<String, Set<Artifact>> emptyMap();
+        }
+
+        Map<String, Set<Artifact>> copy = new LinkedHashMap<String, Set<Artifact>>( map.size() * 4 / 3 + 1 );
+        for ( Map.Entry<String, Set<Artifact>> entry : map.entrySet() )
+        {
+            copy.put( entry.getKey(), safeCopy( entry.getValue() ) );
+        }
+        return Collections.unmodifiableMap( copy );
+    }
 }
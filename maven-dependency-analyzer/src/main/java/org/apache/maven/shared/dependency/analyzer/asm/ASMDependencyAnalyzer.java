@@ -22,6 +22,8 @@ package org.apache.maven.shared.dependency.analyzer.asm;
 import java.io.IOException;
 import java.net.URL;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.maven.shared.dependency.analyzer.ClassFileVisitorUtils;
 import org.apache.maven.shared.dependency.analyzer.DependencyAnalyzer;
@@ -37,6 +39,10 @@ import org.codehaus.plexus.component.annotations.Component;
 public class ASMDependencyAnalyzer
     implements DependencyAnalyzer
 {
+    // fields -----------------------------------------------------------------
+
+    private int threads = 1;
+
     // DependencyAnalyzer methods ---------------------------------------------
 
     /*
@@ -45,10 +51,55 @@ public class ASMDependencyAnalyzer
     public Set<String> analyze( URL url )
         throws IOException
     {
+        if ( threads > 1 )
+        {
+            return analyzeInParallel( url );
+        }
+
         DependencyClassFileVisitor visitor = new DependencyClassFileVisitor();
 
         ClassFileVisitorUtils.accept( url, visitor );
 
         return visitor.getDependencies();
     }
+
+    // public methods ---------------------------------------------------------
+
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Sets the number of threads parsing the class files of a library. With more than one thread the class files are
+     * read on the calling thread, through the central directory for jar files, and parsed concurrently.
+     * 
+     * @param threads the number of threads, <code>1</code> by default
+     * @since 1.4
+     */
+    public void setThreads( int threads )
+    {
+        this.threads = threads;
+    }
+
+    // private methods --------------------------------------------------------
+
+    private Set<String> analyzeInParallel( URL url )
+        throws IOException
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+
+        try
+        {
+            ParallelDependencyClassFileVisitor visitor = new ParallelDependencyClassFileVisitor( executor, threads );
+
+            ClassFileVisitorUtils.accept( url, visitor, true );
+
+            return visitor.getDependencies();
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
 }
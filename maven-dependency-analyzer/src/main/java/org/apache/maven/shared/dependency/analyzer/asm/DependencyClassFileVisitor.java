@@ -62,7 +62,8 @@ public class DependencyClassFileVisitor
             ClassReader reader = new ClassReader( in );
             DependencyVisitor visitor = new DependencyVisitor();
 
-            reader.accept( visitor, 0 );
+            // DependencyVisitor ignores stack map frames, but needs the local variable types from the debug information
+            reader.accept( visitor, ClassReader.SKIP_FRAMES );
 
             dependencies.addAll( visitor.getClasses() );
         }
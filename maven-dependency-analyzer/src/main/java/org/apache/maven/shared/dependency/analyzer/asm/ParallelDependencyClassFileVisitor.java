@@ -0,0 +1,220 @@
+package org.apache.maven.shared.dependency.analyzer.asm;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.maven.shared.dependency.analyzer.ClassFileVisitor;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Computes the set of classes referenced by visited class files like <a
+ * href="DependencyClassFileVisitor.html">DependencyClassFileVisitor</a>, but parses them on several worker threads.
+ * The visiting thread only reads the class files, each worker collects the dependencies of the classes it parsed on
+ * its own and the results get merged by {@link #getDependencies()}.
+ * 
+ * @version $Id$
+ * @since 1.4
+ */
+class ParallelDependencyClassFileVisitor
+    implements ClassFileVisitor
+{
+    // constants --------------------------------------------------------------
+
+    private static final ClassFile END = new ClassFile( null, null );
+
+    // fields -----------------------------------------------------------------
+
+    private final BlockingQueue<ClassFile> queue;
+
+    private final List<Future<Set<String>>> workers;
+
+    private IOException readFailure;
+
+    // constructors -----------------------------------------------------------
+
+    /**
+     * @param executor the executor to run the workers on, must be able to run <code>threads</code> tasks at once
+     * @param threads the number of workers
+     */
+    ParallelDependencyClassFileVisitor( ExecutorService executor, int threads )
+    {
+        // bounded, so reading class files doesn't get too far ahead of parsing them
+        queue = new ArrayBlockingQueue<ClassFile>( threads * 64 );
+
+        workers = new ArrayList<Future<Set<String>>>( threads );
+        for ( int i = 0; i < threads; i++ )
+        {
+            workers.add( executor.submit( new Worker() ) );
+        }
+    }
+
+    // ClassFileVisitor methods -----------------------------------------------
+
+    /*
+     * @see org.apache.maven.shared.dependency.analyzer.ClassFileVisitor#visitClass(java.lang.String,
+     *      java.io.InputStream)
+     */
+    public void visitClass( String className, InputStream in )
+    {
+        try
+        {
+            put( new ClassFile( className, IOUtil.toByteArray( in ) ) );
+        }
+        catch ( IOException exception )
+        {
+            // reported by getDependencies(), once the workers are done
+            if ( readFailure == null )
+            {
+                readFailure = exception;
+            }
+        }
+    }
+
+    // public methods ---------------------------------------------------------
+
+    /**
+     * Waits for the workers to parse all visited class files.
+     * 
+     * @return the set of classes referenced by visited class files
+     * @throws IOException if a visited class file could not be read
+     */
+    public Set<String> getDependencies()
+        throws IOException
+    {
+        for ( int i = 0; i < workers.size(); i++ )
+        {
+            put( END );
+        }
+
+        Set<String> dependencies = new HashSet<String>();
+        for ( Future<Set<String>> worker : workers )
+        {
+            try
+            {
+                dependencies.addAll( worker.get() );
+            }
+            catch ( InterruptedException exception )
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException( "Interrupted while analyzing classes" );
+            }
+            catch ( ExecutionException exception )
+            {
+                Throwable cause = exception.getCause();
+                if ( cause instanceof RuntimeException )
+                {
+                    throw (RuntimeException) cause;
+                }
+                if ( cause instanceof Error )
+                {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException( cause.getMessage() );
+            }
+        }
+
+        if ( readFailure != null )
+        {
+            throw readFailure;
+        }
+        return dependencies;
+    }
+
+    // private methods --------------------------------------------------------
+
+    private void put( ClassFile classFile )
+    {
+        try
+        {
+            queue.put( classFile );
+        }
+        catch ( InterruptedException exception )
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Interrupted while analyzing classes" );
+        }
+    }
+
+    // inner classes ----------------------------------------------------------
+
+    private static final class ClassFile
+    {
+        final String className;
+
+        final byte[] bytes;
+
+        ClassFile( String className, byte[] bytes )
+        {
+            this.className = className;
+            this.bytes = bytes;
+        }
+    }
+
+    private final class Worker
+        implements Callable<Set<String>>
+    {
+        public Set<String> call()
+            throws Exception
+        {
+            DependencyClassFileVisitor visitor = new DependencyClassFileVisitor();
+            Throwable failure = null;
+
+            for ( ClassFile classFile = queue.take(); classFile != END; classFile = queue.take() )
+            {
+                // keep on taking class files after a failure, even an error of ASM on a broken class file, so the
+                // visiting thread doesn't block on the full queue
+                if ( failure == null )
+                {
+                    try
+                    {
+                        visitor.visitClass( classFile.className, new ByteArrayInputStream( classFile.bytes ) );
+                    }
+                    catch ( Throwable exception )
+                    {
+                        failure = exception;
+                    }
+                }
+            }
+
+            if ( failure instanceof Error )
+            {
+                throw (Error) failure;
+            }
+            if ( failure != null )
+            {
+                throw (Exception) failure;
+            }
+            return visitor.getDependencies();
+        }
+    }
+}
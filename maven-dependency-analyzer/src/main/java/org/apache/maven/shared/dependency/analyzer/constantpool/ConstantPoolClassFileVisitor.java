@@ -0,0 +1,94 @@
+package org.apache.maven.shared.dependency.analyzer.constantpool;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.maven.shared.dependency.analyzer.ClassFileVisitor;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Computes the set of classes referenced by visited class files, reading the constant pool of the class files instead
+ * of visiting them with ASM.
+ * 
+ * @version $Id$
+ * @see #getDependencies()
+ * @since 1.4
+ */
+public class ConstantPoolClassFileVisitor
+    implements ClassFileVisitor
+{
+    // fields -----------------------------------------------------------------
+
+    private final Set<String> dependencies;
+
+    // constructors -----------------------------------------------------------
+
+    public ConstantPoolClassFileVisitor()
+    {
+        dependencies = new HashSet<String>();
+    }
+
+    // ClassFileVisitor methods -----------------------------------------------
+
+    /*
+     * @see org.apache.maven.shared.dependency.analyzer.ClassFileVisitor#visitClass(java.lang.String,
+     *      java.io.InputStream)
+     */
+    public void visitClass( String className, InputStream in )
+    {
+        try
+        {
+            byte[] bytes = IOUtil.toByteArray( in );
+
+            // collect into a separate set, a class file which turns out to be invalid adds nothing
+            Set<String> classes = new HashSet<String>();
+            new ConstantPoolParser( bytes, classes ).parse();
+
+            dependencies.addAll( classes );
+        }
+        catch ( IOException exception )
+        {
+            exception.printStackTrace();
+        }
+        catch ( IndexOutOfBoundsException e )
+        {
+            System.out.println( "Unable to process: " + className );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            System.out.println( "Unable to process: " + className );
+        }
+    }
+
+    // public methods ---------------------------------------------------------
+
+    /**
+     * 
+     * @return the set of classes referenced by visited class files
+     */
+    public Set<String> getDependencies()
+    {
+        return dependencies;
+    }
+}
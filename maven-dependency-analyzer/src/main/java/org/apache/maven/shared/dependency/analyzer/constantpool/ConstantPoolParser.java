@@ -0,0 +1,762 @@
+package org.apache.maven.shared.dependency.analyzer.constantpool;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Extracts the classes referenced by a class file directly from its bytes. Most references are taken from the
+ * constant pool, the remaining ones from the descriptors and signatures of the declarations, local variables and
+ * annotations. Method bodies are only scanned for the instructions referencing a class constant.
+ * <p/>
+ * The result is the same as the one of the ASM based <code>DependencyVisitor</code>: the class itself and the classes
+ * only mentioned in <code>InnerClasses</code> or <code>EnclosingMethod</code> attributes are not included, and the
+ * types of accessed fields and invoked methods neither.
+ * 
+ * @version $Id$
+ * @since 1.4
+ */
+final class ConstantPoolParser
+{
+    // constants --------------------------------------------------------------
+
+    private static final int UTF8 = 1;
+
+    private static final int LONG = 5;
+
+    private static final int DOUBLE = 6;
+
+    private static final int CLASS = 7;
+
+    private static final int FIELDREF = 9;
+
+    private static final int METHODREF = 10;
+
+    private static final int INTERFACE_METHODREF = 11;
+
+    private static final int METHOD_HANDLE = 15;
+
+    /**
+     * class constant used like an internal name, i.e. owners, super classes and exceptions
+     */
+    private static final int AS_NAME = 1;
+
+    /**
+     * class constant used like a type, i.e. type instructions and class literals
+     */
+    private static final int AS_TYPE = 2;
+
+    // fields -----------------------------------------------------------------
+
+    private final byte[] b;
+
+    private final Set<String> classes;
+
+    private int[] offsets;
+
+    private byte[] tags;
+
+    private String[] strings;
+
+    private int[] uses;
+
+    // constructors -----------------------------------------------------------
+
+    ConstantPoolParser( byte[] b, Set<String> classes )
+    {
+        this.b = b;
+        this.classes = classes;
+    }
+
+    // methods ----------------------------------------------------------------
+
+    /**
+     * Adds the classes referenced by the class file to the set.
+     * 
+     * @throws IndexOutOfBoundsException if the class file is truncated
+     * @throws IllegalArgumentException if the class file is malformed
+     */
+    void parse()
+    {
+        if ( readInt( 0 ) != 0xCAFEBABE )
+        {
+            throw new IllegalArgumentException( "Not a class file" );
+        }
+
+        int pos = readConstantPool();
+
+        // access flags, this class
+        pos += 4;
+        int superClass = readUnsignedShort( pos );
+        pos += 2;
+        int interfacesCount = readUnsignedShort( pos );
+        int interfaces = pos + 2;
+        pos = interfaces + 2 * interfacesCount;
+
+        pos = readMembers( pos, false );
+        pos = readMembers( pos, true );
+
+        String signature = null;
+        int attributesCount = readUnsignedShort( pos );
+        pos += 2;
+        for ( int i = 0; i < attributesCount; i++ )
+        {
+            String name = readUtf8( pos );
+            int length = readInt( pos + 2 );
+            pos += 6;
+            if ( "Signature".equals( name ) )
+            {
+                signature = readUtf8( pos );
+            }
+            else
+            {
+                readAnnotationAttribute( name, pos );
+            }
+            pos += length;
+        }
+
+        if ( signature == null )
+        {
+            use( superClass, AS_NAME );
+            for ( int i = 0; i < interfacesCount; i++ )
+            {
+                use( readUnsignedShort( interfaces + 2 * i ), AS_NAME );
+            }
+        }
+        else
+        {
+            addSignature( signature );
+        }
+
+        for ( int i = 1; i < tags.length; i++ )
+        {
+            if ( uses[i] != 0 )
+            {
+                String name = readUtf8( offsets[i] );
+                if ( ( uses[i] & AS_NAME ) != 0 )
+                {
+                    addName( name );
+                }
+                if ( ( uses[i] & AS_TYPE ) != 0 )
+                {
+                    if ( name.charAt( 0 ) == '[' )
+                    {
+                        addDesc( name );
+                    }
+                    else
+                    {
+                        addName( name );
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the position behind the constant pool
+     */
+    private int readConstantPool()
+    {
+        int count = readUnsignedShort( 8 );
+        offsets = new int[count];
+        tags = new byte[count];
+        strings = new String[count];
+        uses = new int[count];
+
+        int pos = 10;
+        for ( int i = 1; i < count; i++ )
+        {
+            int tag = b[pos];
+            tags[i] = (byte) tag;
+            offsets[i] = pos + 1;
+            switch ( tag )
+            {
+                case UTF8:
+                    pos += 3 + readUnsignedShort( pos + 1 );
+                    break;
+                case LONG:
+                case DOUBLE:
+                    pos += 9;
+                    i++;
+                    break;
+                case FIELDREF:
+                case METHODREF:
+                case INTERFACE_METHODREF:
+                    pos += 5;
+                    break;
+                case CLASS:
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    pos += 3;
+                    break;
+                case METHOD_HANDLE:
+                    pos += 4;
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    pos += 5;
+                    break;
+                default:
+                    throw new IllegalArgumentException( "Unknown constant pool tag " + tag );
+            }
+        }
+
+        // owners of accessed fields and invoked methods
+        for ( int i = 1; i < count; i++ )
+        {
+            if ( tags[i] == FIELDREF || tags[i] == METHODREF || tags[i] == INTERFACE_METHODREF )
+            {
+                use( readUnsignedShort( offsets[i] ), AS_NAME );
+            }
+        }
+
+        return pos;
+    }
+
+    /**
+     * Marks a class constant as used. The name of the class gets decoded once all uses are known.
+     */
+    private void use( int index, int use )
+    {
+        if ( index != 0 )
+        {
+            if ( tags[index] != CLASS )
+            {
+                throw new IllegalArgumentException( "Not a class constant: " + index );
+            }
+            uses[index] |= use;
+        }
+    }
+
+    /**
+     * @return the position behind the fields or methods
+     */
+    private int readMembers( int pos, boolean methods )
+    {
+        int count = readUnsignedShort( pos );
+        pos += 2;
+        for ( int i = 0; i < count; i++ )
+        {
+            String desc = readUtf8( pos + 4 );
+            String signature = null;
+
+            int attributesCount = readUnsignedShort( pos + 6 );
+            pos += 8;
+            for ( int j = 0; j < attributesCount; j++ )
+            {
+                String name = readUtf8( pos );
+                int length = readInt( pos + 2 );
+                pos += 6;
+                if ( "Signature".equals( name ) )
+                {
+                    signature = readUtf8( pos );
+                }
+                else if ( methods && "Code".equals( name ) )
+                {
+                    readCode( pos );
+                }
+                else if ( methods && "Exceptions".equals( name ) )
+                {
+                    int exceptions = readUnsignedShort( pos );
+                    for ( int k = 0; k < exceptions; k++ )
+                    {
+                        use( readUnsignedShort( pos + 2 + 2 * k ), AS_NAME );
+                    }
+                }
+                else
+                {
+                    readAnnotationAttribute( name, pos );
+                }
+                pos += length;
+            }
+
+            if ( signature != null )
+            {
+                addSignature( signature );
+            }
+            else
+            {
+                addDesc( desc );
+            }
+        }
+        return pos;
+    }
+
+    private void readCode( int pos )
+    {
+        int codeLength = readInt( pos + 4 );
+        int code = pos + 8;
+        readInstructions( code, codeLength );
+        pos = code + codeLength;
+
+        int exceptionTableLength = readUnsignedShort( pos );
+        pos += 2;
+        for ( int i = 0; i < exceptionTableLength; i++ )
+        {
+            use( readUnsignedShort( pos + 6 ), AS_NAME );
+            pos += 8;
+        }
+
+        int localVariableTable = 0;
+        Map<Integer, String> localVariableSignatures = null;
+
+        int attributesCount = readUnsignedShort( pos );
+        pos += 2;
+        for ( int i = 0; i < attributesCount; i++ )
+        {
+            String name = readUtf8( pos );
+            int length = readInt( pos + 2 );
+            pos += 6;
+            if ( "LocalVariableTable".equals( name ) )
+            {
+                localVariableTable = pos;
+            }
+            else if ( "LocalVariableTypeTable".equals( name ) )
+            {
+                localVariableSignatures = new HashMap<Integer, String>();
+                int entries = readUnsignedShort( pos );
+                for ( int j = 0; j < entries; j++ )
+                {
+                    int entry = pos + 2 + 10 * j;
+                    localVariableSignatures.put( localVariableKey( entry ), readUtf8( entry + 6 ) );
+                }
+            }
+            pos += length;
+        }
+
+        if ( localVariableTable != 0 )
+        {
+            int entries = readUnsignedShort( localVariableTable );
+            for ( int j = 0; j < entries; j++ )
+            {
+                int entry = localVariableTable + 2 + 10 * j;
+                String signature =
+                    localVariableSignatures == null ? null : localVariableSignatures.get( localVariableKey( entry ) );
+                if ( signature != null )
+                {
+                    addSignature( signature );
+                }
+                else
+                {
+                    addDesc( readUtf8( entry + 6 ) );
+                }
+            }
+        }
+    }
+
+    /**
+     * Local variable type table entries belong to the local variable table entry with the same start and index.
+     */
+    private int localVariableKey( int entry )
+    {
+        return ( readUnsignedShort( entry ) << 16 ) | readUnsignedShort( entry + 8 );
+    }
+
+    /**
+     * Marks the class constants referenced by type instructions and class literals as used.
+     */
+    private void readInstructions( int code, int codeLength )
+    {
+        int pos = code;
+        int end = code + codeLength;
+        while ( pos < end )
+        {
+            int opcode = b[pos] & 0xFF;
+            switch ( opcode )
+            {
+                case 0x12: // ldc
+                    useIfClass( b[pos + 1] & 0xFF );
+                    pos += 2;
+                    break;
+                case 0x13: // ldc_w
+                    useIfClass( readUnsignedShort( pos + 1 ) );
+                    pos += 3;
+                    break;
+                case 0xBB: // new
+                case 0xBD: // anewarray
+                case 0xC0: // checkcast
+                case 0xC1: // instanceof
+                    use( readUnsignedShort( pos + 1 ), AS_TYPE );
+                    pos += 3;
+                    break;
+                case 0xC5: // multianewarray
+                    use( readUnsignedShort( pos + 1 ), AS_TYPE );
+                    pos += 4;
+                    break;
+                case 0xAA: // tableswitch
+                {
+                    pos = alignSwitch( code, pos );
+                    int low = readInt( pos + 4 );
+                    int high = readInt( pos + 8 );
+                    pos += 12 + 4 * ( high - low + 1 );
+                    break;
+                }
+                case 0xAB: // lookupswitch
+                    pos = alignSwitch( code, pos );
+                    pos += 8 + 8 * readInt( pos + 4 );
+                    break;
+                case 0xC4: // wide
+                    pos += ( b[pos + 1] & 0xFF ) == 0x84 ? 6 : 4;
+                    break;
+                default:
+                    pos += instructionLength( opcode );
+            }
+        }
+    }
+
+    private static int alignSwitch( int code, int pos )
+    {
+        int offset = pos + 1 - code;
+        return pos + 1 + ( ( 4 - ( offset & 3 ) ) & 3 );
+    }
+
+    /**
+     * @return the length of the instructions with a fixed length
+     */
+    private static int instructionLength( int opcode )
+    {
+        switch ( opcode )
+        {
+            case 0x10: // bipush
+            case 0x15: // iload
+            case 0x16: // lload
+            case 0x17: // fload
+            case 0x18: // dload
+            case 0x19: // aload
+            case 0x36: // istore
+            case 0x37: // lstore
+            case 0x38: // fstore
+            case 0x39: // dstore
+            case 0x3A: // astore
+            case 0xA9: // ret
+            case 0xBC: // newarray
+                return 2;
+            case 0x11: // sipush
+            case 0x14: // ldc2_w
+            case 0x84: // iinc
+            case 0xB2: // getstatic
+            case 0xB3: // putstatic
+            case 0xB4: // getfield
+            case 0xB5: // putfield
+            case 0xB6: // invokevirtual
+            case 0xB7: // invokespecial
+            case 0xB8: // invokestatic
+            case 0xC6: // ifnull
+            case 0xC7: // ifnonnull
+                return 3;
+            case 0xB9: // invokeinterface
+            case 0xBA: // invokedynamic
+            case 0xC8: // goto_w
+            case 0xC9: // jsr_w
+                return 5;
+            default:
+                // if<cond>, if_<cmp>, goto and jsr
+                return opcode >= 0x99 && opcode <= 0xA8 ? 3 : 1;
+        }
+    }
+
+    private void useIfClass( int index )
+    {
+        if ( tags[index] == CLASS )
+        {
+            use( index, AS_TYPE );
+        }
+    }
+
+    private void readAnnotationAttribute( String name, int pos )
+    {
+        if ( "RuntimeVisibleAnnotations".equals( name ) || "RuntimeInvisibleAnnotations".equals( name ) )
+        {
+            readAnnotations( pos );
+        }
+        else if ( "RuntimeVisibleParameterAnnotations".equals( name )
+            || "RuntimeInvisibleParameterAnnotations".equals( name ) )
+        {
+            int parameters = b[pos] & 0xFF;
+            pos++;
+            for ( int i = 0; i < parameters; i++ )
+            {
+                pos = readAnnotations( pos );
+            }
+        }
+        else if ( "AnnotationDefault".equals( name ) )
+        {
+            readElementValue( pos );
+        }
+    }
+
+    /**
+     * @return the position behind the annotations
+     */
+    private int readAnnotations( int pos )
+    {
+        int count = readUnsignedShort( pos );
+        pos += 2;
+        for ( int i = 0; i < count; i++ )
+        {
+            pos = readAnnotation( pos );
+        }
+        return pos;
+    }
+
+    private int readAnnotation( int pos )
+    {
+        addDesc( readUtf8( pos ) );
+        int pairs = readUnsignedShort( pos + 2 );
+        pos += 4;
+        for ( int i = 0; i < pairs; i++ )
+        {
+            pos = readElementValue( pos + 2 );
+        }
+        return pos;
+    }
+
+    private int readElementValue( int pos )
+    {
+        char tag = (char) b[pos];
+        pos++;
+        switch ( tag )
+        {
+            case 'e':
+                addDesc( readUtf8( pos ) );
+                return pos + 4;
+            case 'c':
+                addDesc( readUtf8( pos ) );
+                return pos + 2;
+            case '@':
+                return readAnnotation( pos );
+            case '[':
+            {
+                int count = readUnsignedShort( pos );
+                pos += 2;
+                for ( int i = 0; i < count; i++ )
+                {
+                    pos = readElementValue( pos );
+                }
+                return pos;
+            }
+            default:
+                return pos + 2;
+        }
+    }
+
+    // names, descriptors and signatures --------------------------------------
+
+    /**
+     * Like <code>DependencyVisitor</code>, decodes one dimensional object arrays, but keeps other arrays as they are.
+     */
+    private void addName( String name )
+    {
+        if ( name.startsWith( "[L" ) && name.endsWith( ";" ) )
+        {
+            name = name.substring( 2, name.length() - 1 );
+        }
+
+        classes.add( name.replace( '/', '.' ) );
+    }
+
+    /**
+     * Adds the classes of a field or method descriptor, array types add their element type.
+     */
+    private void addDesc( String desc )
+    {
+        int length = desc.length();
+        for ( int i = 0; i < length; i++ )
+        {
+            if ( desc.charAt( i ) == 'L' )
+            {
+                int end = desc.indexOf( ';', i );
+                addName( desc.substring( i + 1, end ) );
+                i = end;
+            }
+        }
+    }
+
+    /**
+     * Adds the classes of a class, method or field signature. Like ASM's <code>SignatureReader</code>, an inner class
+     * type of a parameterized outer class only contributes its simple name.
+     */
+    private void addSignature( String signature )
+    {
+        int pos = 0;
+        int length = signature.length();
+
+        if ( signature.charAt( 0 ) == '<' )
+        {
+            // formal type parameters, each is an identifier followed by its bounds
+            pos = 1;
+            while ( signature.charAt( pos ) != '>' )
+            {
+                pos = signature.indexOf( ':', pos );
+                while ( signature.charAt( pos ) == ':' )
+                {
+                    pos++;
+                    char c = signature.charAt( pos );
+                    if ( c == 'L' || c == '[' || c == 'T' )
+                    {
+                        pos = addTypeSignature( signature, pos );
+                    }
+                }
+            }
+            pos++;
+        }
+
+        while ( pos < length )
+        {
+            char c = signature.charAt( pos );
+            if ( c == '(' || c == ')' || c == '^' )
+            {
+                pos++;
+            }
+            else
+            {
+                pos = addTypeSignature( signature, pos );
+            }
+        }
+    }
+
+    /**
+     * @return the position behind the type signature
+     */
+    private int addTypeSignature( String signature, int pos )
+    {
+        char c = signature.charAt( pos++ );
+        switch ( c )
+        {
+            case '[':
+                return addTypeSignature( signature, pos );
+            case 'T':
+                return signature.indexOf( ';', pos ) + 1;
+            case 'L':
+                break;
+            default:
+                // base type
+                return pos;
+        }
+
+        int start = pos;
+        while ( true )
+        {
+            c = signature.charAt( pos++ );
+            if ( c == '.' || c == ';' || c == '<' )
+            {
+                if ( start >= 0 )
+                {
+                    addName( signature.substring( start, pos - 1 ) );
+                }
+                if ( c == ';' )
+                {
+                    return pos;
+                }
+                if ( c == '.' )
+                {
+                    start = pos;
+                }
+                else
+                {
+                    start = -1;
+                    while ( signature.charAt( pos ) != '>' )
+                    {
+                        c = signature.charAt( pos );
+                        if ( c == '*' )
+                        {
+                            pos++;
+                        }
+                        else
+                        {
+                            pos = addTypeSignature( signature, c == '+' || c == '-' ? pos + 1 : pos );
+                        }
+                    }
+                    pos++;
+                }
+            }
+        }
+    }
+
+    // class file access ------------------------------------------------------
+
+    private int readUnsignedShort( int pos )
+    {
+        return ( ( b[pos] & 0xFF ) << 8 ) | ( b[pos + 1] & 0xFF );
+    }
+
+    private int readInt( int pos )
+    {
+        return ( ( b[pos] & 0xFF ) << 24 ) | ( ( b[pos + 1] & 0xFF ) << 16 ) | ( ( b[pos + 2] & 0xFF ) << 8 )
+            | ( b[pos + 3] & 0xFF );
+    }
+
+    /**
+     * @return the UTF8 constant whose index is stored at the given position
+     */
+    private String readUtf8( int pos )
+    {
+        int index = readUnsignedShort( pos );
+        if ( tags[index] != UTF8 )
+        {
+            throw new IllegalArgumentException( "Not an UTF8 constant: " + index );
+        }
+
+        String string = strings[index];
+        if ( string == null )
+        {
+            string = decodeUtf8( offsets[index] );
+            strings[index] = string;
+        }
+        return string;
+    }
+
+    /**
+     * Decodes the modified UTF-8 of the class file format.
+     */
+    private String decodeUtf8( int pos )
+    {
+        int length = readUnsignedShort( pos );
+        pos += 2;
+        int end = pos + length;
+
+        char[] chars = new char[length];
+        int count = 0;
+        while ( pos < end )
+        {
+            int c = b[pos++] & 0xFF;
+            if ( c < 0x80 )
+            {
+                chars[count++] = (char) c;
+            }
+            else if ( c < 0xE0 )
+            {
+                chars[count++] = (char) ( ( ( c & 0x1F ) << 6 ) | ( b[pos++] & 0x3F ) );
+            }
+            else
+            {
+                chars[count++] = (char) ( ( ( c & 0x0F ) << 12 ) | ( ( b[pos++] & 0x3F ) << 6 ) | ( b[pos++] & 0x3F ) );
+            }
+        }
+        return new String( chars, 0, count );
+    }
+}
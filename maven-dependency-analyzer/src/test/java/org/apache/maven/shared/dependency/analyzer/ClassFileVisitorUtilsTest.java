@@ -58,6 +58,25 @@ public class ClassFileVisitorUtilsTest
         mock.verify();
     }
 
+    public void testAcceptJarWithRandomAccess()
+        throws IOException
+    {
+        File file = createJar();
+        JarOutputStream out = new JarOutputStream( new FileOutputStream( file ) );
+        writeEntry( out, "a/b/c.class", "class a.b.c" );
+        writeEntry( out, "a/b/c.jpg", "jpeg a.b.c" );
+        writeEntry( out, "x/y/z.class", "class x.y.z" );
+        out.close();
+
+        Mock mock = mock( ClassFileVisitor.class );
+        expectVisitClass( mock, "a.b.c", "class a.b.c" );
+        expectVisitClass( mock, "x.y.z", "class x.y.z" );
+
+        ClassFileVisitorUtils.accept( file.toURI().toURL(), (ClassFileVisitor) mock.proxy(), true );
+
+        mock.verify();
+    }
+
     public void testAcceptJarWithNonClassEntry()
         throws IOException
     {
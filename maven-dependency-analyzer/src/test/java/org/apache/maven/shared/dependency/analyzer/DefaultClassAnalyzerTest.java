@@ -96,4 +96,59 @@ public class DefaultClassAnalyzerTest
         }
 
     }
+
+    public void testAnalyzeWithCache()
+        throws IOException
+    {
+        File file = createJar();
+        JarOutputStream out = new JarOutputStream( new FileOutputStream( file ) );
+        writeEntry( out, "a/b/c.class", "class a.b.c" );
+        writeEntry( out, "a/b/cd.class", "class a.b.cd" );
+        writeEntry( out, "x/y/z.class", "class x.y.z" );
+        out.close();
+
+        File cacheDir = createDir();
+
+        DefaultClassAnalyzer analyzer = new DefaultClassAnalyzer();
+        analyzer.setCacheDirectory( cacheDir );
+
+        Set<String> expectedClasses = new HashSet<String>();
+        expectedClasses.add( "a.b.c" );
+        expectedClasses.add( "a.b.cd" );
+        expectedClasses.add( "x.y.z" );
+
+        assertEquals( expectedClasses, analyzer.analyze( file.toURI().toURL() ) );
+        File[] indexes = cacheDir.listFiles();
+        assertEquals( 1, indexes.length );
+
+        // served from the index, even by a new analyzer: the jar gets zeroed but keeps its length and timestamp, so
+        // rescanning it wouldn't find any classes
+        long lastModified = file.lastModified();
+        byte[] zeros = new byte[(int) file.length()];
+        FileOutputStream zeroed = new FileOutputStream( file );
+        zeroed.write( zeros );
+        zeroed.close();
+        file.setLastModified( lastModified );
+
+        analyzer = new DefaultClassAnalyzer();
+        analyzer.setCacheDirectory( cacheDir );
+        assertEquals( expectedClasses, analyzer.analyze( file.toURI().toURL() ) );
+
+        // a modified jar invalidates the index
+        out = new JarOutputStream( new FileOutputStream( file ) );
+        writeEntry( out, "a/b/c.class", "class a.b.c" );
+        out.close();
+        file.setLastModified( lastModified + 2000 );
+
+        expectedClasses.remove( "a.b.cd" );
+        expectedClasses.remove( "x.y.z" );
+        assertEquals( expectedClasses, analyzer.analyze( file.toURI().toURL() ) );
+        assertEquals( 1, cacheDir.listFiles().length );
+
+        // a corrupt index is ignored
+        FileOutputStream index = new FileOutputStream( indexes[0] );
+        index.write( new byte[] { 1, 2, 3 } );
+        index.close();
+        assertEquals( expectedClasses, analyzer.analyze( file.toURI().toURL() ) );
+    }
 }
@@ -19,10 +19,16 @@ package org.apache.maven.shared.dependency.analyzer;
  * under the License.
  */
 
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
 
 import junit.framework.TestCase;
 
@@ -51,4 +57,33 @@ public class ProjectDependencyAnalysisTest
         assertEquals( usedUndeclaredArtifacts, analysis.getUsedUndeclaredArtifacts() );
         assertEquals( unusedDeclaredArtifacts, analysis.getUnusedDeclaredArtifacts() );
     }
+
+    public void testDuplicateClasses()
+    {
+        Artifact artifact1 = createArtifact( "artifact1" );
+        Artifact artifact2 = createArtifact( "artifact2" );
+
+        Set<Artifact> artifacts = new HashSet<Artifact>();
+        artifacts.add( artifact1 );
+        artifacts.add( artifact2 );
+
+        Map<String, Set<Artifact>> duplicateClasses = new TreeMap<String, Set<Artifact>>();
+        duplicateClasses.put( "a.A", artifacts );
+
+        ProjectDependencyAnalysis analysis =
+            new ProjectDependencyAnalysis( Collections.singleton( artifact1 ), null, Collections.singleton( artifact2 ),
+                                           duplicateClasses );
+
+        assertEquals( duplicateClasses, analysis.getDuplicateClasses() );
+        assertEquals( duplicateClasses, analysis.ignoreNonCompile().getDuplicateClasses() );
+        assertTrue( new ProjectDependencyAnalysis().getDuplicateClasses().isEmpty() );
+    }
+
+    // private methods --------------------------------------------------------
+
+    private Artifact createArtifact( String artifactId )
+    {
+        return new DefaultArtifact( "groupId", artifactId, VersionRange.createFromVersion( "1.0" ), "compile", "jar",
+                                    null, new DefaultArtifactHandler( "jar" ) );
+    }
 }
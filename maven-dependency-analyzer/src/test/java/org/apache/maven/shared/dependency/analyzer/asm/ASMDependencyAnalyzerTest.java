@@ -0,0 +1,70 @@
+package org.apache.maven.shared.dependency.analyzer.asm;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.net.URL;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.objectweb.asm.ClassReader;
+
+/**
+ * Tests <code>ASMDependencyAnalyzer</code>.
+ * 
+ * @version $Id$
+ * @see ASMDependencyAnalyzer
+ */
+public class ASMDependencyAnalyzerTest
+    extends TestCase
+{
+    // tests ------------------------------------------------------------------
+
+    public void testAnalyzeJarInParallel()
+        throws Exception
+    {
+        // the ASM jar itself
+        URL url = ClassReader.class.getProtectionDomain().getCodeSource().getLocation();
+
+        assertParallelAnalysisLikeSequential( url );
+    }
+
+    public void testAnalyzeDirectoryInParallel()
+        throws Exception
+    {
+        URL url = new File( System.getProperty( "basedir", "." ), "target/classes" ).toURI().toURL();
+
+        assertParallelAnalysisLikeSequential( url );
+    }
+
+    // private methods --------------------------------------------------------
+
+    private void assertParallelAnalysisLikeSequential( URL url )
+        throws Exception
+    {
+        ASMDependencyAnalyzer analyzer = new ASMDependencyAnalyzer();
+        Set<String> expected = analyzer.analyze( url );
+        assertFalse( expected.isEmpty() );
+
+        analyzer.setThreads( 4 );
+        assertEquals( expected, analyzer.analyze( url ) );
+    }
+}
@@ -0,0 +1,73 @@
+package org.apache.maven.shared.dependency.analyzer.asm;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests <code>ParallelDependencyClassFileVisitor</code>.
+ * 
+ * @version $Id$
+ * @see ParallelDependencyClassFileVisitor
+ */
+public class ParallelDependencyClassFileVisitorTest
+    extends TestCase
+{
+    // tests ------------------------------------------------------------------
+
+    public void testReadFailureIsReportedByGetDependencies()
+        throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( 2 );
+        try
+        {
+            ParallelDependencyClassFileVisitor visitor = new ParallelDependencyClassFileVisitor( executor, 2 );
+
+            final IOException failure = new IOException( "broken" );
+            visitor.visitClass( "a.Broken", new InputStream()
+            {
+                public int read()
+                    throws IOException
+                {
+                    throw failure;
+                }
+            } );
+
+            try
+            {
+                visitor.getDependencies();
+                fail( "the read failure should have been reported" );
+            }
+            catch ( IOException exception )
+            {
+                assertSame( failure, exception );
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.apache.maven.shared.dependency.analyzer.constantpool;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.net.URL;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.shared.dependency.analyzer.asm.ASMDependencyAnalyzer;
+import org.codehaus.plexus.util.IOUtil;
+import org.objectweb.asm.ClassReader;
+
+/**
+ * Tests <code>ConstantPoolDependencyAnalyzer</code> against <code>ASMDependencyAnalyzer</code>.
+ * 
+ * @version $Id$
+ * @see ConstantPoolDependencyAnalyzer
+ */
+public class ConstantPoolDependencyAnalyzerTest
+    extends TestCase
+{
+    // tests ------------------------------------------------------------------
+
+    public void testAnalyzeJarLikeASM()
+        throws Exception
+    {
+        // the ASM jar itself
+        assertAnalysisLikeASM( ClassReader.class );
+    }
+
+    public void testAnalyzeGenericJarLikeASM()
+        throws Exception
+    {
+        // plexus-utils, compiled with generics and annotations
+        assertAnalysisLikeASM( IOUtil.class );
+    }
+
+    public void testAnalyzeDirectoryLikeASM()
+        throws Exception
+    {
+        assertAnalysisLikeASM( new File( System.getProperty( "basedir", "." ), "target/classes" ).toURI().toURL() );
+        assertAnalysisLikeASM( new File( System.getProperty( "basedir", "." ), "target/test-classes" ).toURI().toURL() );
+    }
+
+    public void testVisitInvalidClass()
+    {
+        ConstantPoolClassFileVisitor visitor = new ConstantPoolClassFileVisitor();
+
+        visitor.visitClass( "a.b.c", new ByteArrayInputStream( new byte[] { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA,
+            (byte) 0xBE, 0, 0, 0, 50, 0, 10, 7 } ) );
+
+        assertTrue( visitor.getDependencies().isEmpty() );
+    }
+
+    // private methods --------------------------------------------------------
+
+    private void assertAnalysisLikeASM( Class<?> type )
+        throws Exception
+    {
+        assertAnalysisLikeASM( type.getProtectionDomain().getCodeSource().getLocation() );
+    }
+
+    private void assertAnalysisLikeASM( URL url )
+        throws Exception
+    {
+        Set<String> expected = new ASMDependencyAnalyzer().analyze( url );
+        assertFalse( expected.isEmpty() );
+
+        assertEquals( expected, new ConstantPoolDependencyAnalyzer().analyze( url ) );
+    }
+}
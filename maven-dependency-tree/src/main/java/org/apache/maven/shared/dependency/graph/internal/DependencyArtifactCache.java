@@ -0,0 +1,75 @@
+package org.apache.maven.shared.dependency.graph.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.factory.ArtifactFactory;
+import org.apache.maven.artifact.versioning.VersionRange;
+
+/**
+ * Creates the dependency artifacts of the nodes of a dependency graph, sharing a single artifact between all the nodes
+ * with the same coordinates, scope and optional flag. A dependency used by many other dependencies of the graph is
+ * created only once. The cache is meant to be used while building a single graph.
+ * <p>
+ * The artifacts are mutable and shared by all the nodes they were created for, so a change to the artifact of one node,
+ * e.g. by resolving its file or its version, is seen by all of them.
+ *
+ * @since 2.1
+ */
+final class DependencyArtifactCache
+{
+    private final ArtifactFactory factory;
+
+    private final Map<String, Artifact> artifacts = new HashMap<String, Artifact>();
+
+    private final StringBuilder key = new StringBuilder();
+
+    DependencyArtifactCache( ArtifactFactory factory )
+    {
+        this.factory = factory;
+    }
+
+    Artifact getDependencyArtifact( String groupId, String artifactId, String version, String type,
+                                    String classifier, String scope, boolean optional )
+    {
+        key.setLength( 0 );
+        key.append( groupId ).append( ':' ).append( artifactId ).append( ':' ).append( version );
+        key.append( ':' ).append( type ).append( ':' ).append( classifier ).append( ':' ).append( scope );
+        key.append( ':' ).append( optional );
+
+        String id = key.toString();
+
+        Artifact artifact = artifacts.get( id );
+
+        if ( artifact == null )
+        {
+            artifact =
+                factory.createDependencyArtifact( groupId, artifactId, VersionRange.createFromVersion( version ), type,
+                                                  classifier, scope, optional );
+
+            artifacts.put( id, artifact );
+        }
+
+        return artifact;
+    }
+}
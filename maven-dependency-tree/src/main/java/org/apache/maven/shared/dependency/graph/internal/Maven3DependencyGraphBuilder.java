@@ -22,12 +22,12 @@ package org.apache.maven.shared.dependency.graph.internal;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedList;
 import java.util.List;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.factory.ArtifactFactory;
 import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
-import org.apache.maven.artifact.versioning.VersionRange;
 import org.apache.maven.project.DefaultDependencyResolutionRequest;
 import org.apache.maven.project.DependencyResolutionException;
 import org.apache.maven.project.DependencyResolutionRequest;
@@ -46,6 +46,10 @@ import org.sonatype.aether.version.VersionConstraint;
 /**
  * Wrapper around Maven 3 dependency resolver.
  *
+ * <p>
+ * The nodes of a graph with the same coordinates, scope and optional flag share a single artifact. The artifacts are
+ * mutable, so changing the artifact of one node, e.g. its file or its version, changes it for all these nodes.
+ *
  * @see ProjectDependenciesResolver
  * @author Hervé Boutemy
  * @since 2.0
@@ -60,6 +64,17 @@ public class Maven3DependencyGraphBuilder
     @Requirement
     private ArtifactFactory factory;
 
+    public Maven3DependencyGraphBuilder()
+    {
+        // used for plexus init.
+    }
+
+    Maven3DependencyGraphBuilder( ArtifactFactory factory )
+    {
+        // used for testing.
+        this.factory = factory;
+    }
+
     public DependencyNode buildDependencyGraph( MavenProject project, ArtifactFilter filter )
         throws DependencyGraphBuilderException
     {
@@ -73,7 +88,7 @@ public class Maven3DependencyGraphBuilder
 
             DependencyResolutionResult result = resolver.resolve( request );
 
-            return buildDependencyNode( null, result.getDependencyGraph(), project.getArtifact(), filter );
+            return buildDependencyNode( result.getDependencyGraph(), project.getArtifact(), filter );
         }
         catch ( DependencyResolutionException e )
         {
@@ -99,35 +114,67 @@ public class Maven3DependencyGraphBuilder
         return object.getClass().getMethod( method ).invoke( object );
     }
 
-    private Artifact getDependencyArtifact( Dependency dep )
+    private Artifact getDependencyArtifact( DependencyArtifactCache artifacts, Dependency dep )
     {
         org.sonatype.aether.artifact.Artifact artifact = dep.getArtifact();
 
-        return factory.createDependencyArtifact( artifact.getGroupId(), artifact.getArtifactId(),
-                                                 VersionRange.createFromVersion( artifact.getVersion() ),
-                                                 artifact.getProperty( "type", artifact.getExtension() ),
-                                                 artifact.getClassifier(), dep.getScope(), dep.isOptional() );
+        return artifacts.getDependencyArtifact( artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion(),
+                                                artifact.getProperty( "type", artifact.getExtension() ),
+                                                artifact.getClassifier(), dep.getScope(), dep.isOptional() );
     }
 
-    private DependencyNode buildDependencyNode( DependencyNode parent, org.sonatype.aether.graph.DependencyNode node,
-                                                Artifact artifact, ArtifactFilter filter )
+    /**
+     * Converts the Aether graph without recursion, so deep graphs can't overflow the stack. The nodes are visited, and
+     * the filter is called, in the same depth-first order as a recursive conversion would. The nodes with the same
+     * coordinates, scope and optional flag share their artifact.
+     */
+    DependencyNode buildDependencyNode( org.sonatype.aether.graph.DependencyNode root, Artifact artifact,
+                                        ArtifactFilter filter )
     {
-        DefaultDependencyNode current =
-            new DefaultDependencyNode( parent, artifact, node.getPremanagedVersion(), node.getPremanagedScope(),
-                                       getVersionSelectedFromRange( node.getVersionConstraint() ) );
+        DependencyArtifactCache artifacts = new DependencyArtifactCache( factory );
+
+        NodeBuilder rootBuilder = new NodeBuilder( newDependencyNode( null, root, artifact ), root );
+
+        LinkedList<PendingChild> stack = new LinkedList<PendingChild>();
+        pushChildren( stack, rootBuilder );
 
-        List<DependencyNode> nodes = new ArrayList<DependencyNode>( node.getChildren().size() );
-        for ( org.sonatype.aether.graph.DependencyNode child : node.getChildren() )
+        while ( !stack.isEmpty() )
         {
-            Artifact childArtifact = getDependencyArtifact( child.getDependency() );
+            PendingChild pending = stack.removeFirst();
+            org.sonatype.aether.graph.DependencyNode child = pending.node;
+            NodeBuilder parent = pending.parent;
+
+            Artifact childArtifact = getDependencyArtifact( artifacts, child.getDependency() );
 
             if ( ( filter == null ) || filter.include( childArtifact ) )
             {
-                nodes.add( buildDependencyNode( current, child, childArtifact, filter ) );
+                NodeBuilder current = new NodeBuilder( newDependencyNode( parent.node, child, childArtifact ), child );
+
+                parent.addChild( current.node );
+
+                pushChildren( stack, current );
             }
         }
 
-        current.setChildren( Collections.unmodifiableList( nodes ) );
+        return rootBuilder.node;
+    }
+
+    private void pushChildren( LinkedList<PendingChild> stack, NodeBuilder builder )
+    {
+        for ( int i = builder.aetherChildren.size() - 1; i >= 0; i-- )
+        {
+            stack.addFirst( new PendingChild( builder.aetherChildren.get( i ), builder ) );
+        }
+    }
+
+    private DefaultDependencyNode newDependencyNode( DependencyNode parent,
+                                                     org.sonatype.aether.graph.DependencyNode node, Artifact artifact )
+    {
+        DefaultDependencyNode current =
+            new DefaultDependencyNode( parent, artifact, node.getPremanagedVersion(), node.getPremanagedScope(),
+                                       getVersionSelectedFromRange( node.getVersionConstraint() ) );
+
+        current.setChildren( Collections.<DependencyNode>emptyList() );
 
         return current;
     }
@@ -151,4 +198,48 @@ public class Maven3DependencyGraphBuilder
 
         return sb.toString();
     }
+
+    /**
+     * A converted node, whose list of children is only created once its first child got included.
+     */
+    private static final class NodeBuilder
+    {
+        private final DefaultDependencyNode node;
+
+        private final List<org.sonatype.aether.graph.DependencyNode> aetherChildren;
+
+        private List<DependencyNode> children;
+
+        NodeBuilder( DefaultDependencyNode node, org.sonatype.aether.graph.DependencyNode aetherNode )
+        {
+            this.node = node;
+            this.aetherChildren = aetherNode.getChildren();
+        }
+
+        void addChild( DependencyNode child )
+        {
+            if ( children == null )
+            {
+                children = new ArrayList<DependencyNode>( aetherChildren.size() );
+                node.setChildren( Collections.unmodifiableList( children ) );
+            }
+            children.add( child );
+        }
+    }
+
+    /**
+     * An Aether node waiting to be converted, with the converted node of its parent.
+     */
+    private static final class PendingChild
+    {
+        private final org.sonatype.aether.graph.DependencyNode node;
+
+        private final NodeBuilder parent;
+
+        PendingChild( org.sonatype.aether.graph.DependencyNode node, NodeBuilder parent )
+        {
+            this.node = node;
+            this.parent = parent;
+        }
+    }
 }
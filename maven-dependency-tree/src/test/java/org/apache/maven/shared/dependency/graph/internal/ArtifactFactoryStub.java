@@ -0,0 +1,101 @@
+package org.apache.maven.shared.dependency.graph.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.factory.ArtifactFactory;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
+
+/**
+ * Creates the dependency artifacts of the graph builders without a Plexus container.
+ */
+class ArtifactFactoryStub
+    implements ArtifactFactory
+{
+    public Artifact createDependencyArtifact( String groupId, String artifactId, VersionRange versionRange,
+                                              String type, String classifier, String scope, boolean optional )
+    {
+        return new DefaultArtifact( groupId, artifactId, versionRange, scope, type, classifier,
+                                    new DefaultArtifactHandler( type ), optional );
+    }
+
+    public Artifact createDependencyArtifact( String groupId, String artifactId, VersionRange versionRange,
+                                              String type, String classifier, String scope )
+    {
+        return createDependencyArtifact( groupId, artifactId, versionRange, type, classifier, scope, false );
+    }
+
+    public Artifact createDependencyArtifact( String groupId, String artifactId, VersionRange versionRange,
+                                              String type, String classifier, String scope, String inheritedScope )
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public Artifact createDependencyArtifact( String groupId, String artifactId, VersionRange versionRange,
+                                              String type, String classifier, String scope, String inheritedScope,
+                                              boolean optional )
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public Artifact createArtifact( String groupId, String artifactId, String version, String scope, String type )
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public Artifact createArtifactWithClassifier( String groupId, String artifactId, String version, String type,
+                                                  String classifier )
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public Artifact createBuildArtifact( String groupId, String artifactId, String version, String packaging )
+    {
+        return createDependencyArtifact( groupId, artifactId, VersionRange.createFromVersion( version ), packaging,
+                                         null, null );
+    }
+
+    public Artifact createProjectArtifact( String groupId, String artifactId, String version )
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public Artifact createParentArtifact( String groupId, String artifactId, String version )
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public Artifact createPluginArtifact( String groupId, String artifactId, VersionRange versionRange )
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public Artifact createProjectArtifact( String groupId, String artifactId, String version, String scope )
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public Artifact createExtensionArtifact( String groupId, String artifactId, VersionRange versionRange )
+    {
+        throw new UnsupportedOperationException();
+    }
+}
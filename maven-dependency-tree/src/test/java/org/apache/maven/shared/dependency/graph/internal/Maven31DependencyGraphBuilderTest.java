@@ -0,0 +1,184 @@
+package org.apache.maven.shared.dependency.graph.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DefaultDependencyNode;
+
+/**
+ * Tests the conversion of Aether graphs by <code>Maven31DependencyGraphBuilder</code>.
+ *
+ * @see Maven31DependencyGraphBuilder
+ */
+public class Maven31DependencyGraphBuilderTest
+    extends TestCase
+{
+    private Maven31DependencyGraphBuilder builder;
+
+    private Artifact projectArtifact;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        ArtifactFactoryStub artifactFactory = new ArtifactFactoryStub();
+
+        builder = new Maven31DependencyGraphBuilder( artifactFactory );
+
+        projectArtifact = artifactFactory.createBuildArtifact( "g", "project", "1.0", "jar" );
+    }
+
+    public void testFilterIsCalledDepthFirstAndPrunesExcludedSubtrees()
+    {
+        DefaultDependencyNode root = createNode( "project", "compile" );
+        DefaultDependencyNode a = addChild( root, "a", "compile" );
+        DefaultDependencyNode b = addChild( a, "b", "compile" );
+        addChild( b, "c", "compile" );
+        addChild( a, "d", "compile" );
+        addChild( root, "e", "compile" );
+
+        final List<String> included = new ArrayList<String>();
+        ArtifactFilter filter = new ArtifactFilter()
+        {
+            public boolean include( Artifact artifact )
+            {
+                included.add( artifact.getArtifactId() );
+                return !"b".equals( artifact.getArtifactId() );
+            }
+        };
+
+        DependencyNode node = builder.buildDependencyNode( root, projectArtifact, filter );
+
+        assertEquals( Arrays.asList( "a", "b", "d", "e" ), included );
+
+        assertSame( projectArtifact, node.getArtifact() );
+        assertEquals( 2, node.getChildren().size() );
+
+        DependencyNode nodeA = node.getChildren().get( 0 );
+        assertEquals( "a", nodeA.getArtifact().getArtifactId() );
+        assertSame( node, nodeA.getParent() );
+        assertEquals( 1, nodeA.getChildren().size() );
+        assertEquals( "d", nodeA.getChildren().get( 0 ).getArtifact().getArtifactId() );
+        assertTrue( nodeA.getChildren().get( 0 ).getChildren().isEmpty() );
+
+        assertEquals( "e", node.getChildren().get( 1 ).getArtifact().getArtifactId() );
+    }
+
+    public void testDeepGraphDoesNotOverflowTheStack()
+        throws Exception
+    {
+        final int depth = 20000;
+
+        final DefaultDependencyNode root = createNode( "project", "compile" );
+        DefaultDependencyNode parent = root;
+        for ( int i = 0; i < depth; i++ )
+        {
+            parent = addChild( parent, "a" + i, "compile" );
+        }
+
+        final DependencyNode[] result = new DependencyNode[1];
+        final Throwable[] failure = new Throwable[1];
+
+        // a small stack, which a recursive conversion of the chain would overflow
+        Thread thread = new Thread( null, new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    result[0] = builder.buildDependencyNode( root, projectArtifact, null );
+                }
+                catch ( Throwable e )
+                {
+                    failure[0] = e;
+                }
+            }
+        }, "deep-graph", 256 * 1024 );
+        thread.start();
+        thread.join();
+
+        if ( failure[0] != null )
+        {
+            throw new AssertionError( failure[0] );
+        }
+
+        int count = 0;
+        for ( DependencyNode node = result[0]; !node.getChildren().isEmpty(); node = node.getChildren().get( 0 ) )
+        {
+            assertEquals( 1, node.getChildren().size() );
+            assertEquals( "a" + count, node.getChildren().get( 0 ).getArtifact().getArtifactId() );
+            count++;
+        }
+        assertEquals( depth, count );
+    }
+
+    public void testNodesShareOneArtifactPerCoordinatesScopeAndOptional()
+    {
+        DefaultDependencyNode root = createNode( "project", "compile" );
+        DefaultDependencyNode a = addChild( root, "a", "compile" );
+        DefaultDependencyNode b = addChild( root, "b", "compile" );
+        addChild( a, "shared", "compile" );
+        addChild( b, "shared", "compile" );
+        addChild( b, "shared", "runtime" );
+        DefaultDependencyNode optional = addChild( b, "shared", "compile" );
+        optional.setDependency( optional.getDependency().setOptional( true ) );
+
+        DependencyNode node = builder.buildDependencyNode( root, projectArtifact, null );
+
+        DependencyNode nodeA = node.getChildren().get( 0 );
+        DependencyNode nodeB = node.getChildren().get( 1 );
+
+        Artifact shared = nodeA.getChildren().get( 0 ).getArtifact();
+        assertSame( shared, nodeB.getChildren().get( 0 ).getArtifact() );
+        assertNotSame( shared, nodeB.getChildren().get( 1 ).getArtifact() );
+        assertEquals( "runtime", nodeB.getChildren().get( 1 ).getArtifact().getScope() );
+        assertNotSame( shared, nodeB.getChildren().get( 2 ).getArtifact() );
+        assertTrue( nodeB.getChildren().get( 2 ).getArtifact().isOptional() );
+
+        // the nodes themselves are distinct
+        assertNotSame( nodeA.getChildren().get( 0 ), nodeB.getChildren().get( 0 ) );
+        assertSame( nodeA, nodeA.getChildren().get( 0 ).getParent() );
+        assertSame( nodeB, nodeB.getChildren().get( 0 ).getParent() );
+    }
+
+    private DefaultDependencyNode createNode( String artifactId, String scope )
+    {
+        return new DefaultDependencyNode( new Dependency( new DefaultArtifact( "g:" + artifactId + ":jar:1.0" ),
+                                                          scope ) );
+    }
+
+    private DefaultDependencyNode addChild( DefaultDependencyNode parent, String artifactId, String scope )
+    {
+        DefaultDependencyNode child = createNode( artifactId, scope );
+        parent.getChildren().add( child );
+        return child;
+    }
+}
@@ -36,7 +36,14 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @author Olivier Lamy
@@ -246,6 +253,8 @@ public class DefaultMavenResourcesFiltering
                 "Copying " + includedFiles.size() + " resource" + ( includedFiles.size() > 1 ? "s" : "" ) + (
                     targetPath == null ? "" : " to " + targetPath ) );
 
+            List<CopyFile> copies = new ArrayList<CopyFile>( includedFiles.size() );
+            Set<File> destinationDirectories = new HashSet<File>();
             for ( String name : includedFiles )
             {
 
@@ -255,15 +264,22 @@ public class DefaultMavenResourcesFiltering
 
                 File destinationFile = getDestinationFile( outputDirectory, targetPath, name );
 
+                // create each destination directory once, before any file gets copied into it
+                File destinationDirectory = destinationFile.getParentFile();
+                if ( destinationDirectories.add( destinationDirectory ) && !destinationDirectory.exists() )
+                {
+                    destinationDirectory.mkdirs();
+                }
+
                 boolean filteredExt =
                     filteredFileExtension( source.getName(), mavenResourcesExecution.getNonFilteredFileExtensions() );
 
-                mavenFileFilter.copyFile( source, destinationFile, resource.isFiltering() && filteredExt,
-                                          mavenResourcesExecution.getFilterWrappers(),
-                                          mavenResourcesExecution.getEncoding(),
-                                          mavenResourcesExecution.isOverwrite() );
+                copies.add( new CopyFile( source, destinationFile, resource.isFiltering() && filteredExt,
+                                          mavenResourcesExecution ) );
             }
 
+            copyFiles( copies, mavenResourcesExecution.getThreads() );
+
             // deal with deleted source files
 
             scanner = buildContext.newDeleteScanner( resourceDirectory );
@@ -302,11 +318,90 @@ public class DefaultMavenResourcesFiltering
             destinationFile = new File( outputDirectory, destination );
         }
 
-        if ( !destinationFile.getParentFile().exists() )
+        return destinationFile;
+    }
+
+    /**
+     * Copies the files one after the other or, if more than one thread is configured, concurrently. In the latter case
+     * all copies are attempted and the failures are reported in the order of the files, independent of the order in
+     * which they occurred. A single failure is thrown as is, several ones are reported together, whatever their type.
+     */
+    private void copyFiles( List<CopyFile> copies, int threads )
+        throws MavenFilteringException
+    {
+        if ( threads <= 1 || copies.size() <= 1 )
         {
-            destinationFile.getParentFile().mkdirs();
+            for ( CopyFile copy : copies )
+            {
+                copy.call();
+            }
+            return;
+        }
+
+        List<Future<Void>> results;
+        ExecutorService executor = Executors.newFixedThreadPool( Math.min( threads, copies.size() ) );
+        try
+        {
+            results = executor.invokeAll( copies );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new MavenFilteringException( "Interrupted while copying resources", e );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        List<Throwable> failures = new ArrayList<Throwable>();
+        for ( Future<Void> result : results )
+        {
+            try
+            {
+                result.get();
+            }
+            catch ( InterruptedException e )
+            {
+                // can't happen, invokeAll() waited for all copies
+                Thread.currentThread().interrupt();
+                throw new MavenFilteringException( "Interrupted while copying resources", e );
+            }
+            catch ( ExecutionException e )
+            {
+                failures.add( e.getCause() );
+            }
+        }
+
+        if ( failures.size() == 1 )
+        {
+            Throwable failure = failures.get( 0 );
+            if ( failure instanceof MavenFilteringException )
+            {
+                throw (MavenFilteringException) failure;
+            }
+            else if ( failure instanceof RuntimeException )
+            {
+                throw (RuntimeException) failure;
+            }
+            else if ( failure instanceof Error )
+            {
+                throw (Error) failure;
+            }
+            throw new MavenFilteringException( failure.getMessage(), failure );
+        }
+        else if ( failures.size() > 1 )
+        {
+            String ls = System.getProperty( "line.separator" );
+            StringBuilder message = new StringBuilder( failures.size() + " resources could not be copied:" );
+            for ( Throwable failure : failures )
+            {
+                // the type of the unexpected failures tells more than their message, which might even be missing
+                message.append( ls ).append(
+                    failure instanceof MavenFilteringException ? failure.getMessage() : failure.toString() );
+            }
+            throw new MavenFilteringException( message.toString(), failures.get( 0 ) );
         }
-        return destinationFile;
     }
 
     private String[] setupScanner( Resource resource, Scanner scanner )
@@ -372,6 +467,38 @@ public class DefaultMavenResourcesFiltering
         }
     }
 
+    /**
+     * Filters or copies a single resource file.
+     */
+    private class CopyFile
+        implements Callable<Void>
+    {
+        private final File source;
+
+        private final File destinationFile;
+
+        private final boolean filtering;
+
+        private final MavenResourcesExecution mavenResourcesExecution;
+
+        CopyFile( File source, File destinationFile, boolean filtering,
+                  MavenResourcesExecution mavenResourcesExecution )
+        {
+            this.source = source;
+            this.destinationFile = destinationFile;
+            this.filtering = filtering;
+            this.mavenResourcesExecution = mavenResourcesExecution;
+        }
+
+        public Void call()
+            throws MavenFilteringException
+        {
+            mavenFileFilter.copyFile( source, destinationFile, filtering, mavenResourcesExecution.getFilterWrappers(),
+                                      mavenResourcesExecution.getEncoding(), mavenResourcesExecution.isOverwrite() );
+            return null;
+        }
+    }
+
     private String getRelativeOutputDirectory( MavenResourcesExecution execution )
     {
         String relOutDir = execution.getOutputDirectory().getAbsolutePath();
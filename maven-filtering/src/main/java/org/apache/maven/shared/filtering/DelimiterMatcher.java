@@ -0,0 +1,188 @@
+package org.apache.maven.shared.filtering;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collection;
+
+import org.codehaus.plexus.interpolation.multi.DelimiterSpecification;
+
+/**
+ * Finds the begin tokens of several delimiter specifications with a single pass over the input. The begin tokens get
+ * compiled into a trie, so each character is read and compared once regardless of the number of delimiters.
+ * <p/>
+ * If several begin tokens match at the same position, the specification which got added last wins, like it did when
+ * the specifications were tried one after the other.
+ *
+ * @since 1.2
+ */
+class DelimiterMatcher
+{
+
+    private final Node root = new Node();
+
+    /**
+     * first characters of all begin tokens below 128, the common case
+     */
+    private final boolean[] asciiStarts = new boolean[128];
+
+    /**
+     * first characters of all begin tokens from 128 on
+     */
+    private char[] otherStarts = new char[0];
+
+    DelimiterMatcher( Collection<DelimiterSpecification> delimiters )
+    {
+        int order = 0;
+        for ( DelimiterSpecification spec : delimiters )
+        {
+            String begin = spec.getBegin();
+            if ( begin.length() == 0 )
+            {
+                continue;
+            }
+
+            Node node = root;
+            for ( int i = 0; i < begin.length(); i++ )
+            {
+                node = node.getOrAddChild( begin.charAt( i ) );
+            }
+            node.spec = spec;
+            node.order = order++;
+
+            char start = begin.charAt( 0 );
+            if ( start < asciiStarts.length )
+            {
+                asciiStarts[start] = true;
+            }
+            else
+            {
+                char[] starts = new char[otherStarts.length + 1];
+                System.arraycopy( otherStarts, 0, starts, 0, otherStarts.length );
+                starts[otherStarts.length] = start;
+                otherStarts = starts;
+            }
+        }
+    }
+
+    /**
+     * @param ch a character
+     * @return <code>true</code> if a begin token starts with the given character
+     */
+    boolean isStart( char ch )
+    {
+        if ( ch < asciiStarts.length )
+        {
+            return asciiStarts[ch];
+        }
+        for ( char start : otherStarts )
+        {
+            if ( start == ch )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Matches the begin tokens against the given character and the characters following it in the reader. The reader
+     * is left at an undefined position, callers are expected to reset it.
+     *
+     * @param in        the reader to read the characters following <code>ch</code> from
+     * @param ch        the first character to match
+     * @param stopAtEol whether a line feed ends the match
+     * @return the specification whose begin token matched, <code>null</code> if none matched
+     * @throws IOException if the reader can't be read
+     */
+    DelimiterSpecification match( Reader in, int ch, boolean stopAtEol )
+        throws IOException
+    {
+        DelimiterSpecification match = null;
+        int matchOrder = -1;
+
+        Node node = root;
+        while ( ch != -1 && !( ch == '\n' && stopAtEol ) )
+        {
+            node = node.getChild( (char) ch );
+            if ( node == null )
+            {
+                break;
+            }
+            if ( node.spec != null && node.order > matchOrder )
+            {
+                match = node.spec;
+                matchOrder = node.order;
+            }
+            if ( node.chars.length == 0 )
+            {
+                break;
+            }
+            ch = in.read();
+        }
+        return match;
+    }
+
+    private static final class Node
+    {
+        char[] chars = new char[0];
+
+        Node[] children = new Node[0];
+
+        DelimiterSpecification spec;
+
+        int order = -1;
+
+        Node getChild( char ch )
+        {
+            for ( int i = 0; i < chars.length; i++ )
+            {
+                if ( chars[i] == ch )
+                {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node getOrAddChild( char ch )
+        {
+            Node child = getChild( ch );
+            if ( child == null )
+            {
+                child = new Node();
+
+                char[] newChars = new char[chars.length + 1];
+                System.arraycopy( chars, 0, newChars, 0, chars.length );
+                newChars[chars.length] = ch;
+
+                Node[] newChildren = new Node[children.length + 1];
+                System.arraycopy( children, 0, newChildren, 0, children.length );
+                newChildren[children.length] = child;
+
+                chars = newChars;
+                children = newChildren;
+            }
+            return child;
+        }
+    }
+
+}
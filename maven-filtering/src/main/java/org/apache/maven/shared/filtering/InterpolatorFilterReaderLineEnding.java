@@ -96,6 +96,17 @@ public class InterpolatorFilterReaderLineEnding
 
     private boolean eof = false;
 
+    /**
+     * maximum number of characters copied at once by {@link #read(char[], int, int)}, fits into the buffer of the
+     * wrapped {@link BufferedReader} so that marking it never grows the buffer
+     */
+    private static final int BULK_READ_LENGTH = 8192;
+
+    /**
+     * reused to collect escape strings and tokens
+     */
+    private final StringBuilder key = new StringBuilder();
+
     /**
      * @param in                        reader to use
      * @param interpolator              interpolator instance to use
@@ -178,21 +189,66 @@ public class InterpolatorFilterReaderLineEnding
     public int read( char cbuf[], int off, int len )
         throws IOException
     {
-        for ( int i = 0; i < len; i++ )
+        int count = 0;
+        while ( count < len )
         {
+            if ( replaceIndex > 0 )
+            {
+                int n = Math.min( replaceIndex, len - count );
+                int start = replaceData.length() - replaceIndex;
+                replaceData.getChars( start, start + n, cbuf, off + count );
+                replaceIndex -= n;
+                count += n;
+                continue;
+            }
+            if ( eof )
+            {
+                break;
+            }
+
+            // copy everything up to the next character which might start an escape string or a token at once
+            int n = Math.min( len - count, BULK_READ_LENGTH );
+            in.mark( n );
+            int read = in.read( cbuf, off + count, n );
+            if ( read == -1 )
+            {
+                break;
+            }
+            int literal = indexOfSpecialChar( cbuf, off + count, read );
+            count += literal;
+            if ( literal == read )
+            {
+                continue;
+            }
+
+            // and let the single character path deal with it
+            in.reset();
+            in.skip( literal );
             int ch = read();
             if ( ch == -1 )
             {
-                if ( i == 0 )
-                {
-                    return -1;
-                }
-                else
-                {
-                    return i;
-                }
+                break;
+            }
+            cbuf[off + count++] = (char) ch;
+        }
+        return ( count == 0 && len > 0 ) ? -1 : count;
+    }
+
+    /**
+     * @return the number of characters in the given range before the first character which starts the escape string
+     *         or the begin token, <code>len</code> if there is none
+     */
+    private int indexOfSpecialChar( char[] cbuf, int off, int len )
+    {
+        char begin = beginToken.charAt( 0 );
+        char escape = useEscape ? escapeString.charAt( 0 ) : begin;
+        for ( int i = 0; i < len; i++ )
+        {
+            char ch = cbuf[off + i];
+            if ( ch == begin || ch == escape )
+            {
+                return i;
             }
-            cbuf[off + i] = (char) ch;
         }
         return len;
     }
@@ -225,7 +281,7 @@ public class InterpolatorFilterReaderLineEnding
 
         boolean inEscape = ( useEscape && ch == escapeString.charAt( 0 ) );
 
-        StringBuffer key = new StringBuffer();
+        key.setLength( 0 );
 
         // have we found an escape string?
         if ( inEscape )
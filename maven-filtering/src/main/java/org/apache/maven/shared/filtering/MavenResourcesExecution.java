@@ -78,6 +78,14 @@ public class MavenResourcesExecution
      */
     private boolean supportMultiLineFiltering;
 
+    /**
+     * Number of threads used to filter and copy the files of the resources. <code>1</code> by default, which copies
+     * the files one after the other.
+     *
+     * @since 1.2
+     */
+    private int threads = 1;
+
     public MavenResourcesExecution()
     {
         // no op
@@ -371,6 +379,7 @@ public class MavenResourcesExecution
         mre.setResourcesBaseDirectory( mre.getResourcesBaseDirectory() );
         mre.setUseDefaultFilterWrappers( mre.isUseDefaultFilterWrappers() );
         mre.setSupportMultiLineFiltering( mre.isSupportMultiLineFiltering() );
+        mre.setThreads( getThreads() );
         return mre;
     }
 
@@ -399,4 +408,26 @@ public class MavenResourcesExecution
     {
         this.supportMultiLineFiltering = supportMultiLineFiltering;
     }
+
+    /**
+     * Number of threads used to filter and copy the files of the resources.
+     *
+     * @since 1.2
+     */
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Number of threads used to filter and copy the files of the resources. The filter wrappers must be able to
+     * create readers concurrently if more than one thread is used.
+     *
+     * @param threads the number of threads, <code>1</code> copies the files one after the other
+     * @since 1.2
+     */
+    public void setThreads( int threads )
+    {
+        this.threads = threads;
+    }
 }
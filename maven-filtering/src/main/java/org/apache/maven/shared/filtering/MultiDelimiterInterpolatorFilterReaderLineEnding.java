@@ -88,6 +88,11 @@ public class MultiDelimiterInterpolatorFilterReaderLineEnding
 
     private LinkedHashSet<DelimiterSpecification> delimiters = new LinkedHashSet<DelimiterSpecification>();
 
+    /**
+     * compiled from the delimiters on first use
+     */
+    private DelimiterMatcher delimiterMatcher;
+
     private String beginToken;
 
     private String endToken;
@@ -101,6 +106,17 @@ public class MultiDelimiterInterpolatorFilterReaderLineEnding
 
     private boolean eof = false;
 
+    /**
+     * maximum number of characters copied at once by {@link #read(char[], int, int)}, fits into the buffer of the
+     * wrapped {@link BufferedReader} so that marking it never grows the buffer
+     */
+    private static final int BULK_READ_LENGTH = 8192;
+
+    /**
+     * reused to collect escape strings and tokens
+     */
+    private final StringBuilder key = new StringBuilder();
+
     /**
      * This constructor uses default begin token ${ and default end token }.
      *
@@ -145,12 +161,14 @@ public class MultiDelimiterInterpolatorFilterReaderLineEnding
 
     public boolean removeDelimiterSpec( String delimiterSpec )
     {
+        delimiterMatcher = null;
         return delimiters.remove( DelimiterSpecification.parse( delimiterSpec ) );
     }
 
     public MultiDelimiterInterpolatorFilterReaderLineEnding setDelimiterSpecs( Set<String> specs )
     {
         delimiters.clear();
+        delimiterMatcher = null;
         for ( String spec : specs )
         {
             delimiters.add( DelimiterSpecification.parse( spec ) );
@@ -200,23 +218,61 @@ public class MultiDelimiterInterpolatorFilterReaderLineEnding
     public int read( char cbuf[], int off, int len )
         throws IOException
     {
-        for ( int i = 0; i < len; i++ )
+        DelimiterMatcher matcher = getDelimiterMatcher();
+        char escape = useEscape ? escapeString.charAt( 0 ) : 0;
+
+        int count = 0;
+        while ( count < len )
         {
-            int ch = read();
-            if ( ch == -1 )
+            if ( replaceIndex > 0 )
             {
-                if ( i == 0 )
-                {
-                    return -1;
-                }
-                else
+                int n = Math.min( replaceIndex, len - count );
+                int start = replaceData.length() - replaceIndex;
+                replaceData.getChars( start, start + n, cbuf, off + count );
+                replaceIndex -= n;
+                count += n;
+                continue;
+            }
+            if ( eof )
+            {
+                break;
+            }
+
+            // copy everything up to the next character which might start an escape string or a token at once
+            int n = Math.min( len - count, BULK_READ_LENGTH );
+            in.mark( n );
+            int read = in.read( cbuf, off + count, n );
+            if ( read == -1 )
+            {
+                break;
+            }
+            int literal = 0;
+            while ( literal < read )
+            {
+                char ch = cbuf[off + count + literal];
+                if ( matcher.isStart( ch ) || ( useEscape && ch == escape ) )
                 {
-                    return i;
+                    break;
                 }
+                literal++;
+            }
+            count += literal;
+            if ( literal == read )
+            {
+                continue;
+            }
+
+            // and let the single character path deal with it
+            in.reset();
+            in.skip( literal );
+            int ch = read();
+            if ( ch == -1 )
+            {
+                break;
             }
-            cbuf[off + i] = (char) ch;
+            cbuf[off + count++] = (char) ch;
         }
-        return len;
+        return ( count == 0 && len > 0 ) ? -1 : count;
     }
 
     /**
@@ -247,7 +303,7 @@ public class MultiDelimiterInterpolatorFilterReaderLineEnding
 
         boolean inEscape = ( useEscape && ch == escapeString.charAt( 0 ) );
 
-        StringBuffer key = new StringBuffer();
+        key.setLength( 0 );
 
         // have we found an escape string?
         if ( inEscape )
@@ -271,44 +327,20 @@ public class MultiDelimiterInterpolatorFilterReaderLineEnding
 
         }
 
-        // have we found a delimiter?
-        int max = 0;
-        for ( DelimiterSpecification spec : delimiters )
+        // have we found a delimiter? all begin tokens get matched in a single pass, starting behind the escape string
+        in.reset();
+        in.skip( key.length() );
+        DelimiterSpecification spec = getDelimiterMatcher().match( in, in.read(), !supportMultiLineFiltering );
+        if ( spec != null )
         {
-            String begin = spec.getBegin();
-
-            // longest match wins
-            if ( begin.length() < max )
-            {
-                continue;
-            }
-
-            for ( int i = 0; i < begin.length(); i++ )
-            {
-                if ( ch != begin.charAt( i ) || ch == -1 || ( ch == '\n' && !supportMultiLineFiltering ) )
-                {
-                    // mismatch, EOF or EOL, no match
-                    break;
-                }
-
-                if ( i == begin.length() - 1 )
-                {
-
-                    beginToken = spec.getBegin();
-                    endToken = spec.getEnd();
-
-                }
-
-                ch = in.read();
-
-            }
-
-            in.reset();
-            in.skip( key.length() );
-            ch = in.read();
-
+            beginToken = spec.getBegin();
+            endToken = spec.getEnd();
         }
 
+        in.reset();
+        in.skip( key.length() );
+        ch = in.read();
+
         // escape means no luck, prevent parsing of the escaped character, and return
         if ( inEscape )
         {
@@ -478,6 +510,15 @@ public class MultiDelimiterInterpolatorFilterReaderLineEnding
         return this;
     }
 
+    private DelimiterMatcher getDelimiterMatcher()
+    {
+        if ( delimiterMatcher == null )
+        {
+            delimiterMatcher = new DelimiterMatcher( delimiters );
+        }
+        return delimiterMatcher;
+    }
+
     private void calculateMarkLength()
     {
         markLength = 16;
@@ -25,12 +25,15 @@ import org.apache.maven.settings.Settings;
 import org.codehaus.plexus.PlexusTestCase;
 import org.codehaus.plexus.interpolation.PrefixedObjectValueSource;
 import org.codehaus.plexus.interpolation.ValueSource;
+import org.codehaus.plexus.util.DirectoryScanner;
 import org.apache.maven.shared.utils.io.FileUtils;
 import org.apache.maven.shared.utils.io.IOUtil;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -143,6 +146,18 @@ public class DefaultMavenResourcesFilteringTest
 
     public void testWithMavenResourcesExecution()
         throws Exception
+    {
+        filterWithMavenResourcesExecution( 1 );
+    }
+
+    public void testWithMavenResourcesExecutionInParallel()
+        throws Exception
+    {
+        filterWithMavenResourcesExecution( 4 );
+    }
+
+    private void filterWithMavenResourcesExecution( int threads )
+        throws Exception
     {
         File baseDir = new File( "c:\\foo\\bar" );
         StubMavenProject mavenProject = new StubMavenProject( baseDir );
@@ -175,10 +190,146 @@ public class DefaultMavenResourcesFilteringTest
             new MavenResourcesExecution( resources, outputDirectory, mavenProject, "UTF-8", filtersFile,
                                          nonFilteredFileExtensions, new StubMavenSession() );
         mavenResourcesExecution.setEscapeString( "\\" );
+        mavenResourcesExecution.setThreads( threads );
         mavenResourcesFiltering.filterResources( mavenResourcesExecution );
         assertFiltering( baseDir, initialImageFile, true, false );
     }
 
+    public void testFailuresInParallelAreReportedInFileOrder()
+        throws Exception
+    {
+        File sourceDirectory = createSourceDirectory();
+
+        // directories in place of the target files make their copies fail
+        new File( outputDirectory, "a.txt" ).mkdirs();
+        new File( outputDirectory, "c.txt" ).mkdirs();
+
+        Resource resource = new Resource();
+        resource.setDirectory( sourceDirectory.getPath() );
+        resource.addInclude( "*.txt" );
+        List<Resource> resources = new ArrayList<Resource>();
+        resources.add( resource );
+
+        MavenResourcesExecution mavenResourcesExecution =
+            new MavenResourcesExecution( resources, outputDirectory, new StubMavenProject( sourceDirectory ), "UTF-8",
+                                         Collections.<String>emptyList(), Collections.<String>emptyList(),
+                                         new StubMavenSession() );
+        mavenResourcesExecution.setOverwrite( true );
+        mavenResourcesExecution.setThreads( 4 );
+
+        MavenResourcesFiltering mavenResourcesFiltering =
+            (MavenResourcesFiltering) lookup( MavenResourcesFiltering.class.getName() );
+        try
+        {
+            mavenResourcesFiltering.filterResources( mavenResourcesExecution );
+            fail( "the copies of a.txt and c.txt should have failed" );
+        }
+        catch ( MavenFilteringException e )
+        {
+            String message = e.getMessage();
+            assertTrue( message, message.startsWith( "2 resources could not be copied:" ) );
+            assertInFileOrder( message, sourceDirectory, "a.txt", "c.txt" );
+            assertFalse( message, message.contains( "b.txt" ) || message.contains( "d.txt" ) );
+        }
+
+        assertEquals( "b.txt", FileUtils.fileRead( new File( outputDirectory, "b.txt" ), "UTF-8" ) );
+        assertEquals( "d.txt", FileUtils.fileRead( new File( outputDirectory, "d.txt" ), "UTF-8" ) );
+    }
+
+    public void testUnexpectedFailuresInParallelAreReportedWithTheOthers()
+        throws Exception
+    {
+        File sourceDirectory = createSourceDirectory();
+
+        // a directory in place of the target file makes the copy of a.txt fail, the filter fails on b.txt
+        new File( outputDirectory, "a.txt" ).mkdirs();
+        FileUtils.FilterWrapper failingFilter = new FileUtils.FilterWrapper()
+        {
+            public Reader getReader( Reader fileReader )
+            {
+                String content;
+                try
+                {
+                    content = IOUtil.toString( fileReader );
+                }
+                catch ( IOException e )
+                {
+                    throw new IllegalStateException( e );
+                }
+                if ( "b.txt".equals( content ) )
+                {
+                    throw new IllegalStateException( "b.txt broke the filter" );
+                }
+                return new StringReader( content );
+            }
+        };
+
+        Resource resource = new Resource();
+        resource.setDirectory( sourceDirectory.getPath() );
+        resource.addInclude( "*.txt" );
+        resource.setFiltering( true );
+        List<Resource> resources = new ArrayList<Resource>();
+        resources.add( resource );
+
+        MavenResourcesExecution mavenResourcesExecution =
+            new MavenResourcesExecution( resources, outputDirectory, "UTF-8",
+                                         Collections.singletonList( failingFilter ), sourceDirectory,
+                                         Collections.<String>emptyList() );
+        mavenResourcesExecution.setOverwrite( true );
+        mavenResourcesExecution.setThreads( 4 );
+
+        MavenResourcesFiltering mavenResourcesFiltering =
+            (MavenResourcesFiltering) lookup( MavenResourcesFiltering.class.getName() );
+        try
+        {
+            mavenResourcesFiltering.filterResources( mavenResourcesExecution );
+            fail( "the copies of a.txt and b.txt should have failed" );
+        }
+        catch ( MavenFilteringException e )
+        {
+            String message = e.getMessage();
+            assertTrue( message, message.startsWith( "2 resources could not be copied:" ) );
+            assertTrue( message, message.contains( "IllegalStateException: b.txt broke the filter" ) );
+            assertInFileOrder( message, sourceDirectory, "a.txt", "b.txt" );
+        }
+
+        assertEquals( "c.txt", FileUtils.fileRead( new File( outputDirectory, "c.txt" ), "UTF-8" ) );
+        assertEquals( "d.txt", FileUtils.fileRead( new File( outputDirectory, "d.txt" ), "UTF-8" ) );
+    }
+
+    private File createSourceDirectory()
+        throws IOException
+    {
+        File sourceDirectory = new File( getBasedir(), "target/DefaultMavenResourcesFilteringTest-sources" );
+        if ( sourceDirectory.exists() )
+        {
+            FileUtils.forceDelete( sourceDirectory );
+        }
+        sourceDirectory.mkdirs();
+
+        String[] names = { "a.txt", "b.txt", "c.txt", "d.txt" };
+        for ( String name : names )
+        {
+            FileUtils.fileWrite( new File( sourceDirectory, name ), "UTF-8", name );
+        }
+        return sourceDirectory;
+    }
+
+    /**
+     * Asserts that the message names the two files in the order the scanner found them, i.e. in which they were copied.
+     */
+    private static void assertInFileOrder( String message, File sourceDirectory, String name, String otherName )
+    {
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir( sourceDirectory );
+        scanner.scan();
+        List<String> order = Arrays.asList( scanner.getIncludedFiles() );
+        String first = order.indexOf( name ) < order.indexOf( otherName ) ? name : otherName;
+        String second = name.equals( first ) ? otherName : name;
+        int firstIndex = message.indexOf( first );
+        assertTrue( message, firstIndex > 0 && message.indexOf( second ) > firstIndex );
+    }
+
     public void testWithMavenResourcesExecutionWithAdditionnalProperties()
         throws Exception
     {
@@ -0,0 +1,161 @@
+package org.apache.maven.shared.filtering;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.codehaus.plexus.interpolation.MapBasedValueSource;
+import org.codehaus.plexus.interpolation.StringSearchInterpolator;
+
+/**
+ * @since 1.2
+ */
+public class InterpolatorFilterReaderLineEndingTest
+    extends TestCase
+{
+
+    public void testBulkReadLikeSingleCharRead()
+        throws Exception
+    {
+        String[] inputs = {
+            "", "no tokens at all", "${a}", "foo ${a} bar ${b}${a}", "${missing} and ${a", "${a\n} next ${b}",
+            "\\${a} escaped \\\\${b} \\x", "$$${a}$", "multi ${a\nb} line", "@a@ and @b@ and @unknown@ @",
+            "trailing $", "trailing \\" };
+
+        for ( String input : inputs )
+        {
+            for ( boolean multiLine : new boolean[] { true, false } )
+            {
+                for ( boolean preserveEscape : new boolean[] { true, false } )
+                {
+                    assertBulkReadLikeSingleCharRead( input, "${", "}", multiLine, preserveEscape );
+                    assertBulkReadLikeSingleCharRead( input, "@", "@", multiLine, preserveEscape );
+                }
+            }
+        }
+    }
+
+    public void testBulkReadAcrossBufferBoundaries()
+        throws Exception
+    {
+        StringBuilder input = new StringBuilder();
+        for ( int i = 0; i < 5000; i++ )
+        {
+            input.append( "line " ).append( i ).append( " with ${a} and \\${b}\n" );
+        }
+
+        assertBulkReadLikeSingleCharRead( input.toString(), "${", "}", false, false );
+    }
+
+    /**
+     * Compares the throughput of the filter reader against a plain {@link BufferedReader} copy for content without any
+     * token. Enable it with <code>-Dfiltering.benchmark=true</code>.
+     */
+    public void testThroughputWithoutTokens()
+        throws Exception
+    {
+        if ( !Boolean.getBoolean( "filtering.benchmark" ) )
+        {
+            return;
+        }
+
+        StringBuilder builder = new StringBuilder();
+        while ( builder.length() < 8 * 1024 * 1024 )
+        {
+            builder.append( "some.property.key = some property value without any token\n" );
+        }
+        String input = builder.toString();
+
+        char[] buffer = new char[8192];
+        for ( int warmup = 0; warmup < 5; warmup++ )
+        {
+            long startTime = System.nanoTime();
+            copy( new BufferedReader( new StringReader( input ) ), buffer );
+            long plain = System.nanoTime() - startTime;
+
+            startTime = System.nanoTime();
+            copy( newReader( input, "${", "}", true, false ), buffer );
+            long filtered = System.nanoTime() - startTime;
+
+            System.out.println( "BufferedReader                     [ms]: " + plain / 1000000 );
+            System.out.println( "InterpolatorFilterReaderLineEnding [ms]: " + filtered / 1000000 );
+        }
+    }
+
+    private static void copy( Reader reader, char[] buffer )
+        throws IOException
+    {
+        while ( reader.read( buffer, 0, buffer.length ) != -1 )
+        {
+            // just consume
+        }
+    }
+
+    private void assertBulkReadLikeSingleCharRead( String input, String beginToken, String endToken,
+                                                   boolean multiLine, boolean preserveEscape )
+        throws IOException
+    {
+        StringBuilder expected = new StringBuilder();
+        Reader reader = newReader( input, beginToken, endToken, multiLine, preserveEscape );
+        for ( int ch = reader.read(); ch != -1; ch = reader.read() )
+        {
+            expected.append( (char) ch );
+        }
+
+        for ( int length : new int[] { 1, 3, 7, 8192 } )
+        {
+            StringBuilder actual = new StringBuilder();
+            reader = newReader( input, beginToken, endToken, multiLine, preserveEscape );
+            char[] buffer = new char[length + 2];
+            for ( int read = reader.read( buffer, 1, length ); read != -1; read = reader.read( buffer, 1, length ) )
+            {
+                assertTrue( read > 0 );
+                actual.append( buffer, 1, read );
+            }
+            assertEquals( input, expected.toString(), actual.toString() );
+        }
+    }
+
+    private static Reader newReader( String input, String beginToken, String endToken, boolean multiLine,
+                                     boolean preserveEscape )
+    {
+        Map<String, String> values = new HashMap<String, String>();
+        values.put( "a", "value of a" );
+        values.put( "b", "${a} inside b" );
+
+        StringSearchInterpolator interpolator = new StringSearchInterpolator( beginToken, endToken );
+        interpolator.addValueSource( new MapBasedValueSource( values ) );
+
+        InterpolatorFilterReaderLineEnding reader =
+            new InterpolatorFilterReaderLineEnding( new StringReader( input ), interpolator, beginToken, endToken,
+                                                    multiLine );
+        reader.setEscapeString( "\\" );
+        reader.setPreserveEscapeString( preserveEscape );
+        return reader;
+    }
+
+}
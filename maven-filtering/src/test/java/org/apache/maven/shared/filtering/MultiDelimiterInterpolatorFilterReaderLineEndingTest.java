@@ -0,0 +1,135 @@
+package org.apache.maven.shared.filtering;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.codehaus.plexus.interpolation.MapBasedValueSource;
+import org.codehaus.plexus.interpolation.multi.MultiDelimiterStringSearchInterpolator;
+
+/**
+ * @since 1.2
+ */
+public class MultiDelimiterInterpolatorFilterReaderLineEndingTest
+    extends TestCase
+{
+
+    public void testMultipleDelimiters()
+        throws Exception
+    {
+        assertFiltered( "a value of a, value of b and value of c", "a ${a}, @b@ and #{c}", "${*}", "@", "#{*}" );
+        assertFiltered( "${unknown} @unknown@ #{unknown}", "${unknown} @unknown@ #{unknown}", "${*}", "@", "#{*}" );
+        assertFiltered( "value of a ${a} #{c}", "@a@ ${a} #{c}", "@" );
+        assertFiltered( "${a} value of a", "\\${a} ${a}", "${*}", "@" );
+        assertFiltered( "@a@ @a@", "\\@a@ @a@", "${*}", "@" );
+        assertFiltered( "unterminated ${a", "unterminated ${a", "${*}", "@" );
+        assertFiltered( "@ @ value of a @", "@ @ @a@ @", "${*}", "@" );
+    }
+
+    public void testOverlappingBeginTokens()
+        throws Exception
+    {
+        // the delimiter added last wins if several begin tokens match
+        assertFiltered( "${a}", "${a}", "${*}", "$*$" );
+        assertFiltered( "value of a", "$a$", "${*}", "$*$" );
+    }
+
+    public void testBulkReadLikeSingleCharRead()
+        throws Exception
+    {
+        StringBuilder input = new StringBuilder();
+        for ( int i = 0; i < 3000; i++ )
+        {
+            input.append( "line " ).append( i ).append( " ${a} @b@ \\#{c} #{unknown} @ $ #\n" );
+        }
+
+        String expected = read( newReader( input.toString(), "${*}", "@", "#{*}" ), 1 );
+        for ( int length : new int[] { 2, 5, 8192 } )
+        {
+            assertEquals( expected, read( newReader( input.toString(), "${*}", "@", "#{*}" ), length ) );
+        }
+    }
+
+    private static void assertFiltered( String expected, String input, String... delimiters )
+        throws IOException
+    {
+        assertEquals( expected, read( newReader( input, delimiters ), 1 ) );
+        assertEquals( expected, read( newReader( input, delimiters ), 1024 ) );
+    }
+
+    /**
+     * @param length the number of characters to read at once, <code>1</code> to use the single character read
+     */
+    private static String read( Reader reader, int length )
+        throws IOException
+    {
+        StringBuilder result = new StringBuilder();
+        if ( length == 1 )
+        {
+            for ( int ch = reader.read(); ch != -1; ch = reader.read() )
+            {
+                result.append( (char) ch );
+            }
+        }
+        else
+        {
+            char[] buffer = new char[length];
+            for ( int read = reader.read( buffer, 0, length ); read != -1; read = reader.read( buffer, 0, length ) )
+            {
+                result.append( buffer, 0, read );
+            }
+        }
+        return result.toString();
+    }
+
+    private static Reader newReader( String input, String... delimiters )
+    {
+        Map<String, String> values = new HashMap<String, String>();
+        values.put( "a", "value of a" );
+        values.put( "b", "value of b" );
+        values.put( "c", "value of c" );
+
+        LinkedHashSet<String> specs = new LinkedHashSet<String>();
+        for ( String delimiter : delimiters )
+        {
+            specs.add( delimiter );
+        }
+
+        MultiDelimiterStringSearchInterpolator interpolator = new MultiDelimiterStringSearchInterpolator();
+        interpolator.setDelimiterSpecs( specs );
+        interpolator.addValueSource( new MapBasedValueSource( values ) );
+        interpolator.setEscapeString( "\\" );
+
+        MultiDelimiterInterpolatorFilterReaderLineEnding reader =
+            new MultiDelimiterInterpolatorFilterReaderLineEnding( new StringReader( input ), interpolator, true );
+        reader.setDelimiterSpecs( specs );
+        reader.setInterpolateWithPrefixPattern( false );
+        reader.setEscapeString( "\\" );
+        return reader;
+    }
+
+}
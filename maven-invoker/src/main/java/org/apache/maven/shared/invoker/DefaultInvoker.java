@@ -59,6 +59,8 @@ public class DefaultInvoker
 
     private InvocationOutputHandler errorHandler = DEFAULT_OUTPUT_HANDLER;
 
+    private MavenWorkerPool workerPool;
+
     public InvocationResult execute( InvocationRequest request )
         throws MavenInvocationException
     {
@@ -156,12 +158,33 @@ public class DefaultInvoker
                 getLogger().info( "Executing in batch mode. The configured input stream will be ignored." );
             }
 
+            if ( isWorkerPoolApplicable( request ) )
+            {
+                File workingDirectory = cli.getWorkingDirectory();
+                if ( workingDirectory == null )
+                {
+                    workingDirectory = new File( System.getProperty( "user.dir" ) );
+                }
+
+                return workerPool.execute( workingDirectory, cli.getArguments(), outputHandler, errorHandler );
+            }
+
             result = CommandLineUtils.executeCommandLine( cli, outputHandler, errorHandler );
         }
 
         return result;
     }
 
+    /**
+     * Indicates whether a request can be run by the worker pool. The builds of a worker share its JVM, so the requests
+     * needing their own JVM or environment are forked.
+     */
+    private boolean isWorkerPoolApplicable( InvocationRequest request )
+    {
+        return workerPool != null && request.getJavaHome() == null && request.getMavenOpts() == null
+            && request.getShellEnvironments().isEmpty();
+    }
+
     public File getLocalRepositoryDirectory()
     {
         return localRepositoryDirectory;
@@ -236,4 +259,30 @@ public class DefaultInvoker
         return this;
     }
 
+    /**
+     * Gets the pool of warm Maven JVMs running the builds of this invoker.
+     *
+     * @return The worker pool or <code>null</code> if each build forks Maven.
+     * @since 2.1.2
+     */
+    public MavenWorkerPool getWorkerPool()
+    {
+        return workerPool;
+    }
+
+    /**
+     * Sets the pool of warm Maven JVMs running the builds of this invoker. Interactive requests and the requests with
+     * their own Java home, <code>MAVEN_OPTS</code> or environment variables still fork Maven. The Maven home of the
+     * pool is used instead of the one of this invoker.
+     *
+     * @param workerPool The worker pool, may be <code>null</code> to fork Maven for each build.
+     * @return This invoker instance.
+     * @since 2.1.2
+     */
+    public DefaultInvoker setWorkerPool( MavenWorkerPool workerPool )
+    {
+        this.workerPool = workerPool;
+        return this;
+    }
+
 }
@@ -0,0 +1,440 @@
+package org.apache.maven.shared.invoker;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs many Maven invocations with an {@link Invoker}, several at a time.
+ * <p>
+ * The invocations are started longest first, according to the durations recorded for their base directories, so a
+ * long build started last doesn't extend the overall run. The durations of the executed invocations are recorded and
+ * can be saved with {@link #getDurations()} and restored with {@link #setDurations(Map)} to order the next run.
+ * Invocations without a recorded duration are started first, in the order they were submitted.
+ * <p>
+ * The invocations run concurrently, so each request should have its own output and error handlers, for instance a
+ * {@link PrintStreamHandler} writing to a log file of the build. Otherwise the output of the builds is interleaved in
+ * the handlers of the invoker.
+ *
+ * @since 2.1.2
+ */
+public class InvocationScheduler
+{
+
+    private final Invoker invoker;
+
+    private final int threads;
+
+    private boolean failFast;
+
+    private final Map<String, Long> durations = new ConcurrentHashMap<String, Long>();
+
+    /**
+     * Creates a scheduler running the invocations with the given invoker.
+     *
+     * @param invoker The invoker used to execute the invocation requests, must not be <code>null</code>. It is called
+     *            from several threads at once.
+     * @param threads The maximum number of invocations running at the same time, must be positive.
+     */
+    public InvocationScheduler( Invoker invoker, int threads )
+    {
+        if ( invoker == null )
+        {
+            throw new IllegalArgumentException( "invoker missing" );
+        }
+        if ( threads < 1 )
+        {
+            throw new IllegalArgumentException( "threads must be positive: " + threads );
+        }
+        this.invoker = invoker;
+        this.threads = threads;
+    }
+
+    /**
+     * Gets the invoker used to execute the invocation requests.
+     *
+     * @return The invoker, never <code>null</code>.
+     */
+    public Invoker getInvoker()
+    {
+        return invoker;
+    }
+
+    /**
+     * Gets the maximum number of invocations running at the same time.
+     *
+     * @return The maximum number of concurrent invocations.
+     */
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Indicates whether the invocations which haven't started yet are cancelled once an invocation failed.
+     *
+     * @return <code>true</code> if the first failure cancels the remaining invocations, <code>false</code> otherwise.
+     */
+    public boolean isFailFast()
+    {
+        return failFast;
+    }
+
+    /**
+     * Sets whether the invocations which haven't started yet are cancelled once an invocation failed. An invocation
+     * fails if it has a non-zero exit code, if Maven couldn't be launched or if the request couldn't be executed.
+     * Running invocations are never interrupted. Defaults to <code>false</code>.
+     *
+     * @param failFast <code>true</code> to cancel the remaining invocations after the first failure.
+     * @return This scheduler instance.
+     */
+    public InvocationScheduler setFailFast( boolean failFast )
+    {
+        this.failFast = failFast;
+        return this;
+    }
+
+    /**
+     * Gets the recorded durations of the invocations, by the absolute path of their base directory or POM file.
+     *
+     * @return A copy of the recorded durations in milliseconds, never <code>null</code>.
+     */
+    public Map<String, Long> getDurations()
+    {
+        return new HashMap<String, Long>( durations );
+    }
+
+    /**
+     * Sets the expected durations of the invocations, usually recorded in a previous run.
+     *
+     * @param durations The durations in milliseconds, by the absolute path of the base directory or POM file of the
+     *            invocations, may be <code>null</code> to forget all durations.
+     * @return This scheduler instance.
+     */
+    public InvocationScheduler setDurations( Map<String, Long> durations )
+    {
+        this.durations.clear();
+        if ( durations != null )
+        {
+            this.durations.putAll( durations );
+        }
+        return this;
+    }
+
+    /**
+     * Starts the given invocations, at most {@link #getThreads()} at a time. This method returns immediately, the
+     * invocations are executed in the background.
+     *
+     * @param requests The invocation requests to execute, must not be <code>null</code>.
+     * @return The futures of the invocation results, in the order of the requests. The future of an invocation throws
+     *         an {@link ExecutionException} caused by a {@link MavenInvocationException} if the request couldn't be
+     *         executed, and a {@link CancellationException} if it got cancelled.
+     */
+    public List<Future<InvocationResult>> submit( List<InvocationRequest> requests )
+    {
+        List<Integer> order = new ArrayList<Integer>( requests.size() );
+        final long[] expected = new long[requests.size()];
+        for ( int i = 0; i < expected.length; i++ )
+        {
+            order.add( Integer.valueOf( i ) );
+
+            Long duration = getDuration( requests.get( i ) );
+            expected[i] = ( duration != null ) ? duration.longValue() : Long.MAX_VALUE;
+        }
+
+        // longest expected duration first, the sort is stable for equal durations
+        Collections.sort( order, new Comparator<Integer>()
+        {
+            public int compare( Integer o1, Integer o2 )
+            {
+                long d1 = expected[o1.intValue()];
+                long d2 = expected[o2.intValue()];
+                return ( d1 > d2 ) ? -1 : ( ( d1 < d2 ) ? 1 : 0 );
+            }
+        } );
+
+        ExecutorService executor = Executors.newFixedThreadPool( threads, new InvokerThreadFactory() );
+        try
+        {
+            Batch batch = new Batch( requests.size() );
+
+            for ( Integer index : order )
+            {
+                int i = index.intValue();
+                batch.set( i, executor.submit( new Invocation( requests.get( i ), batch, i ) ) );
+            }
+
+            return batch.getFutures();
+        }
+        finally
+        {
+            // let the submitted invocations complete, the threads end afterwards
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Executes the given invocations, at most {@link #getThreads()} at a time, and waits until all of them completed.
+     *
+     * @param requests The invocation requests to execute, must not be <code>null</code>.
+     * @return The invocation results, in the order of the requests. The result of an invocation which got cancelled
+     *         after a failure is <code>null</code>.
+     * @throws MavenInvocationException If a request couldn't be executed. The other invocations still complete first.
+     */
+    public List<InvocationResult> execute( List<InvocationRequest> requests )
+        throws MavenInvocationException
+    {
+        List<Future<InvocationResult>> futures = submit( requests );
+
+        List<InvocationResult> results = new ArrayList<InvocationResult>( futures.size() );
+        // the first failure, of whatever type, is only thrown once all invocations completed
+        Throwable failure = null;
+        boolean interrupted = false;
+
+        for ( Future<InvocationResult> future : futures )
+        {
+            InvocationResult result = null;
+            while ( true )
+            {
+                try
+                {
+                    result = future.get();
+                    break;
+                }
+                catch ( InterruptedException e )
+                {
+                    interrupted = true;
+                }
+                catch ( CancellationException e )
+                {
+                    break;
+                }
+                catch ( ExecutionException e )
+                {
+                    if ( failure == null )
+                    {
+                        failure = e.getCause();
+                    }
+                    break;
+                }
+            }
+            results.add( result );
+        }
+
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+        if ( failure != null )
+        {
+            throw toMavenInvocationException( failure );
+        }
+
+        return results;
+    }
+
+    /**
+     * Gets the key of the recorded duration of an invocation.
+     *
+     * @param request The invocation request.
+     * @return The absolute path of the base directory or POM file of the request, or <code>null</code> if it has none.
+     */
+    protected String getDurationKey( InvocationRequest request )
+    {
+        File file = request.getBaseDirectory();
+        if ( file == null )
+        {
+            file = request.getPomFile();
+        }
+        return ( file != null ) ? file.getAbsolutePath() : null;
+    }
+
+    private Long getDuration( InvocationRequest request )
+    {
+        String key = getDurationKey( request );
+        return ( key != null ) ? durations.get( key ) : null;
+    }
+
+    /**
+     * Wraps the failure of an invocation, unless it is unchecked, which gets rethrown as is.
+     */
+    private static MavenInvocationException toMavenInvocationException( Throwable cause )
+    {
+        if ( cause instanceof MavenInvocationException )
+        {
+            return (MavenInvocationException) cause;
+        }
+        if ( cause instanceof RuntimeException )
+        {
+            throw (RuntimeException) cause;
+        }
+        if ( cause instanceof Error )
+        {
+            throw (Error) cause;
+        }
+        return new MavenInvocationException( "Error executing Maven invocation. Reason: " + cause.getMessage(), cause );
+    }
+
+    private final class Invocation
+        implements Callable<InvocationResult>
+    {
+        private final InvocationRequest request;
+
+        private final Batch batch;
+
+        private final int index;
+
+        Invocation( InvocationRequest request, Batch batch, int index )
+        {
+            this.request = request;
+            this.batch = batch;
+            this.index = index;
+        }
+
+        public InvocationResult call()
+            throws MavenInvocationException
+        {
+            if ( !batch.start( index ) )
+            {
+                // the future has been cancelled, its result is ignored
+                return null;
+            }
+
+            long start = System.currentTimeMillis();
+            boolean failed = true;
+            try
+            {
+                InvocationResult result = invoker.execute( request );
+                failed = result.getExecutionException() != null || result.getExitCode() != 0;
+                return result;
+            }
+            finally
+            {
+                String key = getDurationKey( request );
+                if ( key != null )
+                {
+                    durations.put( key, Long.valueOf( System.currentTimeMillis() - start ) );
+                }
+                if ( failed && failFast )
+                {
+                    batch.cancelPending();
+                }
+            }
+        }
+    }
+
+    /**
+     * The futures of the invocations submitted together, whose pending invocations are cancelled together.
+     */
+    private static final class Batch
+    {
+        private final List<Future<InvocationResult>> futures;
+
+        private final boolean[] started;
+
+        private boolean cancelled;
+
+        Batch( int size )
+        {
+            futures = new ArrayList<Future<InvocationResult>>( size );
+            for ( int i = 0; i < size; i++ )
+            {
+                futures.add( null );
+            }
+            started = new boolean[size];
+        }
+
+        synchronized void set( int index, Future<InvocationResult> future )
+        {
+            futures.set( index, future );
+            if ( cancelled && !started[index] )
+            {
+                future.cancel( false );
+            }
+        }
+
+        /**
+         * Marks an invocation as started, unless the batch has been cancelled before.
+         *
+         * @return <code>true</code> if the invocation may run, <code>false</code> if its future got cancelled.
+         */
+        synchronized boolean start( int index )
+        {
+            if ( cancelled )
+            {
+                return false;
+            }
+            started[index] = true;
+            return true;
+        }
+
+        synchronized void cancelPending()
+        {
+            cancelled = true;
+            for ( int i = 0; i < futures.size(); i++ )
+            {
+                Future<InvocationResult> future = futures.get( i );
+                // the started invocations keep running and must keep their results
+                if ( future != null && !started[i] )
+                {
+                    future.cancel( false );
+                }
+            }
+        }
+
+        synchronized List<Future<InvocationResult>> getFutures()
+        {
+            return Collections.unmodifiableList( new ArrayList<Future<InvocationResult>>( futures ) );
+        }
+    }
+
+    private static final class InvokerThreadFactory
+        implements ThreadFactory
+    {
+        private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+        private final int poolNumber = POOL_NUMBER.incrementAndGet();
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        public Thread newThread( Runnable r )
+        {
+            Thread thread = new Thread( r, "maven-invoker-" + poolNumber + "-" + threadNumber.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        }
+    }
+
+}
@@ -0,0 +1,288 @@
+package org.apache.maven.shared.invoker;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Properties;
+
+/**
+ * The main class of the JVMs of a {@link MavenWorkerPool}. It boots Maven 3.x from its installation directory once and
+ * then runs the builds it receives on its standard input, one after the other, until its standard input is closed.
+ * <p>
+ * Each build is received as the working directory, the number of arguments and the arguments, written with
+ * {@link java.io.DataOutputStream#writeUTF(String)} and {@link java.io.DataOutputStream#writeInt(int)}. The standard
+ * output of the worker carries one line per line of output of the build, starting with {@link #OUTPUT} or
+ * {@link #ERROR}, and ends each build with a line starting with {@link #EXIT} followed by the exit code.
+ * <p>
+ * This class only uses the JRE, as its class path is limited to the Maven boot class path and the invoker itself.
+ *
+ * @since 2.1.2
+ */
+public final class MavenWorker
+{
+
+    static final char OUTPUT = 'O';
+
+    static final char ERROR = 'E';
+
+    static final char EXIT = 'X';
+
+    private MavenWorker()
+    {
+        // main class
+    }
+
+    public static void main( String[] args )
+        throws Exception
+    {
+        if ( args.length != 1 )
+        {
+            System.err.println( "Usage: " + MavenWorker.class.getName() + " <maven home>" );
+            System.exit( 1 );
+        }
+
+        String mavenHome = args[0];
+
+        PrintStream protocol = new PrintStream( new FileOutputStream( FileDescriptor.out ), false );
+        LinePrefixingStream out = new LinePrefixingStream( protocol, OUTPUT );
+        LinePrefixingStream err = new LinePrefixingStream( protocol, ERROR );
+        PrintStream outStream = new PrintStream( out, true );
+        PrintStream errStream = new PrintStream( err, true );
+
+        // anything written to the standard streams belongs to the running build
+        System.setOut( outStream );
+        System.setErr( errStream );
+
+        Object mavenCli;
+        Method doMain;
+        try
+        {
+            Class<?> launcherClass = Class.forName( "org.codehaus.plexus.classworlds.launcher.Launcher" );
+
+            Object launcher = launcherClass.newInstance();
+
+            Method configure = launcherClass.getMethod( "configure", new Class[] { InputStream.class } );
+
+            InputStream config = new FileInputStream( new File( mavenHome, "bin/m2.conf" ) );
+            try
+            {
+                configure.invoke( launcher, new Object[] { config } );
+            }
+            finally
+            {
+                config.close();
+            }
+
+            Object classWorld = launcherClass.getMethod( "getWorld" ).invoke( launcher );
+
+            Class<?> cliClass = (Class<?>) launcherClass.getMethod( "getMainClass" ).invoke( launcher );
+
+            Constructor<?> newMavenCli = cliClass.getConstructor( new Class[] { classWorld.getClass() } );
+            mavenCli = newMavenCli.newInstance( new Object[] { classWorld } );
+
+            Class<?>[] parameterTypes = { String[].class, String.class, PrintStream.class, PrintStream.class };
+            doMain = cliClass.getMethod( "doMain", parameterTypes );
+        }
+        catch ( Exception e )
+        {
+            // the standard error of the JVM is reported by the pool
+            e.printStackTrace( new PrintStream( new FileOutputStream( FileDescriptor.err ), true ) );
+            System.exit( 1 );
+            return;
+        }
+
+        // the system properties of each build start from those set up while booting, e.g. maven.conf
+        Properties bootProperties = new Properties();
+        bootProperties.putAll( System.getProperties() );
+
+        DataInputStream requests = new DataInputStream( new BufferedInputStream( System.in ) );
+
+        while ( true )
+        {
+            String workingDirectory;
+            String[] cliArgs;
+            try
+            {
+                workingDirectory = requests.readUTF();
+                cliArgs = new String[requests.readInt()];
+                for ( int i = 0; i < cliArgs.length; i++ )
+                {
+                    cliArgs[i] = requests.readUTF();
+                }
+            }
+            catch ( EOFException e )
+            {
+                break;
+            }
+
+            int exitCode = run( mavenCli, doMain, bootProperties, workingDirectory, cliArgs, outStream, errStream );
+
+            outStream.flush();
+            errStream.flush();
+            out.flushLine();
+            err.flushLine();
+
+            synchronized ( protocol )
+            {
+                protocol.print( EXIT );
+                protocol.print( exitCode );
+                protocol.print( '\n' );
+                protocol.flush();
+            }
+        }
+
+        // builds may leave non-daemon threads behind
+        System.exit( 0 );
+    }
+
+    private static int run( Object mavenCli, Method doMain, Properties bootProperties, String workingDirectory,
+                            String[] cliArgs, PrintStream out, PrintStream err )
+    {
+        Properties properties = new Properties();
+        properties.putAll( bootProperties );
+        System.setProperties( properties );
+        System.setProperty( "user.dir", new File( workingDirectory ).getAbsolutePath() );
+        System.setProperty( "maven.multiModuleProjectDirectory", getMultiModuleProjectDirectory( workingDirectory ) );
+
+        ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader( mavenCli.getClass().getClassLoader() );
+        try
+        {
+            Object result = doMain.invoke( mavenCli, new Object[] { cliArgs, workingDirectory, out, err } );
+
+            return ( (Number) result ).intValue();
+        }
+        catch ( IllegalAccessException e )
+        {
+            e.printStackTrace( err );
+            return 1;
+        }
+        catch ( InvocationTargetException e )
+        {
+            e.getTargetException().printStackTrace( err );
+            return 1;
+        }
+        finally
+        {
+            Thread.currentThread().setContextClassLoader( originalClassLoader );
+        }
+    }
+
+    /**
+     * Locates the project directory like the <code>mvn</code> script does, i.e. the nearest directory containing a
+     * <code>.mvn</code> directory, defaulting to the working directory.
+     */
+    private static String getMultiModuleProjectDirectory( String workingDirectory )
+    {
+        File directory = new File( workingDirectory ).getAbsoluteFile();
+        for ( File dir = directory; dir != null; dir = dir.getParentFile() )
+        {
+            if ( new File( dir, ".mvn" ).isDirectory() )
+            {
+                return dir.getPath();
+            }
+        }
+        return directory.getPath();
+    }
+
+    /**
+     * Writes each line to the protocol stream, starting with a prefix character. Carriage returns are dropped, so a
+     * line can't be split by the reader of the protocol.
+     */
+    static final class LinePrefixingStream
+        extends OutputStream
+    {
+        private final PrintStream protocol;
+
+        private final char prefix;
+
+        private byte[] line = new byte[256];
+
+        private int length;
+
+        LinePrefixingStream( PrintStream protocol, char prefix )
+        {
+            this.protocol = protocol;
+            this.prefix = prefix;
+        }
+
+        public synchronized void write( int b )
+        {
+            if ( b == '\n' )
+            {
+                writeLine();
+            }
+            else if ( b != '\r' )
+            {
+                if ( length == line.length )
+                {
+                    byte[] bigger = new byte[line.length * 2];
+                    System.arraycopy( line, 0, bigger, 0, length );
+                    line = bigger;
+                }
+                line[length++] = (byte) b;
+            }
+        }
+
+        public synchronized void write( byte[] b, int off, int len )
+        {
+            for ( int i = off; i < off + len; i++ )
+            {
+                write( b[i] );
+            }
+        }
+
+        /**
+         * Writes the incomplete last line of a build, if any.
+         */
+        synchronized void flushLine()
+        {
+            if ( length > 0 )
+            {
+                writeLine();
+            }
+        }
+
+        private void writeLine()
+        {
+            synchronized ( protocol )
+            {
+                protocol.print( prefix );
+                protocol.write( line, 0, length );
+                protocol.print( '\n' );
+                protocol.flush();
+            }
+            length = 0;
+        }
+    }
+
+}
@@ -0,0 +1,473 @@
+package org.apache.maven.shared.invoker;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import org.codehaus.plexus.util.cli.CommandLineException;
+
+/**
+ * A pool of warm Maven JVMs, which run one build after the other instead of starting a new JVM for each build. This
+ * saves the JVM startup and the Maven boot time of each build, which dominate short builds like the ones of integration
+ * tests. A worker JVM is replaced by a fresh one after a number of builds, to get rid of the state leaked by the
+ * builds, and whenever it terminated unexpectedly, e.g. because a build called <code>System.exit()</code>.
+ * <p>
+ * The builds of a worker share its JVM, so they can't have their own environment variables, Java home or
+ * <code>MAVEN_OPTS</code>. The {@link DefaultInvoker} falls back to forking Maven for such requests and for
+ * interactive ones. Only Maven 3.x installations are supported.
+ * <p>
+ * The pool is safe for use by several threads, e.g. by the invoker of an {@link InvocationScheduler}. It must be
+ * {@link #close() closed} to stop the idle workers.
+ *
+ * @since 2.1.2
+ */
+public class MavenWorkerPool
+{
+
+    private final File mavenHome;
+
+    private final int maxWorkers;
+
+    private final Semaphore permits;
+
+    private final LinkedList<Worker> idleWorkers = new LinkedList<Worker>();
+
+    private boolean closed;
+
+    private int buildsPerWorker = 50;
+
+    private File javaExecutable = new File( System.getProperty( "java.home" ), "bin/java" );
+
+    private List<String> jvmArguments = Collections.emptyList();
+
+    /**
+     * Creates a pool of workers running the given Maven installation.
+     *
+     * @param mavenHome The home directory of the Maven 3.x installation, must not be <code>null</code>.
+     * @param maxWorkers The maximum number of worker JVMs, i.e. of builds running at the same time, must be positive.
+     */
+    public MavenWorkerPool( File mavenHome, int maxWorkers )
+    {
+        if ( mavenHome == null )
+        {
+            throw new IllegalArgumentException( "Maven home missing" );
+        }
+        if ( maxWorkers < 1 )
+        {
+            throw new IllegalArgumentException( "maxWorkers must be positive: " + maxWorkers );
+        }
+        this.mavenHome = mavenHome.getAbsoluteFile();
+        this.maxWorkers = maxWorkers;
+        this.permits = new Semaphore( maxWorkers, true );
+    }
+
+    /**
+     * Gets the home directory of the Maven installation run by the workers.
+     *
+     * @return The Maven home directory, never <code>null</code>.
+     */
+    public File getMavenHome()
+    {
+        return mavenHome;
+    }
+
+    /**
+     * Gets the maximum number of worker JVMs.
+     *
+     * @return The maximum number of workers.
+     */
+    public int getMaxWorkers()
+    {
+        return maxWorkers;
+    }
+
+    /**
+     * Gets the number of builds after which a worker is replaced by a fresh one.
+     *
+     * @return The number of builds per worker.
+     */
+    public int getBuildsPerWorker()
+    {
+        return buildsPerWorker;
+    }
+
+    /**
+     * Sets the number of builds after which a worker is replaced by a fresh one. Defaults to 50.
+     *
+     * @param buildsPerWorker The number of builds per worker, must be positive.
+     * @return This pool instance.
+     */
+    public MavenWorkerPool setBuildsPerWorker( int buildsPerWorker )
+    {
+        if ( buildsPerWorker < 1 )
+        {
+            throw new IllegalArgumentException( "buildsPerWorker must be positive: " + buildsPerWorker );
+        }
+        this.buildsPerWorker = buildsPerWorker;
+        return this;
+    }
+
+    /**
+     * Gets the Java executable launching the workers.
+     *
+     * @return The Java executable, never <code>null</code>.
+     */
+    public File getJavaExecutable()
+    {
+        return javaExecutable;
+    }
+
+    /**
+     * Sets the Java executable launching the workers. Defaults to the Java executable of the current JVM.
+     *
+     * @param javaExecutable The Java executable, may be <code>null</code> to use the default.
+     * @return This pool instance.
+     */
+    public MavenWorkerPool setJavaExecutable( File javaExecutable )
+    {
+        this.javaExecutable =
+            ( javaExecutable != null ) ? javaExecutable : new File( System.getProperty( "java.home" ), "bin/java" );
+        return this;
+    }
+
+    /**
+     * Gets the arguments of the worker JVMs.
+     *
+     * @return The JVM arguments, never <code>null</code>.
+     */
+    public List<String> getJvmArguments()
+    {
+        return jvmArguments;
+    }
+
+    /**
+     * Sets the arguments of the worker JVMs, i.e. the equivalent of <code>MAVEN_OPTS</code> for the builds run by the
+     * pool. They apply to the workers started afterwards.
+     *
+     * @param jvmArguments The JVM arguments, e.g. <code>-Xmx512m</code>, may be <code>null</code>.
+     * @return This pool instance.
+     */
+    public MavenWorkerPool setJvmArguments( List<String> jvmArguments )
+    {
+        this.jvmArguments =
+            ( jvmArguments != null ) ? Collections.unmodifiableList( new ArrayList<String>( jvmArguments ) )
+                            : Collections.<String> emptyList();
+        return this;
+    }
+
+    /**
+     * Runs a Maven build in a worker, waiting for a worker to become available if all of them are busy.
+     *
+     * @param workingDirectory The working directory of the build, must not be <code>null</code>.
+     * @param arguments The command line arguments of Maven, must not be <code>null</code>.
+     * @param outputHandler The handler of the standard output of the build, may be <code>null</code>.
+     * @param errorHandler The handler of the standard error of the build, may be <code>null</code>.
+     * @return The exit code of the build.
+     * @throws CommandLineException If the worker couldn't be started or terminated during the build.
+     */
+    public int execute( File workingDirectory, String[] arguments, InvocationOutputHandler outputHandler,
+                        InvocationOutputHandler errorHandler )
+        throws CommandLineException
+    {
+        try
+        {
+            permits.acquire();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new CommandLineException( "Interrupted while waiting for a Maven worker", e );
+        }
+        try
+        {
+            Worker worker = takeIdleWorker();
+            if ( worker == null )
+            {
+                worker = startWorker();
+            }
+
+            int exitCode;
+            boolean completed = false;
+            try
+            {
+                exitCode = worker.execute( workingDirectory.getAbsolutePath(), arguments, outputHandler, errorHandler );
+                completed = true;
+            }
+            catch ( IOException e )
+            {
+                throw new CommandLineException( "Error while executing Maven build in worker. Reason: "
+                    + e.getMessage(), e );
+            }
+            finally
+            {
+                if ( !completed )
+                {
+                    // the worker is stuck in the middle of the build, e.g. after a failing output handler
+                    worker.destroy();
+                }
+            }
+
+            if ( !releaseWorker( worker ) )
+            {
+                worker.close();
+            }
+
+            return exitCode;
+        }
+        finally
+        {
+            permits.release();
+        }
+    }
+
+    /**
+     * Stops the idle workers. The workers running a build stop once the build completed.
+     */
+    public void close()
+    {
+        List<Worker> workers;
+        synchronized ( idleWorkers )
+        {
+            closed = true;
+            workers = new ArrayList<Worker>( idleWorkers );
+            idleWorkers.clear();
+        }
+        for ( Worker worker : workers )
+        {
+            worker.close();
+        }
+    }
+
+    private Worker takeIdleWorker()
+        throws CommandLineException
+    {
+        synchronized ( idleWorkers )
+        {
+            if ( closed )
+            {
+                throw new CommandLineException( "The Maven worker pool has been closed" );
+            }
+            return idleWorkers.isEmpty() ? null : idleWorkers.removeFirst();
+        }
+    }
+
+    private boolean releaseWorker( Worker worker )
+    {
+        synchronized ( idleWorkers )
+        {
+            if ( closed || worker.builds >= buildsPerWorker )
+            {
+                return false;
+            }
+            // the most recently used worker is the warmest
+            idleWorkers.addFirst( worker );
+            return true;
+        }
+    }
+
+    private Worker startWorker()
+        throws CommandLineException
+    {
+        List<String> command = new ArrayList<String>();
+        command.add( javaExecutable.getPath() );
+        command.addAll( jvmArguments );
+        command.add( "-Dmaven.home=" + mavenHome.getPath() );
+        command.add( "-cp" );
+        command.add( getClassPath() );
+        command.add( MavenWorker.class.getName() );
+        command.add( mavenHome.getPath() );
+
+        try
+        {
+            return new Worker( new ProcessBuilder( command ).start() );
+        }
+        catch ( IOException e )
+        {
+            throw new CommandLineException( "Error while starting Maven worker. Reason: " + e.getMessage(), e );
+        }
+    }
+
+    private String getClassPath()
+        throws CommandLineException
+    {
+        StringBuilder classPath = new StringBuilder();
+
+        try
+        {
+            File invoker = new File( MavenWorker.class.getProtectionDomain().getCodeSource().getLocation().toURI() );
+            classPath.append( invoker.getPath() );
+        }
+        catch ( URISyntaxException e )
+        {
+            throw new CommandLineException( "Error locating the Maven invoker classes. Reason: " + e.getMessage(), e );
+        }
+
+        File[] bootJars = new File( mavenHome, "boot" ).listFiles();
+        if ( bootJars == null )
+        {
+            throw new CommandLineException( "Maven boot directory missing in " + mavenHome );
+        }
+        for ( File bootJar : bootJars )
+        {
+            if ( bootJar.getName().endsWith( ".jar" ) )
+            {
+                classPath.append( File.pathSeparatorChar ).append( bootJar.getPath() );
+            }
+        }
+
+        return classPath.toString();
+    }
+
+    /**
+     * A worker JVM, talking with a {@link MavenWorker} over its standard streams.
+     */
+    private static final class Worker
+    {
+        private final Process process;
+
+        private final DataOutputStream requests;
+
+        private final BufferedReader responses;
+
+        private volatile InvocationOutputHandler errorHandler;
+
+        int builds;
+
+        Worker( Process process )
+        {
+            this.process = process;
+            this.requests = new DataOutputStream( new BufferedOutputStream( process.getOutputStream() ) );
+            this.responses = new BufferedReader( new InputStreamReader( process.getInputStream() ) );
+
+            // the worker itself only writes to its standard error if it couldn't boot Maven
+            Thread errorPump = new Thread( "maven-worker-stderr" )
+            {
+                public void run()
+                {
+                    pumpErrors();
+                }
+            };
+            errorPump.setDaemon( true );
+            errorPump.start();
+        }
+
+        int execute( String workingDirectory, String[] arguments, InvocationOutputHandler outputHandler,
+                     InvocationOutputHandler errorHandler )
+            throws IOException
+        {
+            this.errorHandler = errorHandler;
+            builds++;
+
+            requests.writeUTF( workingDirectory );
+            requests.writeInt( arguments.length );
+            for ( String argument : arguments )
+            {
+                requests.writeUTF( argument );
+            }
+            requests.flush();
+
+            for ( String line = responses.readLine(); line != null; line = responses.readLine() )
+            {
+                if ( line.length() <= 0 )
+                {
+                    continue;
+                }
+                char type = line.charAt( 0 );
+                if ( type == MavenWorker.OUTPUT )
+                {
+                    consumeLine( outputHandler, line.substring( 1 ) );
+                }
+                else if ( type == MavenWorker.ERROR )
+                {
+                    consumeLine( errorHandler, line.substring( 1 ) );
+                }
+                else if ( type == MavenWorker.EXIT )
+                {
+                    try
+                    {
+                        return Integer.parseInt( line.substring( 1 ) );
+                    }
+                    catch ( NumberFormatException e )
+                    {
+                        throw new IOException( "Invalid exit code from Maven worker: " + line );
+                    }
+                }
+            }
+
+            throw new IOException( "Maven worker terminated unexpectedly" );
+        }
+
+        private void pumpErrors()
+        {
+            BufferedReader errors = new BufferedReader( new InputStreamReader( process.getErrorStream() ) );
+            try
+            {
+                for ( String line = errors.readLine(); line != null; line = errors.readLine() )
+                {
+                    consumeLine( errorHandler, line );
+                }
+            }
+            catch ( IOException e )
+            {
+                // the worker is gone
+            }
+        }
+
+        private static void consumeLine( InvocationOutputHandler handler, String line )
+        {
+            if ( handler != null )
+            {
+                handler.consumeLine( line );
+            }
+        }
+
+        /**
+         * Lets the worker terminate once it read all requests.
+         */
+        void close()
+        {
+            try
+            {
+                requests.close();
+            }
+            catch ( IOException e )
+            {
+                destroy();
+            }
+        }
+
+        void destroy()
+        {
+            process.destroy();
+        }
+    }
+
+}
@@ -0,0 +1,236 @@
+package org.apache.maven.shared.invoker;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+public class InvocationSchedulerTest
+    extends TestCase
+{
+
+    public void testResultsShouldBeInRequestOrder()
+        throws Exception
+    {
+        StubInvoker invoker = new StubInvoker();
+        InvocationScheduler scheduler = new InvocationScheduler( invoker, 3 );
+
+        List<InvocationResult> results = scheduler.execute( newRequests( "a", "b", "c", "d", "e", "f" ) );
+
+        assertEquals( 6, results.size() );
+        for ( int i = 0; i < results.size(); i++ )
+        {
+            assertSame( invoker.results.get( String.valueOf( (char) ( 'a' + i ) ) ), results.get( i ) );
+        }
+        assertEquals( 6, invoker.started.size() );
+        assertTrue( "too many concurrent invocations: " + invoker.maxRunning, invoker.maxRunning <= 3 );
+    }
+
+    public void testLongestExpectedInvocationShouldStartFirst()
+        throws Exception
+    {
+        StubInvoker invoker = new StubInvoker();
+        InvocationScheduler scheduler = new InvocationScheduler( invoker, 1 );
+
+        Map<String, Long> durations = new HashMap<String, Long>();
+        durations.put( new File( "a" ).getAbsolutePath(), Long.valueOf( 10 ) );
+        durations.put( new File( "b" ).getAbsolutePath(), Long.valueOf( 30 ) );
+        durations.put( new File( "c" ).getAbsolutePath(), Long.valueOf( 20 ) );
+        scheduler.setDurations( durations );
+
+        scheduler.execute( newRequests( "a", "b", "c", "new1", "new2" ) );
+
+        assertEquals( Arrays.asList( "new1", "new2", "b", "c", "a" ), invoker.started );
+        assertEquals( 5, scheduler.getDurations().size() );
+    }
+
+    public void testFailFastShouldCancelRemainingInvocations()
+        throws Exception
+    {
+        StubInvoker invoker = new StubInvoker();
+        invoker.failing = "b";
+        InvocationScheduler scheduler = new InvocationScheduler( invoker, 1 ).setFailFast( true );
+
+        List<InvocationResult> results = scheduler.execute( newRequests( "a", "b", "c", "d" ) );
+
+        assertEquals( Arrays.asList( "a", "b" ), invoker.started );
+        assertEquals( 0, results.get( 0 ).getExitCode() );
+        assertEquals( 1, results.get( 1 ).getExitCode() );
+        assertNull( results.get( 2 ) );
+        assertNull( results.get( 3 ) );
+    }
+
+    public void testFailFastShouldNotCancelRunningInvocations()
+        throws Exception
+    {
+        StubInvoker invoker = new StubInvoker();
+        invoker.failing = "a";
+        invoker.slow = "b";
+        InvocationScheduler scheduler = new InvocationScheduler( invoker, 2 ).setFailFast( true );
+
+        List<InvocationResult> results = scheduler.execute( newRequests( "a", "b", "c", "d" ) );
+
+        assertEquals( 2, invoker.started.size() );
+        assertTrue( invoker.started.containsAll( Arrays.asList( "a", "b" ) ) );
+        assertEquals( 1, results.get( 0 ).getExitCode() );
+        // b was running when a failed, so it completes with its own result
+        assertNotNull( results.get( 1 ) );
+        assertSame( invoker.results.get( "b" ), results.get( 1 ) );
+        assertNull( results.get( 2 ) );
+        assertNull( results.get( 3 ) );
+    }
+
+    public void testFailuresShouldNotCancelByDefault()
+        throws Exception
+    {
+        StubInvoker invoker = new StubInvoker();
+        invoker.failing = "b";
+        InvocationScheduler scheduler = new InvocationScheduler( invoker, 1 );
+
+        List<InvocationResult> results = scheduler.execute( newRequests( "a", "b", "c" ) );
+
+        assertEquals( 3, invoker.started.size() );
+        assertEquals( 0, results.get( 2 ).getExitCode() );
+    }
+
+    public void testInvocationExceptionShouldBeThrownAfterAllInvocations()
+        throws Exception
+    {
+        StubInvoker invoker = new StubInvoker();
+        invoker.throwing = "a";
+        InvocationScheduler scheduler = new InvocationScheduler( invoker, 2 );
+
+        List<Future<InvocationResult>> futures = scheduler.submit( newRequests( "a", "b" ) );
+        assertEquals( 2, futures.size() );
+        assertEquals( 0, futures.get( 1 ).get().getExitCode() );
+
+        try
+        {
+            scheduler.execute( newRequests( "a", "b" ) );
+            fail( "invocation exception not thrown" );
+        }
+        catch ( MavenInvocationException e )
+        {
+            assertEquals( "a", e.getMessage() );
+        }
+    }
+
+    public void testUncheckedExceptionShouldBeThrownAfterAllInvocations()
+        throws Exception
+    {
+        StubInvoker invoker = new StubInvoker();
+        invoker.throwingUnchecked = "a";
+        invoker.slow = "b";
+        InvocationScheduler scheduler = new InvocationScheduler( invoker, 2 );
+
+        try
+        {
+            scheduler.execute( newRequests( "a", "b" ) );
+            fail( "unchecked exception not thrown" );
+        }
+        catch ( IllegalStateException e )
+        {
+            assertEquals( "a", e.getMessage() );
+        }
+        assertNotNull( invoker.results.get( "b" ) );
+    }
+
+    private List<InvocationRequest> newRequests( String... baseDirectories )
+    {
+        List<InvocationRequest> requests = new ArrayList<InvocationRequest>();
+        for ( String baseDirectory : baseDirectories )
+        {
+            requests.add( new DefaultInvocationRequest().setBaseDirectory( new File( baseDirectory ) ) );
+        }
+        return requests;
+    }
+
+    private static class StubInvoker
+        extends DefaultInvoker
+    {
+        final List<String> started = Collections.synchronizedList( new ArrayList<String>() );
+
+        final Map<String, InvocationResult> results =
+            Collections.synchronizedMap( new HashMap<String, InvocationResult>() );
+
+        String failing;
+
+        String throwing;
+
+        String throwingUnchecked;
+
+        String slow;
+
+        int running;
+
+        int maxRunning;
+
+        public InvocationResult execute( InvocationRequest request )
+            throws MavenInvocationException
+        {
+            String name = request.getBaseDirectory().getName();
+            int exitCode;
+            synchronized ( this )
+            {
+                started.add( name );
+                exitCode = name.equals( failing ) ? 1 : 0;
+                running++;
+                maxRunning = Math.max( maxRunning, running );
+            }
+            try
+            {
+                if ( name.equals( throwing ) )
+                {
+                    throw new MavenInvocationException( name );
+                }
+                if ( name.equals( throwingUnchecked ) )
+                {
+                    throw new IllegalStateException( name );
+                }
+                Thread.sleep( name.equals( slow ) ? 300 : 20 );
+
+                DefaultInvocationResult result = new DefaultInvocationResult();
+                result.setExitCode( exitCode );
+                results.put( name, result );
+                return result;
+            }
+            catch ( InterruptedException e )
+            {
+                throw new MavenInvocationException( "interrupted", e );
+            }
+            finally
+            {
+                synchronized ( this )
+                {
+                    running--;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,187 @@
+package org.apache.maven.shared.invoker;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.codehaus.plexus.util.StringUtils;
+import org.codehaus.plexus.util.cli.CommandLineUtils;
+
+public class MavenWorkerPoolTest
+    extends TestCase
+{
+
+    private MavenWorkerPool pool;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        pool = new MavenWorkerPool( findMavenHome(), 1 );
+    }
+
+    protected void tearDown()
+        throws Exception
+    {
+        pool.close();
+
+        super.tearDown();
+    }
+
+    public void testWorkerShouldRunSeveralBuilds()
+        throws Exception
+    {
+        DefaultInvoker invoker = newInvoker();
+
+        LinesHandler output = new LinesHandler();
+        InvocationRequest request = newRequest( "test-build-should-succeed" ).setOutputHandler( output );
+        assertEquals( 0, invoker.execute( request ).getExitCode() );
+        assertTrue( output.lines.toString(), output.lines.contains( "[INFO] BUILD SUCCESS" ) );
+
+        output = new LinesHandler();
+        request = newRequest( "test-build-should-fail" ).setOutputHandler( output );
+        assertEquals( 1, invoker.execute( request ).getExitCode() );
+        assertTrue( output.lines.toString(), output.lines.contains( "[INFO] BUILD FAILURE" ) );
+
+        assertEquals( 0, invoker.execute( newRequest( "test-build-should-succeed" ) ).getExitCode() );
+    }
+
+    public void testWorkerShouldBeRecycled()
+        throws Exception
+    {
+        pool.setBuildsPerWorker( 1 );
+        DefaultInvoker invoker = newInvoker();
+
+        assertEquals( 0, invoker.execute( newRequest( "test-build-should-succeed" ) ).getExitCode() );
+        assertEquals( 0, invoker.execute( newRequest( "test-build-should-succeed" ) ).getExitCode() );
+    }
+
+    public void testWorkerShouldBeDestroyedIfTheOutputHandlerFails()
+        throws Exception
+    {
+        DefaultInvoker invoker = newInvoker();
+
+        final RuntimeException failure = new IllegalStateException( "failing handler" );
+        InvocationRequest request = newRequest( "test-build-should-succeed" ).setOutputHandler(
+            new InvocationOutputHandler()
+            {
+                public void consumeLine( String line )
+                {
+                    throw failure;
+                }
+            } );
+        try
+        {
+            invoker.execute( request );
+            fail( "the failure of the output handler should have been propagated" );
+        }
+        catch ( IllegalStateException e )
+        {
+            assertSame( failure, e );
+        }
+
+        // the next build gets a fresh worker
+        assertEquals( 0, invoker.execute( newRequest( "test-build-should-succeed" ) ).getExitCode() );
+    }
+
+    public void testClosedPoolShouldFail()
+        throws Exception
+    {
+        pool.close();
+
+        InvocationResult result = newInvoker().execute( newRequest( "test-build-should-succeed" ) );
+
+        assertNotNull( result.getExecutionException() );
+    }
+
+    private DefaultInvoker newInvoker()
+        throws Exception
+    {
+        DefaultInvoker invoker = new DefaultInvoker();
+        invoker.setMavenHome( findMavenHome() );
+        invoker.setLocalRepositoryDirectory( findLocalRepo() );
+        invoker.setWorkerPool( pool );
+        return invoker;
+    }
+
+    private InvocationRequest newRequest( String project )
+        throws Exception
+    {
+        URL dirResource = Thread.currentThread().getContextClassLoader().getResource( project );
+        File basedir = new File( new URI( dirResource.toString() ).getPath() );
+
+        InvocationRequest request = new DefaultInvocationRequest();
+        request.setBaseDirectory( basedir );
+        request.setGoals( Arrays.asList( "clean", "package" ) );
+        return request;
+    }
+
+    private File findMavenHome()
+        throws Exception
+    {
+        String mavenHome = System.getProperty( "maven.home" );
+
+        if ( mavenHome == null )
+        {
+            mavenHome = CommandLineUtils.getSystemEnvVars().getProperty( "M2_HOME" );
+        }
+
+        if ( mavenHome == null )
+        {
+            throw new IllegalStateException( "Cannot find Maven application "
+                + "directory. Either specify \'maven.home\' system property, or M2_HOME environment variable." );
+        }
+
+        return new File( mavenHome );
+    }
+
+    private File findLocalRepo()
+    {
+        String basedir = System.getProperty( "maven.repo.local", "" );
+
+        if ( StringUtils.isNotEmpty( basedir ) )
+        {
+            return new File( basedir );
+        }
+
+        return null;
+    }
+
+    private static class LinesHandler
+        implements InvocationOutputHandler
+    {
+        final List<String> lines = Collections.synchronizedList( new ArrayList<String>() );
+
+        public void consumeLine( String line )
+        {
+            lines.add( line );
+        }
+    }
+
+}
@@ -78,11 +78,18 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @author Jason van Zyl
@@ -132,6 +139,16 @@ public class DefaultRepositoryAssembler
      */
     protected MavenProjectBuilder projectBuilder;
 
+    /**
+     * The algorithms of the checksum files written next to every file of the assembled repository.
+     */
+    private String[] checksumAlgorithms = { "MD5", "SHA-1" };
+
+    /**
+     * The number of artifacts resolved and copied concurrently.
+     */
+    private int threads = 1;
+
     public DefaultRepositoryAssembler()
     {
         // used for plexus init.
@@ -222,8 +239,10 @@ public class DefaultRepositoryAssembler
 
         ArtifactFilter filter = buildRepositoryFilter( repository, project );
 
+        PomCache pomCache = new PomCache();
+
         assembleRepositoryArtifacts( result, filter, project, localRepository, targetRepository, repositoryDirectory,
-                                     groupVersionAlignments );
+                                     groupVersionAlignments, pomCache );
 
         ArtifactRepository centralRepository = findCentralRepository( project );
 
@@ -233,7 +252,7 @@ public class DefaultRepositoryAssembler
         }
 
         addPomWithAncestry( project.getArtifact(), project.getRemoteArtifactRepositories(), localRepository,
-                            targetRepository, groupVersionAlignments, project );
+                            targetRepository, groupVersionAlignments, project, pomCache );
     }
 
     private ArtifactFilter buildRepositoryFilter( RepositoryInfo repository, MavenProject project )
@@ -300,7 +319,7 @@ public class DefaultRepositoryAssembler
     private void assembleRepositoryArtifacts( ArtifactResolutionResult result, ArtifactFilter filter,
                                               MavenProject project, ArtifactRepository localRepository,
                                               ArtifactRepository targetRepository, File repositoryDirectory,
-                                              Map groupVersionAlignments )
+                                              Map groupVersionAlignments, PomCache pomCache )
         throws RepositoryAssemblyException
     {
         try
@@ -312,30 +331,29 @@ public class DefaultRepositoryAssembler
 
             FileUtils.mkdir( repositoryDirectory.getAbsolutePath() );
 
+            List artifacts = new ArrayList();
+
             for ( Iterator i = result.getArtifacts().iterator(); i.hasNext(); )
             {
                 Artifact a = (Artifact) i.next();
 
                 if ( filter.include( a ) )
                 {
-                    getLogger().debug( "Re-resolving: " + a + " for repository assembly." );
-
-                    setAlignment( a, groupVersionAlignments );
-
-                    // We need to flip it back to not being resolved so we can
-                    // look for it again!
-                    a.setResolved( false );
-
-                    artifactResolver.resolve( a, project.getRemoteArtifactRepositories(), localRepository );
-
-                    a.setVersion( a.getBaseVersion() );
-
-                    File targetFile = new File( targetRepository.getBasedir(), targetRepository.pathOf( a ) );
-                    FileUtils.copyFile( a.getFile(), targetFile );
-
-                    writeChecksums( targetFile );
+                    artifacts.add( a );
+                }
+            }
 
-                    addPomWithAncestry( a, project.getRemoteArtifactRepositories(), localRepository, targetRepository, groupVersionAlignments, project );
+            if ( threads > 1 )
+            {
+                assembleArtifactsInParallel( artifacts, project, localRepository, targetRepository,
+                                             groupVersionAlignments, pomCache );
+            }
+            else
+            {
+                for ( Iterator i = artifacts.iterator(); i.hasNext(); )
+                {
+                    assembleArtifact( (Artifact) i.next(), project, localRepository, targetRepository,
+                                      groupVersionAlignments, pomCache );
                 }
             }
         }
@@ -353,6 +371,112 @@ public class DefaultRepositoryAssembler
         }
     }
 
+    private void assembleArtifact( Artifact a, MavenProject project, ArtifactRepository localRepository,
+                                   ArtifactRepository targetRepository, Map groupVersionAlignments,
+                                   PomCache pomCache )
+        throws ArtifactResolutionException, ArtifactNotFoundException, IOException, RepositoryAssemblyException
+    {
+        getLogger().debug( "Re-resolving: " + a + " for repository assembly." );
+
+        setAlignment( a, groupVersionAlignments );
+
+        // We need to flip it back to not being resolved so we can
+        // look for it again!
+        a.setResolved( false );
+
+        artifactResolver.resolve( a, project.getRemoteArtifactRepositories(), localRepository );
+
+        a.setVersion( a.getBaseVersion() );
+
+        File targetFile = new File( targetRepository.getBasedir(), targetRepository.pathOf( a ) );
+
+        // a POM artifact may have been written, or be written by another thread, as the ancestor of another artifact
+        if ( !"pom".equals( a.getType() ) || pomCache.writtenPoms.add( targetFile ) )
+        {
+            copyWithChecksums( a.getFile(), targetFile );
+        }
+
+        addPomWithAncestry( a, project.getRemoteArtifactRepositories(), localRepository, targetRepository,
+                            groupVersionAlignments, project, pomCache );
+    }
+
+    /**
+     * Resolves and copies up to {@link #threads} artifacts concurrently. The first failure, in the order of the
+     * artifacts, is rethrown and stops the remaining artifacts.
+     */
+    private void assembleArtifactsInParallel( List artifacts, final MavenProject project,
+                                              final ArtifactRepository localRepository,
+                                              final ArtifactRepository targetRepository,
+                                              final Map groupVersionAlignments, final PomCache pomCache )
+        throws ArtifactResolutionException, ArtifactNotFoundException, IOException, RepositoryAssemblyException
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+
+        try
+        {
+            List futures = new ArrayList();
+
+            for ( Iterator i = artifacts.iterator(); i.hasNext(); )
+            {
+                final Artifact a = (Artifact) i.next();
+
+                futures.add( executor.submit( new Callable()
+                {
+                    public Object call()
+                        throws Exception
+                    {
+                        assembleArtifact( a, project, localRepository, targetRepository, groupVersionAlignments,
+                                          pomCache );
+                        return null;
+                    }
+                } ) );
+            }
+
+            for ( Iterator i = futures.iterator(); i.hasNext(); )
+            {
+                try
+                {
+                    ( (Future) i.next() ).get();
+                }
+                catch ( ExecutionException e )
+                {
+                    Throwable cause = e.getCause();
+
+                    if ( cause instanceof ArtifactResolutionException )
+                    {
+                        throw (ArtifactResolutionException) cause;
+                    }
+                    else if ( cause instanceof ArtifactNotFoundException )
+                    {
+                        throw (ArtifactNotFoundException) cause;
+                    }
+                    else if ( cause instanceof IOException )
+                    {
+                        throw (IOException) cause;
+                    }
+                    else if ( cause instanceof RepositoryAssemblyException )
+                    {
+                        throw (RepositoryAssemblyException) cause;
+                    }
+                    else if ( cause instanceof RuntimeException )
+                    {
+                        throw (RuntimeException) cause;
+                    }
+                    throw (Error) cause;
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                    throw new RepositoryAssemblyException( "Interrupted while assembling the repository.", e );
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
     /**
      *
      * @param pomFileOverride This is used to allow injection of a POM's file directly, for
@@ -360,7 +484,8 @@ public class DefaultRepositoryAssembler
      */
     private void addPomWithAncestry( final Artifact artifact, List remoteArtifactRepositories,
                                      ArtifactRepository localRepository, ArtifactRepository targetRepository,
-                                     Map groupVersionAlignments, MavenProject masterProject )
+                                     Map groupVersionAlignments, MavenProject masterProject,
+                                     PomCache pomCache )
         throws RepositoryAssemblyException
     {
         String type = artifact.getType();
@@ -385,8 +510,20 @@ public class DefaultRepositoryAssembler
 
                 Artifact pomArtifact = artifactFactory.createProjectArtifact( artifact.getGroupId(), artifact.getArtifactId(), artifact.getBaseVersion() );
 
-                getLogger().debug( "Building MavenProject instance for: " + pomArtifact + ". NOTE: This SHOULD BE available in the Artifact API! ...but it's not." );
-                p = projectBuilder.buildFromRepository( pomArtifact, remoteArtifactRepositories, localRepository );
+                // the project builder isn't thread safe, and artifacts sharing a POM, e.g. by their classifier,
+                // only need it built once
+                synchronized ( pomCache )
+                {
+                    p = (MavenProject) pomCache.projects.get( pomArtifact.getId() );
+
+                    if ( p == null )
+                    {
+                        getLogger().debug( "Building MavenProject instance for: " + pomArtifact + ". NOTE: This SHOULD BE available in the Artifact API! ...but it's not." );
+                        p = projectBuilder.buildFromRepository( pomArtifact, remoteArtifactRepositories, localRepository );
+
+                        pomCache.projects.put( pomArtifact.getId(), p );
+                    }
+                }
             }
             catch ( ProjectBuildingException e )
             {
@@ -427,22 +564,19 @@ public class DefaultRepositoryAssembler
 
             File targetFile = new File( targetRepository.getBasedir(), targetRepository.pathOf( destArtifact ) );
 
-            try
+            // a POM written before, or being written by another thread, had its ancestry written too
+            if ( !pomCache.writtenPoms.add( targetFile ) )
             {
-                FileUtils.copyFile( sourceFile, targetFile );
-            }
-            catch ( IOException e )
-            {
-                throw new RepositoryAssemblyException( "Error writing POM metdata: " + destArtifact.getId(), e );
+                break;
             }
 
             try
             {
-                writeChecksums( targetFile );
+                copyWithChecksums( sourceFile, targetFile );
             }
             catch ( IOException e )
             {
-                throw new RepositoryAssemblyException( "Error writing checksums for POM: " + destArtifact.getId(), e );
+                throw new RepositoryAssemblyException( "Error writing POM metdata: " + destArtifact.getId(), e );
             }
 
             p = p.getParent();
@@ -515,13 +649,11 @@ public class DefaultRepositoryAssembler
 
                     FileUtils.copyFile( metadataFile, metadataFileRemote );
 
-                    FileUtils.copyFile( new File( metadataFile.getParentFile(), metadataFile.getName() + ".sha1" ),
-                                        new File( metadataFileRemote.getParentFile(), metadataFileRemote.getName()
-                                            + ".sha1" ) );
-
-                    FileUtils.copyFile( new File( metadataFile.getParentFile(), metadataFile.getName() + ".md5" ),
-                                        new File( metadataFileRemote.getParentFile(), metadataFileRemote.getName()
-                                            + ".md5" ) );
+                    for ( int j = 0; j < checksumAlgorithms.length; j++ )
+                    {
+                        FileUtils.copyFile( getChecksumFile( metadataFile, checksumAlgorithms[j] ),
+                                            getChecksumFile( metadataFileRemote, checksumAlgorithms[j] ) );
+                    }
                 }
                 catch ( IOException e )
                 {
@@ -536,13 +668,23 @@ public class DefaultRepositoryAssembler
     {
         try
         {
-            String md5 = DigestUtils.createChecksum( file, "MD5" );
-            String sha1 = DigestUtils.createChecksum( file, "SHA-1" );
+            writeChecksumFiles( file, DigestUtils.createChecksums( file, checksumAlgorithms ) );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new RepositoryAssemblyException( "Unable to get write checksums: " + e.getMessage(), e );
+        }
+    }
 
-            FileUtils.fileWrite( new File( file.getParentFile(), file.getName() + ".md5" ).getAbsolutePath(), md5
-                .toLowerCase() );
-            FileUtils.fileWrite( new File( file.getParentFile(), file.getName() + ".sha1" ).getAbsolutePath(), sha1
-                .toLowerCase() );
+    /**
+     * Copies a file into the target repository and writes its checksums, computed while copying.
+     */
+    private void copyWithChecksums( File source, File target )
+        throws IOException, RepositoryAssemblyException
+    {
+        try
+        {
+            writeChecksumFiles( target, DigestUtils.copyWithChecksums( source, target, checksumAlgorithms ) );
         }
         catch ( NoSuchAlgorithmException e )
         {
@@ -550,6 +692,59 @@ public class DefaultRepositoryAssembler
         }
     }
 
+    private void writeChecksumFiles( File file, String[] checksums )
+        throws IOException
+    {
+        for ( int i = 0; i < checksums.length; i++ )
+        {
+            FileUtils.fileWrite( getChecksumFile( file, checksumAlgorithms[i] ).getAbsolutePath(),
+                                 checksums[i].toLowerCase() );
+        }
+    }
+
+    /**
+     * @return the checksum file next to the given file, e.g. <code>.sha1</code> for <code>SHA-1</code>
+     */
+    private static File getChecksumFile( File file, String algorithm )
+    {
+        String extension = algorithm.replaceAll( "-", "" ).toLowerCase( Locale.ENGLISH );
+
+        return new File( file.getParentFile(), file.getName() + "." + extension );
+    }
+
+    /**
+     * Set the number of artifacts resolved and copied concurrently. With more than one thread, the artifact resolver
+     * must be safe for concurrent use, as the resolvers of Maven 2.1 and later are. Building the projects of the POMs
+     * is serialized.
+     *
+     * @param threads the number of threads, <code>1</code> by default
+     */
+    public void setThreads( int threads )
+    {
+        this.threads = threads;
+    }
+
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Set the algorithms of the checksum files written next to every file of the assembled repository.
+     *
+     * @param checksumAlgorithms the digest algorithms, <code>MD5</code> and <code>SHA-1</code> by default. A
+     *            <code>SHA-256</code> checksum is written to a <code>.sha256</code> file.
+     */
+    public void setChecksumAlgorithms( String[] checksumAlgorithms )
+    {
+        this.checksumAlgorithms = checksumAlgorithms;
+    }
+
+    public String[] getChecksumAlgorithms()
+    {
+        return checksumAlgorithms;
+    }
+
     protected Map createGroupVersionAlignments( List versionAlignments )
     {
         Map groupVersionAlignments = new HashMap();
@@ -613,6 +808,12 @@ public class DefaultRepositoryAssembler
     private void invalidateProccessedProjectCache()
         throws Exception
     {
+        if ( !( projectBuilder instanceof DefaultMavenProjectBuilder ) )
+        {
+            // not the builder with the cache.
+            return;
+        }
+
         Class klass = DefaultMavenProjectBuilder.class;
 
         try
@@ -746,4 +947,20 @@ public class DefaultRepositoryAssembler
                                         + Arrays.asList( PREFERRED_RESOLVER_HINTS ) );
         }
     }
+
+    /**
+     * The POMs shared by the artifacts of one assembly.
+     */
+    private static final class PomCache
+    {
+        /**
+         * The projects built from the repository by the id of their POM artifact, guarded by the cache itself.
+         */
+        private final Map projects = new HashMap();
+
+        /**
+         * The POM files written to the target repository, both as artifacts and as ancestors of artifacts.
+         */
+        private final Set writtenPoms = Collections.synchronizedSet( new HashSet() );
+    }
 }
@@ -21,8 +21,10 @@ package org.apache.maven.shared.repository.utils;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.regex.Matcher;
@@ -42,6 +44,8 @@ public final class DigestUtils
 
     private static final int BYTE_MASK = 0xFF;
 
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
     private DigestUtils()
     {
     }
@@ -49,29 +53,92 @@ public final class DigestUtils
     public static String createChecksum( File file, String algorithm )
         throws IOException, NoSuchAlgorithmException
     {
-        MessageDigest digest = MessageDigest.getInstance( algorithm );
+        return createChecksums( file, new String[] { algorithm } )[0];
+    }
+
+    /**
+     * Create the checksums of a file for several algorithms, reading the file once.
+     *
+     * @param file       the file to create the checksums for
+     * @param algorithms the digest algorithms, e.g. <code>MD5</code>, <code>SHA-1</code> or <code>SHA-256</code>
+     * @return the upper case checksums, in the order of the algorithms
+     */
+    public static String[] createChecksums( File file, String[] algorithms )
+        throws IOException, NoSuchAlgorithmException
+    {
+        return copyWithChecksums( file, null, algorithms );
+    }
 
-        InputStream fis = new FileInputStream( file );
+    /**
+     * Copy a file and create its checksums for several algorithms from the same read of the file. Like
+     * <code>FileUtils.copyFile</code>, the parent directories of the target are created and copying a file onto itself
+     * does nothing but creating the checksums.
+     *
+     * @param source     the file to copy
+     * @param target     the file to copy to, <code>null</code> to only create the checksums
+     * @param algorithms the digest algorithms, e.g. <code>MD5</code>, <code>SHA-1</code> or <code>SHA-256</code>
+     * @return the upper case checksums of the file, in the order of the algorithms
+     */
+    public static String[] copyWithChecksums( File source, File target, String[] algorithms )
+        throws IOException, NoSuchAlgorithmException
+    {
+        MessageDigest[] digests = new MessageDigest[algorithms.length];
+        for ( int i = 0; i < algorithms.length; i++ )
+        {
+            digests[i] = MessageDigest.getInstance( algorithms[i] );
+        }
+
+        if ( target != null && source.getCanonicalPath().equals( target.getCanonicalPath() ) )
+        {
+            target = null;
+        }
+
+        if ( target != null && target.getParentFile() != null )
+        {
+            target.getParentFile().mkdirs();
+        }
+
+        InputStream fis = new FileInputStream( source );
+        OutputStream fos = null;
         try
         {
+            if ( target != null )
+            {
+                fos = new FileOutputStream( target );
+            }
+
             byte[] buffer = new byte[CHECKSUM_BUFFER_SIZE];
             int numRead;
-            do
+            while ( ( numRead = fis.read( buffer ) ) != -1 )
             {
-                numRead = fis.read( buffer );
-                if ( numRead > 0 )
+                for ( int i = 0; i < digests.length; i++ )
+                {
+                    digests[i].update( buffer, 0, numRead );
+                }
+                if ( fos != null )
                 {
-                    digest.update( buffer, 0, numRead );
+                    fos.write( buffer, 0, numRead );
                 }
             }
-            while ( numRead != -1 );
+
+            if ( fos != null )
+            {
+                fos.close();
+                fos = null;
+            }
         }
         finally
         {
             IOUtil.close( fis );
+            IOUtil.close( fos );
         }
 
-        return byteArrayToHexStr( digest.digest() );
+        String[] checksums = new String[digests.length];
+        for ( int i = 0; i < digests.length; i++ )
+        {
+            checksums[i] = byteArrayToHexStr( digests[i].digest() );
+        }
+        return checksums;
     }
 
     public boolean verifyChecksum( File file, String checksum, String algorithm )
@@ -126,26 +193,18 @@ public final class DigestUtils
      */
     private static String byteArrayToHexStr( byte[] data )
     {
-        String output = "";
+        char[] output = new char[data.length * 2];
 
         for ( int cnt = 0; cnt < data.length; cnt++ )
         {
             //Deposit a byte into the 8 lsb of an int.
             int tempInt = data[cnt] & BYTE_MASK;
 
-            //Get hex representation of the int as a string.
-            String tempStr = Integer.toHexString( tempInt );
-
-            //Append a leading 0 if necessary so that each hex string will contain 2 characters.
-            if ( tempStr.length() == 1 )
-            {
-                tempStr = "0" + tempStr;
-            }
-
-            //Concatenate the two characters to the output string.
-            output = output + tempStr;
+            //Two characters per byte, the leading 0 included.
+            output[cnt * 2] = HEX_DIGITS[tempInt >> 4];
+            output[cnt * 2 + 1] = HEX_DIGITS[tempInt & 0x0F];
         }
 
-        return output.toUpperCase();
+        return new String( output );
     }
 }
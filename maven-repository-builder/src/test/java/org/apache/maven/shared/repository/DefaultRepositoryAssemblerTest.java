@@ -25,7 +25,12 @@ import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
 import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.artifact.repository.ArtifactRepositoryFactory;
 import org.apache.maven.artifact.repository.layout.ArtifactRepositoryLayout;
+import org.apache.maven.artifact.resolver.ArtifactNotFoundException;
+import org.apache.maven.artifact.resolver.ArtifactResolutionResult;
 import org.apache.maven.artifact.resolver.ArtifactResolver;
+import org.apache.maven.artifact.resolver.ResolutionNode;
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
+import org.apache.maven.model.Model;
 import org.apache.maven.model.Profile;
 import org.apache.maven.model.Repository;
 import org.apache.maven.model.RepositoryPolicy;
@@ -36,13 +41,22 @@ import org.apache.maven.project.MavenProjectBuilder;
 import org.apache.maven.project.ProjectBuildingException;
 import org.apache.maven.project.artifact.InvalidDependencyVersionException;
 import org.apache.maven.shared.repository.model.DefaultRepositoryInfo;
+import org.apache.maven.wagon.events.TransferListener;
+import org.apache.maven.shared.utils.io.FileUtils;
 import org.codehaus.plexus.PlexusTestCase;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.net.URLDecoder;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class DefaultRepositoryAssemblerTest
     extends PlexusTestCase
@@ -242,4 +256,402 @@ public class DefaultRepositoryAssemblerTest
 
         assertTrue( parentFile.exists() );
     }
+
+    public void testShouldWritePomArtifactsAndSharedAncestorsOnce()
+        throws Exception
+    {
+        StubRepository stub = new StubRepository( "pom-artifacts" );
+        Artifact parent = stub.addParentPom();
+        Artifact child1 = stub.addChild( "child1" );
+        Artifact child2 = stub.addChild( "child2" );
+
+        File repositoryDirectory = stub.assemble( new Artifact[] { parent, child1, child2 }, 1 );
+
+        // the POM artifact is written from the resolved file, not again by the ancestry of the children
+        assertEquals( "resolved parent", FileUtils.fileRead( new File( repositoryDirectory,
+                                                                       "stub/parent/1.0/parent-1.0.pom" ) ) );
+        assertTrue( new File( repositoryDirectory, "stub/parent/1.0/parent-1.0.pom.sha1" ).exists() );
+        assertTrue( new File( repositoryDirectory, "stub/grandparent/1.0/grandparent-1.0.pom" ).exists() );
+        assertTrue( new File( repositoryDirectory, "stub/child1/1.0/child1-1.0.jar" ).exists() );
+        assertTrue( new File( repositoryDirectory, "stub/child2/1.0/child2-1.0.pom" ).exists() );
+
+        assertEquals( 1, stub.projectBuilder.getBuilds( "stub:parent:pom:1.0" ) );
+        assertEquals( 1, stub.projectBuilder.getBuilds( "stub:child1:pom:1.0" ) );
+        assertEquals( 1, stub.projectBuilder.getBuilds( "stub:child2:pom:1.0" ) );
+
+        // the grandparent is only visited by the first ancestry walk to reach it
+        assertEquals( 1, stub.grandparentVisits );
+    }
+
+    public void testShouldAssembleArtifactsConcurrently()
+        throws Exception
+    {
+        StubRepository stub = new StubRepository( "concurrent" );
+        Artifact[] artifacts = new Artifact[4];
+        for ( int i = 0; i < artifacts.length; i++ )
+        {
+            artifacts[i] = stub.addChild( "child" + i );
+            stub.resolver.delays.put( artifacts[i].getArtifactId(), new Long( 200 ) );
+        }
+
+        File repositoryDirectory = stub.assemble( artifacts, 4 );
+
+        assertTrue( "max concurrent resolutions: " + stub.resolver.maxActive, stub.resolver.maxActive > 1 );
+
+        for ( int i = 0; i < artifacts.length; i++ )
+        {
+            String path = "stub/child" + i + "/1.0/child" + i + "-1.0";
+            assertTrue( path, new File( repositoryDirectory, path + ".jar" ).exists() );
+            assertTrue( path, new File( repositoryDirectory, path + ".pom" ).exists() );
+            assertEquals( 1, stub.projectBuilder.getBuilds( "stub:child" + i + ":pom:1.0" ) );
+        }
+        assertEquals( "parent project", FileUtils.fileRead( new File( repositoryDirectory,
+                                                                      "stub/parent/1.0/parent-1.0.pom" ) ) );
+        assertEquals( 1, stub.grandparentVisits );
+    }
+
+    public void testShouldRethrowTheFirstFailureInArtifactOrder()
+        throws Exception
+    {
+        StubRepository stub = new StubRepository( "failures" );
+        Artifact[] artifacts = new Artifact[4];
+        for ( int i = 0; i < artifacts.length; i++ )
+        {
+            artifacts[i] = stub.addChild( "child" + i );
+        }
+
+        // the later artifact fails first
+        stub.resolver.failures.add( "child1" );
+        stub.resolver.delays.put( "child1", new Long( 300 ) );
+        stub.resolver.failures.add( "child3" );
+
+        try
+        {
+            stub.assemble( artifacts, 4 );
+            fail( "failure not propagated" );
+        }
+        catch ( RepositoryAssemblyException e )
+        {
+            assertTrue( e.getCause() instanceof ArtifactNotFoundException );
+            assertEquals( "child1", ( (ArtifactNotFoundException) e.getCause() ).getArtifactId() );
+        }
+    }
+
+    /**
+     * A project with the given artifacts as dependencies, resolved from a local repository written by the test. All
+     * children have the same parent POM, which has a parent in turn.
+     */
+    private class StubRepository
+    {
+        private final File basedir;
+
+        private final ArtifactRepository localRepository;
+
+        private final StubArtifactResolver resolver = new StubArtifactResolver();
+
+        private final StubProjectBuilder projectBuilder = new StubProjectBuilder();
+
+        private final MavenProject parentProject;
+
+        private volatile int grandparentVisits;
+
+        StubRepository( String name )
+            throws Exception
+        {
+            basedir = new File( getBasedir(), "target/stub-repositories/" + name ).getAbsoluteFile();
+            FileUtils.deleteDirectory( basedir );
+
+            File localRepo = new File( basedir, "local" );
+            localRepository = repoFactory.createArtifactRepository( "local", localRepo.toURL().toExternalForm(),
+                                                                    defaultLayout, null, null );
+
+            MavenProject grandparentProject = new MavenProject( createModel( "grandparent", "pom" ) )
+            {
+                public File getFile()
+                {
+                    grandparentVisits++;
+                    return super.getFile();
+                }
+            };
+            grandparentProject.setFile( writePom( "grandparent", "grandparent" ) );
+
+            // the project of the parent has another file than the resolved POM artifact
+            parentProject = new MavenProject( createModel( "parent", "pom" ) );
+            parentProject.setParent( grandparentProject );
+            File parentProjectFile = new File( basedir, "projects/parent/pom.xml" );
+            FileUtils.mkdir( parentProjectFile.getParent() );
+            FileUtils.fileWrite( parentProjectFile.getPath(), "parent project" );
+            parentProject.setFile( parentProjectFile );
+
+            projectBuilder.projects.put( "parent", parentProject );
+        }
+
+        Artifact addParentPom()
+            throws IOException
+        {
+            writePom( "parent", "resolved parent" );
+            return artifactFactory.createArtifact( "stub", "parent", "1.0", Artifact.SCOPE_COMPILE, "pom" );
+        }
+
+        Artifact addChild( String artifactId )
+            throws IOException
+        {
+            MavenProject child = new MavenProject( createModel( artifactId, "jar" ) );
+            child.setParent( parentProject );
+            child.setFile( writePom( artifactId, artifactId ) );
+            projectBuilder.projects.put( artifactId, child );
+
+            Artifact artifact =
+                artifactFactory.createArtifact( "stub", artifactId, "1.0", Artifact.SCOPE_COMPILE, "jar" );
+            File file = new File( localRepository.getBasedir(), localRepository.pathOf( artifact ) );
+            FileUtils.mkdir( file.getParent() );
+            FileUtils.fileWrite( file.getPath(), artifactId + " jar" );
+            return artifact;
+        }
+
+        File assemble( Artifact[] artifacts, int threads )
+            throws RepositoryAssemblyException
+        {
+            Set dependencies = new LinkedHashSet();
+            for ( int i = 0; i < artifacts.length; i++ )
+            {
+                dependencies.add( artifacts[i] );
+            }
+            resolver.artifacts = dependencies;
+
+            MavenProject project = new MavenProject( createModel( "project", "jar" ) );
+            project.setArtifact( artifactFactory.createProjectArtifact( "stub", "project", "1.0" ) );
+            project.setDependencyArtifacts( dependencies );
+            project.setRemoteArtifactRepositories( Collections.EMPTY_LIST );
+
+            TestRepositoryBuilderConfigSource cs = new TestRepositoryBuilderConfigSource();
+            cs.setProject( project );
+            cs.setLocalRepository( localRepository );
+
+            DefaultRepositoryAssembler assembler = new DefaultRepositoryAssembler( artifactFactory, resolver,
+                                                                                   defaultLayout, repoFactory,
+                                                                                   metadataSource, projectBuilder );
+            assembler.setThreads( threads );
+
+            File repositoryDirectory = new File( basedir, "assembled" );
+
+            assembler.buildRemoteRepository( repositoryDirectory, new DefaultRepositoryInfo(), cs );
+
+            return repositoryDirectory;
+        }
+
+        private File writePom( String artifactId, String contents )
+            throws IOException
+        {
+            Artifact pom = artifactFactory.createProjectArtifact( "stub", artifactId, "1.0" );
+            File file = new File( localRepository.getBasedir(), localRepository.pathOf( pom ) );
+            FileUtils.mkdir( file.getParent() );
+            FileUtils.fileWrite( file.getPath(), contents );
+            return file;
+        }
+
+        private Model createModel( String artifactId, String packaging )
+        {
+            Model model = new Model();
+            model.setGroupId( "stub" );
+            model.setArtifactId( artifactId );
+            model.setVersion( "1.0" );
+            model.setPackaging( packaging );
+            return model;
+        }
+    }
+
+    /**
+     * Resolves the artifacts from the local repository, after an optional delay by artifactId.
+     */
+    private static class StubArtifactResolver
+        implements ArtifactResolver
+    {
+        private Set artifacts;
+
+        private final Map delays = Collections.synchronizedMap( new HashMap() );
+
+        private final List failures = Collections.synchronizedList( new ArrayList() );
+
+        private int active;
+
+        private int maxActive;
+
+        public void resolve( Artifact artifact, List remoteRepositories, ArtifactRepository localRepository )
+            throws ArtifactNotFoundException
+        {
+            synchronized ( this )
+            {
+                active++;
+                maxActive = Math.max( maxActive, active );
+            }
+            try
+            {
+                Long delay = (Long) delays.get( artifact.getArtifactId() );
+                if ( delay != null )
+                {
+                    Thread.sleep( delay.longValue() );
+                }
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            finally
+            {
+                synchronized ( this )
+                {
+                    active--;
+                }
+            }
+
+            if ( failures.contains( artifact.getArtifactId() ) )
+            {
+                throw new ArtifactNotFoundException( "Not in the stub repository", artifact );
+            }
+
+            artifact.setFile( new File( localRepository.getBasedir(), localRepository.pathOf( artifact ) ) );
+            artifact.setResolved( true );
+        }
+
+        public void resolveAlways( Artifact artifact, List remoteRepositories, ArtifactRepository localRepository )
+            throws ArtifactNotFoundException
+        {
+            resolve( artifact, remoteRepositories, localRepository );
+        }
+
+        public ArtifactResolutionResult resolveTransitively( Set artifacts, Artifact originatingArtifact,
+                                                             Map managedVersions, ArtifactRepository localRepository,
+                                                             List remoteRepositories, ArtifactMetadataSource source )
+        {
+            ArtifactResolutionResult result = new ArtifactResolutionResult()
+            {
+                public Set getArtifacts()
+                {
+                    return StubArtifactResolver.this.artifacts;
+                }
+            };
+
+            Set nodes = new LinkedHashSet();
+            for ( Iterator i = this.artifacts.iterator(); i.hasNext(); )
+            {
+                nodes.add( new ResolutionNode( (Artifact) i.next(), remoteRepositories ) );
+            }
+            result.setArtifactResolutionNodes( nodes );
+
+            return result;
+        }
+
+        public ArtifactResolutionResult resolveTransitively( Set artifacts, Artifact originatingArtifact,
+                                                             List remoteRepositories,
+                                                             ArtifactRepository localRepository,
+                                                             ArtifactMetadataSource source )
+        {
+            return resolveTransitively( artifacts, originatingArtifact, null, localRepository, remoteRepositories,
+                                        source );
+        }
+
+        public ArtifactResolutionResult resolveTransitively( Set artifacts, Artifact originatingArtifact,
+                                                             List remoteRepositories,
+                                                             ArtifactRepository localRepository,
+                                                             ArtifactMetadataSource source, List listeners )
+        {
+            return resolveTransitively( artifacts, originatingArtifact, null, localRepository, remoteRepositories,
+                                        source );
+        }
+
+        public ArtifactResolutionResult resolveTransitively( Set artifacts, Artifact originatingArtifact,
+                                                             ArtifactRepository localRepository,
+                                                             List remoteRepositories, ArtifactMetadataSource source,
+                                                             ArtifactFilter filter )
+        {
+            return resolveTransitively( artifacts, originatingArtifact, null, localRepository, remoteRepositories,
+                                        source );
+        }
+
+        public ArtifactResolutionResult resolveTransitively( Set artifacts, Artifact originatingArtifact,
+                                                             Map managedVersions, ArtifactRepository localRepository,
+                                                             List remoteRepositories, ArtifactMetadataSource source,
+                                                             ArtifactFilter filter )
+        {
+            return resolveTransitively( artifacts, originatingArtifact, managedVersions, localRepository,
+                                        remoteRepositories, source );
+        }
+
+        public ArtifactResolutionResult resolveTransitively( Set artifacts, Artifact originatingArtifact,
+                                                             Map managedVersions, ArtifactRepository localRepository,
+                                                             List remoteRepositories, ArtifactMetadataSource source,
+                                                             ArtifactFilter filter, List listeners )
+        {
+            return resolveTransitively( artifacts, originatingArtifact, managedVersions, localRepository,
+                                        remoteRepositories, source );
+        }
+    }
+
+    /**
+     * Builds the projects given by artifactId and counts the builds by POM artifact.
+     */
+    private static class StubProjectBuilder
+        implements MavenProjectBuilder
+    {
+        private final Map projects = new HashMap();
+
+        private final Map builds = new HashMap();
+
+        public synchronized MavenProject buildFromRepository( Artifact artifact, List remoteArtifactRepositories,
+                                                              ArtifactRepository localRepository )
+            throws ProjectBuildingException
+        {
+            builds.put( artifact.getId(), new Integer( getBuilds( artifact.getId() ) + 1 ) );
+
+            MavenProject project = (MavenProject) projects.get( artifact.getArtifactId() );
+            if ( project == null )
+            {
+                throw new ProjectBuildingException( artifact.getId(), "Not in the stub repository" );
+            }
+            return project;
+        }
+
+        public MavenProject buildFromRepository( Artifact artifact, List remoteArtifactRepositories,
+                                                 ArtifactRepository localRepository, boolean allowStubModel )
+            throws ProjectBuildingException
+        {
+            return buildFromRepository( artifact, remoteArtifactRepositories, localRepository );
+        }
+
+        synchronized int getBuilds( String id )
+        {
+            Integer builds = (Integer) this.builds.get( id );
+            return ( builds != null ) ? builds.intValue() : 0;
+        }
+
+        public MavenProject build( File project, ArtifactRepository localRepository, ProfileManager profileManager )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        public MavenProject build( File project, ArtifactRepository localRepository, ProfileManager profileManager,
+                                   boolean checkDistributionManagementStatus )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        public MavenProject buildWithDependencies( File project, ArtifactRepository localRepository,
+                                                   ProfileManager globalProfileManager,
+                                                   TransferListener transferListener )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        public MavenProject buildWithDependencies( File project, ArtifactRepository localRepository,
+                                                   ProfileManager globalProfileManager )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        public MavenProject buildStandaloneSuperProject( ArtifactRepository localRepository )
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
 }
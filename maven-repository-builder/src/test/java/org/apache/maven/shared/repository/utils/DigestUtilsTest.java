@@ -0,0 +1,100 @@
+package org.apache.maven.shared.repository.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.shared.utils.io.FileUtils;
+
+/**
+ * Tests <code>DigestUtils</code>.
+ */
+public class DigestUtilsTest
+    extends TestCase
+{
+    private static final String[] ALGORITHMS = { "MD5", "SHA-1", "SHA-256" };
+
+    public void testCreateChecksum()
+        throws Exception
+    {
+        File file = createFile( "abc" );
+
+        assertEquals( "900150983CD24FB0D6963F7D28E17F72", DigestUtils.createChecksum( file, "MD5" ) );
+        assertEquals( "A9993E364706816ABA3E25717850C26C9CD0D89D", DigestUtils.createChecksum( file, "SHA-1" ) );
+    }
+
+    public void testCreateChecksums()
+        throws Exception
+    {
+        File file = createFile( "abc" );
+
+        String[] checksums = DigestUtils.createChecksums( file, ALGORITHMS );
+
+        assertEquals( ALGORITHMS.length, checksums.length );
+        for ( int i = 0; i < ALGORITHMS.length; i++ )
+        {
+            assertEquals( DigestUtils.createChecksum( file, ALGORITHMS[i] ), checksums[i] );
+        }
+        assertEquals( "BA7816BF8F01CFEA414140DE5DAE2223B00361A396177A9CB410FF61F20015AD", checksums[2] );
+    }
+
+    public void testCopyWithChecksums()
+        throws Exception
+    {
+        StringBuffer content = new StringBuffer();
+        for ( int i = 0; i < 10000; i++ )
+        {
+            content.append( "line " ).append( i ).append( '\n' );
+        }
+        File source = createFile( content.toString() );
+
+        File target = new File( source.getParentFile(), source.getName() + ".dir/sub/copy.txt" );
+        target.deleteOnExit();
+        try
+        {
+            String[] checksums = DigestUtils.copyWithChecksums( source, target, ALGORITHMS );
+
+            assertEquals( content.toString(), FileUtils.fileRead( target ) );
+            for ( int i = 0; i < ALGORITHMS.length; i++ )
+            {
+                assertEquals( DigestUtils.createChecksum( target, ALGORITHMS[i] ), checksums[i] );
+            }
+
+            // onto itself, the file is left as is
+            assertEquals( checksums[0], DigestUtils.copyWithChecksums( target, target, ALGORITHMS )[0] );
+            assertEquals( content.toString(), FileUtils.fileRead( target ) );
+        }
+        finally
+        {
+            FileUtils.deleteDirectory( new File( source.getParentFile(), source.getName() + ".dir" ) );
+        }
+    }
+
+    private static File createFile( String content )
+        throws Exception
+    {
+        File file = File.createTempFile( "digest", ".txt" );
+        file.deleteOnExit();
+        FileUtils.fileWrite( file.getAbsolutePath(), content );
+        return file;
+    }
+}
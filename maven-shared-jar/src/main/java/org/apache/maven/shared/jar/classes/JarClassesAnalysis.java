@@ -25,12 +25,22 @@ import org.apache.bcel.classfile.DescendingVisitor;
 import org.apache.bcel.classfile.JavaClass;
 import org.apache.bcel.classfile.LineNumberTable;
 import org.apache.bcel.classfile.Method;
+import org.apache.bcel.util.SyntheticRepository;
 import org.apache.maven.shared.jar.JarAnalyzer;
+import org.apache.maven.shared.utils.io.IOUtil;
 import org.codehaus.plexus.logging.AbstractLogEnabled;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.jar.JarEntry;
 
 /**
@@ -57,6 +67,11 @@ public class JarClassesAnalysis
 
     private static final double JAVA_1_1_CLASS_VERSION = 45.3;
 
+    /**
+     * The number of threads parsing the classes of a JAR.
+     */
+    private int threads = 1;
+
     /**
      * Analyze a JAR and find any classes and their details. Note that if the provided JAR analyzer has previously
      * analyzed the JAR, the cached results will be returned. You must obtain a new JAR analyzer to the re-read the
@@ -70,7 +85,6 @@ public class JarClassesAnalysis
         JarClasses classes = jarAnalyzer.getJarData().getJarClasses();
         if ( classes == null )
         {
-            String jarfilename = jarAnalyzer.getFile().getAbsolutePath();
             classes = new JarClasses();
 
             List classList = jarAnalyzer.getClassEntries();
@@ -79,65 +93,34 @@ public class JarClassesAnalysis
 
             double maxVersion = 0.0;
 
-            Iterator it = classList.iterator();
+            List parsedClasses =
+                threads > 1 ? parseInParallel( jarAnalyzer, classList ) : parse( jarAnalyzer, classList );
+
+            // merge in the order of the entries, whatever order the classes got parsed in
+            Iterator it = parsedClasses.iterator();
             while ( it.hasNext() )
             {
-                JarEntry entry = (JarEntry) it.next();
-                String classname = entry.getName();
+                ParsedClass parsedClass = (ParsedClass) it.next();
 
-                try
+                if ( parsedClass.debugPresent )
                 {
-                    ClassParser classParser = new ClassParser( jarfilename, classname );
-
-                    JavaClass javaClass = classParser.parse();
-
-                    String classSignature = javaClass.getClassName();
-
-                    if ( !classes.isDebugPresent() )
-                    {
-                        if ( hasDebugSymbols( javaClass ) )
-                        {
-                            classes.setDebugPresent( true );
-                        }
-                    }
-
-                    double classVersion = javaClass.getMajor();
-                    if ( javaClass.getMinor() > 0 )
-                    {
-                        classVersion = classVersion + 1 / (double) javaClass.getMinor();
-                    }
-
-                    if ( classVersion > maxVersion )
-                    {
-                        maxVersion = classVersion;
-                    }
-
-                    Method[] methods = javaClass.getMethods();
-                    for ( int i = 0; i < methods.length; i++ )
-                    {
-                        classes.addMethod( classSignature + "." + methods[i].getName() + methods[i].getSignature() );
-                    }
-
-                    String classPackageName = javaClass.getPackageName();
-
-                    classes.addClassName( classSignature );
-                    classes.addPackage( classPackageName );
-
-                    ImportVisitor importVisitor = new ImportVisitor( javaClass );
-                    DescendingVisitor descVisitor = new DescendingVisitor( javaClass, importVisitor );
-                    javaClass.accept( descVisitor );
-
-                    classes.addImports( importVisitor.getImports() );
+                    classes.setDebugPresent( true );
                 }
-                catch ( ClassFormatException e )
+
+                if ( parsedClass.classVersion > maxVersion )
                 {
-                    getLogger().warn( "Unable to process class " + classname + " in JarAnalyzer File " + jarfilename,
-                                      e );
+                    maxVersion = parsedClass.classVersion;
                 }
-                catch ( IOException e )
+
+                for ( int i = 0; i < parsedClass.methods.length; i++ )
                 {
-                    getLogger().warn( "Unable to process JarAnalyzer File " + jarfilename, e );
+                    classes.addMethod( parsedClass.methods[i] );
                 }
+
+                classes.addClassName( parsedClass.className );
+                classes.addPackage( parsedClass.packageName );
+
+                classes.addImports( parsedClass.imports );
             }
 
             // TODO: check these since they are > instead of >=
@@ -175,7 +158,153 @@ public class JarClassesAnalysis
         return classes;
     }
 
-    private boolean hasDebugSymbols( JavaClass javaClass )
+    /**
+     * Get the number of threads parsing the classes of a JAR.
+     *
+     * @return the number of threads
+     */
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Set the number of threads parsing the classes of a JAR. The class files are always read from the already opened
+     * JAR file on the calling thread, with more than one thread they are parsed concurrently.
+     *
+     * @param threads the number of threads, <code>1</code> by default
+     * @since 1.2
+     */
+    public void setThreads( int threads )
+    {
+        this.threads = threads;
+    }
+
+    private List parse( JarAnalyzer jarAnalyzer, List classList )
+    {
+        List parsedClasses = new ArrayList();
+
+        Iterator it = classList.iterator();
+        while ( it.hasNext() )
+        {
+            JarEntry entry = (JarEntry) it.next();
+
+            try
+            {
+                parsedClasses.add( new ParsedClass( entry.getName(), readEntry( jarAnalyzer, entry ) ).call() );
+            }
+            catch ( ClassFormatException e )
+            {
+                warnClassFormat( jarAnalyzer, entry, e );
+            }
+            catch ( IOException e )
+            {
+                warnIO( jarAnalyzer, e );
+            }
+        }
+
+        return parsedClasses;
+    }
+
+    private List parseInParallel( JarAnalyzer jarAnalyzer, List classList )
+    {
+        // JavaClass registers with the synthetic repository, create it before the parsing threads look it up
+        SyntheticRepository.getInstance();
+
+        List parsedClasses = new ArrayList();
+
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            List futures = new ArrayList();
+            List futureEntries = new ArrayList();
+
+            Iterator it = classList.iterator();
+            while ( it.hasNext() )
+            {
+                JarEntry entry = (JarEntry) it.next();
+
+                try
+                {
+                    byte[] bytes = readEntry( jarAnalyzer, entry );
+
+                    futures.add( executor.submit( new ParsedClass( entry.getName(), bytes ) ) );
+                    futureEntries.add( entry );
+                }
+                catch ( IOException e )
+                {
+                    warnIO( jarAnalyzer, e );
+                }
+            }
+
+            for ( int i = 0; i < futures.size(); i++ )
+            {
+                JarEntry entry = (JarEntry) futureEntries.get( i );
+
+                try
+                {
+                    parsedClasses.add( ( (Future) futures.get( i ) ).get() );
+                }
+                catch ( ExecutionException e )
+                {
+                    if ( e.getCause() instanceof ClassFormatException )
+                    {
+                        warnClassFormat( jarAnalyzer, entry, e.getCause() );
+                    }
+                    else if ( e.getCause() instanceof IOException )
+                    {
+                        warnIO( jarAnalyzer, e.getCause() );
+                    }
+                    else if ( e.getCause() instanceof RuntimeException )
+                    {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    else
+                    {
+                        throw (Error) e.getCause();
+                    }
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException( "Interrupted while analyzing " + jarAnalyzer.getFile() );
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        return parsedClasses;
+    }
+
+    private static byte[] readEntry( JarAnalyzer jarAnalyzer, JarEntry entry )
+        throws IOException
+    {
+        InputStream in = jarAnalyzer.getEntryInputStream( entry );
+        try
+        {
+            return IOUtil.toByteArray( in );
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    private void warnClassFormat( JarAnalyzer jarAnalyzer, JarEntry entry, Throwable e )
+    {
+        getLogger().warn( "Unable to process class " + entry.getName() + " in JarAnalyzer File "
+                              + jarAnalyzer.getFile().getAbsolutePath(), e );
+    }
+
+    private void warnIO( JarAnalyzer jarAnalyzer, Throwable e )
+    {
+        getLogger().warn( "Unable to process JarAnalyzer File " + jarAnalyzer.getFile().getAbsolutePath(), e );
+    }
+
+    private static boolean hasDebugSymbols( JavaClass javaClass )
     {
         boolean ret = false;
         Method[] methods = javaClass.getMethods();
@@ -190,4 +319,68 @@ public class JarClassesAnalysis
         }
         return ret;
     }
+
+    /**
+     * The facts about a single class file, parsed independently of the other classes of the JAR.
+     */
+    private static final class ParsedClass
+        implements Callable
+    {
+        private final String entryName;
+
+        private byte[] bytes;
+
+        private String className;
+
+        private String packageName;
+
+        private String[] methods;
+
+        private List imports;
+
+        private boolean debugPresent;
+
+        private double classVersion;
+
+        ParsedClass( String entryName, byte[] bytes )
+        {
+            this.entryName = entryName;
+            this.bytes = bytes;
+        }
+
+        public Object call()
+            throws IOException
+        {
+            JavaClass javaClass = new ClassParser( new ByteArrayInputStream( bytes ), entryName ).parse();
+            bytes = null;
+
+            className = javaClass.getClassName();
+            packageName = javaClass.getPackageName();
+
+            debugPresent = hasDebugSymbols( javaClass );
+
+            classVersion = javaClass.getMajor();
+            if ( javaClass.getMinor() > 0 )
+            {
+                classVersion = classVersion + 1 / (double) javaClass.getMinor();
+            }
+
+            Method[] classMethods = javaClass.getMethods();
+            methods = new String[classMethods.length];
+            StringBuffer buffer = new StringBuffer( className ).append( '.' );
+            for ( int i = 0; i < classMethods.length; i++ )
+            {
+                buffer.setLength( className.length() + 1 );
+                buffer.append( classMethods[i].getName() ).append( classMethods[i].getSignature() );
+                methods[i] = buffer.toString();
+            }
+
+            ImportVisitor importVisitor = new ImportVisitor( javaClass );
+            DescendingVisitor descVisitor = new DescendingVisitor( javaClass, importVisitor );
+            javaClass.accept( descVisitor );
+            imports = importVisitor.getImports();
+
+            return this;
+        }
+    }
 }
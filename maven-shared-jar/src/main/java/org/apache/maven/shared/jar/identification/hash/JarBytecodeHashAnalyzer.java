@@ -21,21 +21,18 @@ package org.apache.maven.shared.jar.identification.hash;
 
 import org.apache.maven.shared.jar.JarAnalyzer;
 import org.apache.maven.shared.jar.JarData;
-import org.codehaus.plexus.digest.DigesterException;
 import org.codehaus.plexus.digest.StreamingDigester;
 import org.codehaus.plexus.logging.AbstractLogEnabled;
-import org.apache.maven.shared.utils.io.IOUtil;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.Iterator;
-import java.util.jar.JarEntry;
 
 /**
  * Analyzer that calculates the hash code for the entire file. Can be used to detect an exact copy of the file's class
  * data. Useful to see thru a recompile, recompression, or timestamp change.
  * <p/>
- * If you are not using Plexus, you must call {@link #setDigester(org.codehaus.plexus.digest.StreamingDigester)} before use
+ * If you are not using Plexus, you must call {@link #setDigester(org.codehaus.plexus.digest.StreamingDigester)} before use.
+ * Only the algorithm of the digester is used, the hashes are computed with separate message digests, so an instance
+ * can be shared by threads analyzing different JARs.
  *
  * @plexus.component role="org.apache.maven.shared.jar.identification.hash.JarHashAnalyzer" role-hint="bytecode"
  */
@@ -50,6 +47,16 @@ public class JarBytecodeHashAnalyzer
      */
     private StreamingDigester digester;
 
+    /**
+     * The number of class entries read concurrently while computing a hash.
+     */
+    private int threads = 1;
+
+    /**
+     * The hasher, created on first use.
+     */
+    private JarEntriesHasher hasher;
+
     public String computeHash( JarAnalyzer jarAnalyzer )
     {
         JarData jarData = jarAnalyzer.getJarData();
@@ -57,23 +64,12 @@ public class JarBytecodeHashAnalyzer
         String result = jarData.getBytecodeHash();
         if ( result == null )
         {
-            Iterator it = jarAnalyzer.getClassEntries().iterator();
-
             try
             {
-                digester.reset();
-                while ( it.hasNext() )
-                {
-                    JarEntry entry = (JarEntry) it.next();
-                    computeEntryBytecodeHash( jarAnalyzer.getEntryInputStream( entry ) );
-                }
-                result = digester.calc();
+                String[] algorithms = new String[] { digester.getAlgorithm() };
+                result = getHasher().computeHashes( jarAnalyzer, jarAnalyzer.getClassEntries(), algorithms )[0];
                 jarData.setBytecodeHash( result );
             }
-            catch ( DigesterException e )
-            {
-                getLogger().warn( "Unable to calculate the hashcode.", e );
-            }
             catch ( IOException e )
             {
                 getLogger().warn( "Unable to calculate the hashcode.", e );
@@ -82,17 +78,47 @@ public class JarBytecodeHashAnalyzer
         return result;
     }
 
-    private void computeEntryBytecodeHash( InputStream is )
-        throws IOException, DigesterException
+    /**
+     * Compute the hashes of the class entries of a JAR for several digest algorithms, reading the entries once.
+     *
+     * @param jarAnalyzer the JAR analyzer to use to obtain the entries to hash
+     * @param algorithms  the digest algorithms, such as <code>MD5</code>, <code>SHA-1</code> or <code>SHA-256</code>
+     * @return the hashes in the order of the algorithms, or null if not able to be computed due to an exception.
+     * @since 1.2
+     */
+    public String[] computeHashes( JarAnalyzer jarAnalyzer, String[] algorithms )
     {
         try
         {
-            digester.update( is );
+            return getHasher().computeHashes( jarAnalyzer, jarAnalyzer.getClassEntries(), algorithms );
+        }
+        catch ( IOException e )
+        {
+            getLogger().warn( "Unable to calculate the hashcodes.", e );
+            return null;
         }
-        finally
+    }
+
+    private synchronized JarEntriesHasher getHasher()
+    {
+        if ( hasher == null )
         {
-            IOUtil.close( is );
+            hasher = new JarEntriesHasher( threads );
         }
+        return hasher;
+    }
+
+    /**
+     * Set the number of class entries read concurrently while computing a hash. The entries are still digested in
+     * order, so the hash doesn't depend on it.
+     *
+     * @param threads the number of threads, <code>1</code> by default
+     * @since 1.2
+     */
+    public synchronized void setThreads( int threads )
+    {
+        this.threads = threads;
+        this.hasher = null;
     }
 
     public void setDigester( StreamingDigester digester )
@@ -0,0 +1,262 @@
+package org.apache.maven.shared.jar.identification.hash;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.apache.maven.shared.utils.io.IOUtil;
+import org.codehaus.plexus.digest.Hex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.jar.JarEntry;
+
+/**
+ * Calculates hashes of the concatenated content of JAR entries, for one or several digest algorithms in a single read
+ * of the entries. The hashes are the same as the ones of a {@link org.codehaus.plexus.digest.StreamingDigester} fed
+ * with the entries in the same order.
+ * <p/>
+ * This class is thread safe: every computation uses its own message digests, so a single instance can hash several
+ * JARs concurrently.
+ */
+public class JarEntriesHasher
+{
+    /**
+     * Creates daemon threads, an idle hasher doesn't keep the JVM alive.
+     */
+    private static final ThreadFactory READER_THREAD_FACTORY = new ThreadFactory()
+    {
+        public Thread newThread( Runnable r )
+        {
+            Thread thread = new Thread( r, "JarEntriesHasher reader" );
+            thread.setDaemon( true );
+            return thread;
+        }
+    };
+
+    /**
+     * The number of entries read concurrently by a computation.
+     */
+    private final int threads;
+
+    /**
+     * The threads reading entries ahead, shared by all computations of this instance. <code>null</code> if the entries
+     * are read by the calling thread.
+     */
+    private final ExecutorService readers;
+
+    /**
+     * Create a hasher reading the entries on the calling thread.
+     */
+    public JarEntriesHasher()
+    {
+        this( 1 );
+    }
+
+    /**
+     * Create a hasher. With more than one thread, entries are read and inflated concurrently ahead of the entry being
+     * digested, while the digests are still updated in the order of the entries.
+     *
+     * @param threads the number of entries read concurrently by a computation
+     */
+    public JarEntriesHasher( int threads )
+    {
+        this.threads = threads;
+        this.readers = threads > 1 ? Executors.newCachedThreadPool( READER_THREAD_FACTORY ) : null;
+    }
+
+    /**
+     * Compute the hashes of the concatenated content of the given entries.
+     *
+     * @param jarAnalyzer the JAR analyzer to read the entries from
+     * @param entries     the entries to hash, in {@link java.util.jar.JarEntry} elements
+     * @param algorithms  the digest algorithms, such as <code>MD5</code>, <code>SHA-1</code> or <code>SHA-256</code>
+     * @return the hexadecimal hashes, in the order of the algorithms
+     * @throws IOException if an entry can't be read
+     * @throws IllegalArgumentException if an algorithm is not supported by the JVM
+     */
+    public String[] computeHashes( JarAnalyzer jarAnalyzer, List entries, String[] algorithms )
+        throws IOException
+    {
+        MessageDigest[] digests = createDigests( algorithms );
+
+        if ( readers == null )
+        {
+            byte[] buffer = new byte[8192];
+
+            Iterator it = entries.iterator();
+            while ( it.hasNext() )
+            {
+                InputStream is = jarAnalyzer.getEntryInputStream( (JarEntry) it.next() );
+                try
+                {
+                    int read;
+                    while ( ( read = is.read( buffer ) ) != -1 )
+                    {
+                        update( digests, buffer, read );
+                    }
+                }
+                finally
+                {
+                    IOUtil.close( is );
+                }
+            }
+        }
+        else
+        {
+            updateReadingAhead( digests, jarAnalyzer, entries );
+        }
+
+        String[] hashes = new String[digests.length];
+        for ( int i = 0; i < digests.length; i++ )
+        {
+            hashes[i] = Hex.encode( digests[i].digest() );
+        }
+        return hashes;
+    }
+
+    /**
+     * Reads up to {@link #threads} entries ahead, so at most that many inflated entries are held in memory.
+     */
+    private void updateReadingAhead( MessageDigest[] digests, JarAnalyzer jarAnalyzer, List entries )
+        throws IOException
+    {
+        LinkedList pending = new LinkedList();
+        try
+        {
+            Iterator it = entries.iterator();
+            while ( it.hasNext() || !pending.isEmpty() )
+            {
+                while ( it.hasNext() && pending.size() < threads )
+                {
+                    pending.add( readers.submit( new EntryReader( jarAnalyzer, (JarEntry) it.next() ) ) );
+                }
+
+                byte[] content = get( (Future) pending.removeFirst() );
+                update( digests, content, content.length );
+            }
+        }
+        finally
+        {
+            Iterator it = pending.iterator();
+            while ( it.hasNext() )
+            {
+                ( (Future) it.next() ).cancel( true );
+            }
+        }
+    }
+
+    private static byte[] get( Future future )
+        throws IOException
+    {
+        try
+        {
+            return (byte[]) future.get();
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof IOException )
+            {
+                throw (IOException) e.getCause();
+            }
+            else if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw (Error) e.getCause();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            IOException ioe = new IOException( "Interrupted while reading JAR entries" );
+            ioe.initCause( e );
+            throw ioe;
+        }
+    }
+
+    private static void update( MessageDigest[] digests, byte[] bytes, int length )
+    {
+        for ( int i = 0; i < digests.length; i++ )
+        {
+            digests[i].update( bytes, 0, length );
+        }
+    }
+
+    private static MessageDigest[] createDigests( String[] algorithms )
+    {
+        MessageDigest[] digests = new MessageDigest[algorithms.length];
+        for ( int i = 0; i < algorithms.length; i++ )
+        {
+            try
+            {
+                digests[i] = MessageDigest.getInstance( algorithms[i] );
+            }
+            catch ( NoSuchAlgorithmException e )
+            {
+                IllegalArgumentException iae =
+                    new IllegalArgumentException( "Unsupported digest algorithm: " + algorithms[i] );
+                iae.initCause( e );
+                throw iae;
+            }
+        }
+        return digests;
+    }
+
+    /**
+     * Reads and inflates the content of a single entry.
+     */
+    private static final class EntryReader
+        implements Callable
+    {
+        private final JarAnalyzer jarAnalyzer;
+
+        private final JarEntry entry;
+
+        EntryReader( JarAnalyzer jarAnalyzer, JarEntry entry )
+        {
+            this.jarAnalyzer = jarAnalyzer;
+            this.entry = entry;
+        }
+
+        public Object call()
+            throws IOException
+        {
+            InputStream is = jarAnalyzer.getEntryInputStream( entry );
+            try
+            {
+                return IOUtil.toByteArray( is );
+            }
+            finally
+            {
+                IOUtil.close( is );
+            }
+        }
+    }
+}
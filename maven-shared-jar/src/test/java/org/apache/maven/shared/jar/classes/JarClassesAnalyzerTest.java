@@ -21,6 +21,8 @@ package org.apache.maven.shared.jar.classes;
 
 import org.apache.maven.shared.jar.AbstractJarAnalyzerTestCase;
 import org.apache.maven.shared.jar.JarAnalyzer;
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
 
 import java.io.File;
 
@@ -154,6 +156,30 @@ public class JarClassesAnalyzerTest
         assertEquals( "jdkrevision", "1.1", jclass.getJdkRevision() );
     }
 
+    public void testAnalyzeInParallel()
+        throws Exception
+    {
+        JarClasses expected = getJarClasses( "ant.jar" );
+
+        JarClassesAnalysis parallelAnalyzer = new JarClassesAnalysis();
+        parallelAnalyzer.enableLogging( new ConsoleLogger( Logger.LEVEL_WARN, "test" ) );
+        parallelAnalyzer.setThreads( 4 );
+
+        JarClasses actual = parallelAnalyzer.analyze( new JarAnalyzer( getSampleJar( "ant.jar" ) ) );
+
+        // same facts in the same order
+        assertEquals( expected.getClassNames(), actual.getClassNames() );
+        assertEquals( expected.getPackages(), actual.getPackages() );
+        assertEquals( expected.getImports(), actual.getImports() );
+        assertEquals( expected.getMethods(), actual.getMethods() );
+        assertEquals( expected.isDebugPresent(), actual.isDebugPresent() );
+        assertEquals( expected.getJdkRevision(), actual.getJdkRevision() );
+
+        actual = parallelAnalyzer.analyze( new JarAnalyzer( getSampleJar( "invalid-class-file.jar" ) ) );
+        assertTrue( actual.getClassNames().isEmpty() );
+        assertNull( actual.getJdkRevision() );
+    }
+
     private JarClasses getJarClasses( String filename )
         throws Exception
     {
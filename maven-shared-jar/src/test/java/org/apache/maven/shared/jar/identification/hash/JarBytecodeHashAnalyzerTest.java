@@ -0,0 +1,169 @@
+package org.apache.maven.shared.jar.identification.hash;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.shared.jar.AbstractJarAnalyzerTestCase;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.codehaus.plexus.digest.StreamingDigester;
+import org.codehaus.plexus.digest.StreamingMd5Digester;
+import org.codehaus.plexus.digest.StreamingSha1Digester;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.jar.JarEntry;
+
+/**
+ * JarBytecodeHashAnalyzer Test Case
+ */
+public class JarBytecodeHashAnalyzerTest
+    extends AbstractJarAnalyzerTestCase
+{
+    private JarBytecodeHashAnalyzer analyzer;
+
+    public void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        analyzer = (JarBytecodeHashAnalyzer) lookup( JarHashAnalyzer.class.getName(), "bytecode" );
+    }
+
+    public void testHashLikeStreamingDigester()
+        throws Exception
+    {
+        File file = getSampleJar( "ant.jar" );
+
+        assertEquals( streamingDigest( file, new StreamingSha1Digester() ), computeHash( analyzer, file ) );
+    }
+
+    public void testHashReadingAhead()
+        throws Exception
+    {
+        File file = getSampleJar( "ant.jar" );
+
+        String expected = computeHash( analyzer, file );
+
+        analyzer.setThreads( 4 );
+        assertEquals( expected, computeHash( analyzer, file ) );
+    }
+
+    public void testComputeSeveralHashes()
+        throws Exception
+    {
+        File file = getSampleJar( "ant.jar" );
+
+        JarAnalyzer jarAnalyzer = new JarAnalyzer( file );
+        String[] hashes;
+        try
+        {
+            hashes = analyzer.computeHashes( jarAnalyzer, new String[] { "MD5", "SHA-1", "SHA-256" } );
+        }
+        finally
+        {
+            jarAnalyzer.closeQuietly();
+        }
+
+        assertEquals( 3, hashes.length );
+        assertEquals( streamingDigest( file, new StreamingMd5Digester() ), hashes[0] );
+        assertEquals( computeHash( analyzer, file ), hashes[1] );
+        assertEquals( 64, hashes[2].length() );
+    }
+
+    public void testConcurrentHashes()
+        throws Exception
+    {
+        final String[] files = { "ant.jar", "jxr.jar", "helloworld-1.4-debug.jar", "helloworld-1.6.jar" };
+        final String[] expected = new String[files.length];
+        for ( int i = 0; i < files.length; i++ )
+        {
+            expected[i] = computeHash( analyzer, getSampleJar( files[i] ) );
+        }
+
+        // a single analyzer shared by threads hashing different JARs
+        final Throwable[] failure = new Throwable[1];
+        Thread[] threads = new Thread[files.length];
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            final int index = i;
+            threads[i] = new Thread()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        for ( int j = 0; j < 10; j++ )
+                        {
+                            assertEquals( expected[index], computeHash( analyzer, getSampleJar( files[index] ) ) );
+                        }
+                    }
+                    catch ( Throwable t )
+                    {
+                        failure[0] = t;
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            threads[i].join();
+        }
+
+        if ( failure[0] != null )
+        {
+            fail( failure[0].toString() );
+        }
+    }
+
+    private static String computeHash( JarHashAnalyzer analyzer, File file )
+        throws Exception
+    {
+        // a new JAR analyzer, the hash is cached in its JAR data
+        JarAnalyzer jarAnalyzer = new JarAnalyzer( file );
+        try
+        {
+            return analyzer.computeHash( jarAnalyzer );
+        }
+        finally
+        {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    private static String streamingDigest( File file, StreamingDigester digester )
+        throws Exception
+    {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer( file );
+        try
+        {
+            digester.reset();
+            Iterator it = jarAnalyzer.getClassEntries().iterator();
+            while ( it.hasNext() )
+            {
+                digester.update( jarAnalyzer.getEntryInputStream( (JarEntry) it.next() ) );
+            }
+            return digester.calc();
+        }
+        finally
+        {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+}
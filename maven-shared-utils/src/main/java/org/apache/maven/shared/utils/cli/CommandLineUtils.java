@@ -22,12 +22,22 @@ package org.apache.maven.shared.utils.cli;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.maven.shared.utils.Os;
 import org.apache.maven.shared.utils.StringUtils;
@@ -39,6 +49,42 @@ import org.apache.maven.shared.utils.StringUtils;
 public abstract class CommandLineUtils
 {
 
+    /**
+     * Runs the stream pumpers and feeders of all forked processes. Idle threads get reused by subsequent executions
+     * instead of starting three new threads per process. The pool must not be bounded: a pumper only finishes when
+     * its process terminates, which in turn might wait for another pumper to drain its pipe.
+     */
+    private static final ExecutorService PUMPS = Executors.newCachedThreadPool( new ThreadFactory()
+    {
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread( Runnable r )
+        {
+            Thread thread = new Thread( r, "CommandLineUtils stream pumper " + count.incrementAndGet() );
+            thread.setDaemon( true );
+            thread.setContextClassLoader( null );
+            return thread;
+        }
+    } );
+
+    /**
+     * <code>Process.waitFor(long, TimeUnit)</code>, available since Java 8.
+     */
+    private static final Method WAIT_FOR_WITH_TIMEOUT;
+
+    static
+    {
+        Method waitFor;
+        try
+        {
+            waitFor = Process.class.getMethod( "waitFor", long.class, TimeUnit.class );
+        }
+        catch ( NoSuchMethodException e )
+        {
+            waitFor = null;
+        }
+        WAIT_FOR_WITH_TIMEOUT = waitFor;
+    }
 
     public static class StringStreamConsumer
         implements StreamConsumer
@@ -173,12 +219,12 @@ public abstract class CommandLineUtils
 
         if ( inputFeeder != null )
         {
-            inputFeeder.start();
+            PUMPS.execute( inputFeeder );
         }
 
-        outputPumper.start();
+        PUMPS.execute( outputPumper );
 
-        errorPumper.start();
+        PUMPS.execute( errorPumper );
 
         final ProcessHook processHook = new ProcessHook( p );
 
@@ -198,20 +244,7 @@ public abstract class CommandLineUtils
                     }
                     else
                     {
-                        long now = System.currentTimeMillis();
-                        long timeoutInMillis = 1000L * timeoutInSeconds;
-                        long finish = now + timeoutInMillis;
-                        while ( isAlive( p ) && ( System.currentTimeMillis() < finish ) )
-                        {
-                            Thread.sleep( 10 );
-                        }
-                        if ( isAlive( p ) )
-                        {
-                            throw new InterruptedException(
-                                "Process timeout out after " + timeoutInSeconds + " seconds" );
-                        }
-
-                        returnValue = p.exitValue();
+                        returnValue = waitFor( p, timeoutInSeconds );
                     }
 
                     if ( runAfterProcessTermination != null )
@@ -264,6 +297,66 @@ public abstract class CommandLineUtils
         };
     }
 
+    /**
+     * Waits for the termination of a process without polling it. Uses <code>Process.waitFor(long, TimeUnit)</code>
+     * if available, otherwise waits for a task on the pumper threads which blocks in {@link Process#waitFor()}.
+     *
+     * @return the exit value of the process
+     * @throws InterruptedException if the process didn't terminate within the timeout or the wait got interrupted
+     */
+    private static int waitFor( final Process p, int timeoutInSeconds )
+        throws InterruptedException
+    {
+        if ( WAIT_FOR_WITH_TIMEOUT != null )
+        {
+            try
+            {
+                if ( !(Boolean) WAIT_FOR_WITH_TIMEOUT.invoke( p, (long) timeoutInSeconds, TimeUnit.SECONDS ) )
+                {
+                    throw new InterruptedException( "Process timeout out after " + timeoutInSeconds + " seconds" );
+                }
+                return p.exitValue();
+            }
+            catch ( IllegalAccessException e )
+            {
+                throw new RuntimeException( e );
+            }
+            catch ( InvocationTargetException e )
+            {
+                if ( e.getTargetException() instanceof InterruptedException )
+                {
+                    throw (InterruptedException) e.getTargetException();
+                }
+                throw new RuntimeException( e.getTargetException() );
+            }
+        }
+
+        Future<Integer> exitValue = PUMPS.submit( new Callable<Integer>()
+        {
+            public Integer call()
+                throws InterruptedException
+            {
+                return p.waitFor();
+            }
+        } );
+        try
+        {
+            return exitValue.get( timeoutInSeconds, TimeUnit.SECONDS );
+        }
+        catch ( TimeoutException e )
+        {
+            throw new InterruptedException( "Process timeout out after " + timeoutInSeconds + " seconds" );
+        }
+        catch ( ExecutionException e )
+        {
+            throw new RuntimeException( e.getCause() );
+        }
+        finally
+        {
+            exitValue.cancel( true );
+        }
+    }
+
     private static void waitForAllPumpers( StreamFeeder inputFeeder, StreamPumper outputPumper,
                                            StreamPumper errorPumper )
         throws InterruptedException
@@ -329,24 +422,6 @@ public abstract class CommandLineUtils
         }
     }
 
-    private static boolean isAlive( Process p )
-    {
-        if ( p == null )
-        {
-            return false;
-        }
-
-        try
-        {
-            p.exitValue();
-            return false;
-        }
-        catch ( IllegalThreadStateException e )
-        {
-            return true;
-        }
-    }
-
     public static String[] translateCommandline( String toProcess )
         throws Exception
     {
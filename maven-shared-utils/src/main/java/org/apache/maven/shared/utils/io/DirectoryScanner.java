@@ -24,7 +24,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.Nonnull;
@@ -186,6 +188,11 @@ public class DirectoryScanner
      */
     private List<String> filesIncluded;
 
+    /**
+     * The attributes of the included files, if they got captured.
+     */
+    private Map<String, FileAttributes> filesIncludedAttributes;
+
     /**
      * The files which did not match any includes or selectors.
      */
@@ -239,6 +246,16 @@ public class DirectoryScanner
      */
     private ScanConductor.ScanAction scanAction = null;
 
+    /**
+     * The number of threads used to scan the directory tree. Values lower than 2 result in a sequential scan.
+     */
+    private int parallelism = 1;
+
+    /**
+     * Whether or not the type of an entry gets determined by reading all of its basic attributes at once.
+     */
+    private boolean useFileAttributes = false;
+
     /**
      * Sole constructor.
      */
@@ -365,6 +382,39 @@ public class DirectoryScanner
         this.scanConductor = scanConductor;
     }
 
+    /**
+     * Sets the number of threads used to scan the directory tree. By default the directory tree gets scanned
+     * sequentially.
+     * <p/>
+     * With a parallelism of 2 or more every sub directory gets scanned as separate task on a thread pool of the given
+     * size. The results are the same as the ones of a sequential scan, including their order. A {@link ScanConductor}
+     * will get invoked concurrently from the scanning threads though, and might see entries which got scanned
+     * after an {@link ScanConductor.ScanAction#ABORT} happened in another directory. Those entries are not part of
+     * the result.
+     *
+     * @param parallelism the number of threads used to scan the directory tree
+     */
+    public void setParallelism( final int parallelism )
+    {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets whether or not the basic attributes (type, size, modification time) of each entry should be read with a
+     * single file system access.
+     * <p/>
+     * On Java 7 and above this replaces the separate <code>isDirectory()</code>, <code>isFile()</code> and symbolic
+     * link checks per entry by a single <code>Files.readAttributes</code> call. The attributes of the included files
+     * are available from {@link #getIncludedFileAttributes()} afterwards, so consumers don't need to access the file
+     * system again. On older JVMs the attributes get collected with plain {@link File} methods.
+     *
+     * @param useFileAttributes whether or not the basic attributes should be read at once
+     */
+    public void setUseFileAttributes( final boolean useFileAttributes )
+    {
+        this.useFileAttributes = useFileAttributes;
+    }
+
     /**
      * Scans the base directory for files which match at least one include pattern and don't match any exclude patterns.
      * If there are selectors then the files must pass muster there, as well.
@@ -392,6 +442,7 @@ public class DirectoryScanner
         setupMatchPatterns();
 
         filesIncluded = new ArrayList<String>();
+        filesIncludedAttributes = new LinkedHashMap<String, FileAttributes>();
         filesNotIncluded = new ArrayList<String>();
         filesExcluded = new ArrayList<String>();
         dirsIncluded = new ArrayList<String>();
@@ -425,7 +476,19 @@ public class DirectoryScanner
         {
             dirsNotIncluded.add( "" );
         }
-        scandir( basedir, "", true );
+
+        final ParallelScandir parallelScandir = createParallelScandir();
+        try
+        {
+            scandir( parallelScandir, basedir, "", true );
+        }
+        finally
+        {
+            if ( parallelScandir != null )
+            {
+                parallelScandir.shutdown();
+            }
+        }
     }
 
     /**
@@ -484,6 +547,103 @@ public class DirectoryScanner
         return new DirectoryScanResult( filesAdded, filesRemoved );
     }
 
+    /**
+     * Captures the size and modification time of the currently included files. It will execute a {@link #scan()} if
+     * no result of a previous scan could be found.
+     * <p/>
+     * The snapshot can be persisted and compared against a later scan with {@link #diffSnapshot(ScanSnapshot)}. If
+     * {@link #setUseFileAttributes(boolean)} is enabled the attributes captured by the scan are reused, otherwise each
+     * file gets accessed once.
+     *
+     * @param previous      a previous snapshot to take the checksums of unchanged files from. May be
+     *                      <code>null</code>.
+     * @param withChecksums whether or not a checksum of each file should be recorded. Files with a changed
+     *                      modification time but an unchanged checksum are not reported as modified then.
+     * @return the snapshot of the included files
+     * @throws IOException if a checksum can't be calculated
+     */
+    public ScanSnapshot createSnapshot( @Nullable ScanSnapshot previous, boolean withChecksums )
+        throws IOException
+    {
+        if ( filesIncluded == null )
+        {
+            scan();
+        }
+
+        final ScanSnapshot snapshot = new ScanSnapshot();
+        for ( String name : filesIncluded )
+        {
+            final File file = new File( basedir, name );
+            final FileAttributes attributes = filesIncludedAttributes.get( name );
+            final long size = attributes != null ? attributes.getSize() : file.length();
+            final long lastModified = attributes != null ? attributes.getLastModified() : file.lastModified();
+
+            byte[] checksum = null;
+            if ( withChecksums )
+            {
+                checksum = previous != null ? previous.getUnchangedChecksum( name, size, lastModified ) : null;
+                if ( checksum == null )
+                {
+                    checksum = ScanSnapshot.checksum( file );
+                }
+            }
+            snapshot.put( name, size, lastModified, checksum );
+        }
+        return snapshot;
+    }
+
+    /**
+     * Determine the file differences between the currently included files and a previously captured
+     * {@link ScanSnapshot}. Other than {@link #diffIncludedFiles(String...)} this also reports files whose size or
+     * modification time changed. It will execute a {@link #scan()} if no result of a previous scan could be found.
+     *
+     * @param previous the previously captured snapshot
+     * @return the added, removed and modified files
+     * @throws IOException if a checksum can't be calculated
+     */
+    public DirectoryScanResult diffSnapshot( @Nonnull ScanSnapshot previous )
+        throws IOException
+    {
+        if ( filesIncluded == null )
+        {
+            scan();
+        }
+
+        final List<String> added = new ArrayList<String>();
+        final List<String> modified = new ArrayList<String>();
+        for ( String name : filesIncluded )
+        {
+            if ( !previous.contains( name ) )
+            {
+                added.add( name );
+                continue;
+            }
+
+            final File file = new File( basedir, name );
+            final FileAttributes attributes = filesIncludedAttributes.get( name );
+            final long size = attributes != null ? attributes.getSize() : file.length();
+            final long lastModified = attributes != null ? attributes.getLastModified() : file.lastModified();
+            if ( previous.isModified( name, file, size, lastModified ) )
+            {
+                modified.add( name );
+            }
+        }
+
+        final Set<String> current = new HashSet<String>( filesIncluded );
+        final List<String> removed = new ArrayList<String>();
+        for ( String name : previous.getFiles() )
+        {
+            if ( !current.contains( name ) )
+            {
+                removed.add( name );
+            }
+        }
+
+        return new DirectoryScanResult( added.toArray( new String[added.size()] ),
+                                        removed.toArray( new String[removed.size()] ),
+                                        modified.toArray( new String[modified.size()] ) );
+    }
+
 
     /**
      * Take an array of type T and convert it into a HashSet of type T.
@@ -523,25 +683,64 @@ public class DirectoryScanner
 
         final String[] notIncl = dirsNotIncluded.toArray( new String[dirsNotIncluded.size()] );
 
-        for ( String anExcl : excl )
+        final ParallelScandir parallelScandir = createParallelScandir();
+        try
         {
-            if ( !couldHoldIncluded( anExcl ) )
+            for ( String anExcl : excl )
             {
-                scandir( new File( basedir, anExcl ), anExcl + File.separator, false );
+                if ( !couldHoldIncluded( anExcl ) )
+                {
+                    scandir( parallelScandir, new File( basedir, anExcl ), anExcl + File.separator, false );
+                }
             }
-        }
 
-        for ( String aNotIncl : notIncl )
+            for ( String aNotIncl : notIncl )
+            {
+                if ( !couldHoldIncluded( aNotIncl ) )
+                {
+                    scandir( parallelScandir, new File( basedir, aNotIncl ), aNotIncl + File.separator, false );
+                }
+            }
+        }
+        finally
         {
-            if ( !couldHoldIncluded( aNotIncl ) )
+            if ( parallelScandir != null )
             {
-                scandir( new File( basedir, aNotIncl ), aNotIncl + File.separator, false );
+                parallelScandir.shutdown();
             }
         }
 
         haveSlowResults = true;
     }
 
+    /**
+     * @return a new {@link ParallelScandir} if a parallel scan got requested, <code>null</code> otherwise.
+     */
+    @Nullable
+    private ParallelScandir createParallelScandir()
+    {
+        if ( parallelism < 2 )
+        {
+            return null;
+        }
+        return new ParallelScandir( this, scanConductor, followSymlinks, parallelism, filesIncluded,
+                                    filesIncludedAttributes, filesNotIncluded, filesExcluded, dirsIncluded,
+                                    dirsNotIncluded, dirsExcluded );
+    }
+
+    private void scandir( @Nullable final ParallelScandir parallelScandir, @Nonnull final File dir,
+                          @Nonnull final String vpath, final boolean fast )
+    {
+        if ( parallelScandir != null )
+        {
+            parallelScandir.scandir( dir, vpath, fast );
+        }
+        else
+        {
+            scandir( dir, vpath, fast );
+        }
+    }
+
     /**
      * Scans the given directory for files and directories. Found files and directories are placed in their respective
      * collections, based on the matching of includes, excludes, and the selectors. When a directory is found, it is
@@ -580,14 +779,20 @@ public class DirectoryScanner
             // throw new IOException( "IO error scanning directory " + dir.getAbsolutePath() );
         }
 
+        FileAttributes[] attributes = null;
+
         if ( !followSymlinks )
         {
             final List<String> noLinks = new ArrayList<String>();
+            final List<FileAttributes> noLinksAttributes = new ArrayList<FileAttributes>();
             for ( final String newfile : newfiles )
             {
                 try
                 {
-                    if ( isSymbolicLink( dir, newfile ) )
+                    final FileAttributes fileAttributes = readAttributes( dir, newfile, false );
+                    if ( fileAttributes != null
+                        ? fileAttributes.isSymbolicLink()
+                        : isSymbolicLink( dir, newfile ) )
                     {
                         final String name = vpath + newfile;
                         final File file = new File( dir, newfile );
@@ -603,6 +808,7 @@ public class DirectoryScanner
                     else
                     {
                         noLinks.add( newfile );
+                        noLinksAttributes.add( fileAttributes );
                     }
                 }
                 catch ( final IOException ioe )
@@ -612,16 +818,21 @@ public class DirectoryScanner
                     // will be caught and redirected to Ant's logging system
                     System.err.println( msg );
                     noLinks.add( newfile );
+                    noLinksAttributes.add( null );
                 }
             }
             newfiles = noLinks.toArray( new String[noLinks.size()] );
+            attributes = noLinksAttributes.toArray( new FileAttributes[noLinksAttributes.size()] );
         }
 
-        for ( final String newfile : newfiles )
+        for ( int i = 0; i < newfiles.length; i++ )
         {
+            final String newfile = newfiles[i];
             final String name = vpath + newfile;
             final File file = new File( dir, newfile );
-            if ( file.isDirectory() )
+            final FileAttributes fileAttributes =
+                attributes != null ? attributes[i] : readAttributes( dir, newfile, true );
+            if ( isDirectory( file, fileAttributes ) )
             {
                 if ( isIncluded( name ) )
                 {
@@ -704,7 +915,7 @@ public class DirectoryScanner
                     scanAction = null;
                 }
             }
-            else if ( file.isFile() )
+            else if ( isFile( file, fileAttributes ) )
             {
                 if ( isIncluded( name ) )
                 {
@@ -722,6 +933,10 @@ public class DirectoryScanner
                         }
 
                         filesIncluded.add( name );
+                        if ( fileAttributes != null )
+                        {
+                            filesIncludedAttributes.put( name, fileAttributes );
+                        }
                     }
                     else
                     {
@@ -736,6 +951,66 @@ public class DirectoryScanner
         }
     }
 
+    /**
+     * Reads the basic attributes of a directory entry if {@link #setUseFileAttributes(boolean)} is enabled.
+     *
+     * @param parent      the parent directory of the entry
+     * @param name        the name of the entry
+     * @param followLinks whether or not symbolic links should be followed
+     * @return the attributes, or <code>null</code> if attributes are not used or the entry doesn't exist anymore
+     */
+    @Nullable
+    FileAttributes readAttributes( @Nonnull final File parent, @Nonnull final String name, final boolean followLinks )
+    {
+        if ( !useFileAttributes )
+        {
+            return null;
+        }
+
+        final File file = new File( parent, name );
+        if ( Java7Support.isJava7() )
+        {
+            try
+            {
+                return Java7Support.readAttributes( file, followLinks );
+            }
+            catch ( IOException e )
+            {
+                // the entry vanished or is a dangling link, File.isDirectory() and isFile() would report false as well
+                return null;
+            }
+        }
+
+        if ( !file.exists() )
+        {
+            return null;
+        }
+        boolean symbolicLink = false;
+        if ( !followLinks )
+        {
+            try
+            {
+                symbolicLink = isSymbolicLink( parent, name );
+            }
+            catch ( final IOException ioe )
+            {
+                System.err.println( "IOException caught while checking for links, couldn't get cannonical path!" );
+            }
+        }
+        return new FileAttributes( file.isDirectory(), file.isFile(), symbolicLink, file.length(),
+                                   file.lastModified() );
+    }
+
+    boolean isDirectory( @Nonnull final File file, @Nullable final FileAttributes attributes )
+    {
+        return useFileAttributes ? attributes != null && attributes.isDirectory() : file.isDirectory();
+    }
+
+    boolean isFile( @Nonnull final File file, @Nullable final FileAttributes attributes )
+    {
+        return useFileAttributes ? attributes != null && attributes.isRegularFile() : file.isFile();
+    }
+
     /**
      * Tests whether or not a name matches against at least one include pattern.
      *
@@ -788,6 +1063,22 @@ public class DirectoryScanner
         return filesIncluded.toArray( new String[filesIncluded.size()] );
     }
 
+    /**
+     * Returns the attributes of the files which matched at least one of the include patterns and none of the exclude
+     * patterns, keyed by their names relative to the base directory. The attributes are only captured if
+     * {@link #setUseFileAttributes(boolean)} got enabled before the scan.
+     *
+     * @return the attributes of the included files, in the order of {@link #getIncludedFiles()}.
+     */
+    public Map<String, FileAttributes> getIncludedFileAttributes()
+    {
+        if ( filesIncludedAttributes == null )
+        {
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap( filesIncludedAttributes );
+    }
+
     /**
      * Returns the names of the files which matched none of the include patterns. The names are relative to the base
      * directory. This involves performing a slow scan if one has not already been completed.
@@ -0,0 +1,90 @@
+package org.apache.maven.shared.utils.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * The basic attributes of a file as they got captured by a {@link DirectoryScanner}.
+ * <p/>
+ * Consumers of the scan result can use them to check the staleness of a file without accessing the file system
+ * again.
+ */
+public class FileAttributes
+{
+    private final boolean directory;
+
+    private final boolean regularFile;
+
+    private final boolean symbolicLink;
+
+    private final long size;
+
+    private final long lastModified;
+
+    public FileAttributes( boolean directory, boolean regularFile, boolean symbolicLink, long size,
+                           long lastModified )
+    {
+        this.directory = directory;
+        this.regularFile = regularFile;
+        this.symbolicLink = symbolicLink;
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * @return <code>true</code> if the file is a directory
+     */
+    public boolean isDirectory()
+    {
+        return directory;
+    }
+
+    /**
+     * @return <code>true</code> if the file is a regular file
+     */
+    public boolean isRegularFile()
+    {
+        return regularFile;
+    }
+
+    /**
+     * @return <code>true</code> if the file is a symbolic link. Only set if the attributes got read without following
+     *         symbolic links.
+     */
+    public boolean isSymbolicLink()
+    {
+        return symbolicLink;
+    }
+
+    /**
+     * @return the size of the file in bytes
+     */
+    public long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * @return the time the file was last modified, in milliseconds since the epoch
+     */
+    public long getLastModified()
+    {
+        return lastModified;
+    }
+}
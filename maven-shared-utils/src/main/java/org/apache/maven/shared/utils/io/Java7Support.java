@@ -20,6 +20,8 @@ package org.apache.maven.shared.utils.io;
  */
 
 import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
@@ -37,6 +39,26 @@ public class Java7Support
 
     private static Method toPath;
 
+    private static Method readAttributes;
+
+    private static Class<?> basicFileAttributes;
+
+    private static Object followLinks;
+
+    private static Object noFollowLinks;
+
+    private static Method isDirectory;
+
+    private static Method isRegularFile;
+
+    private static Method isSymbolicLinkAttribute;
+
+    private static Method size;
+
+    private static Method lastModifiedTime;
+
+    private static Method toMillis;
+
     static
     {
         boolean isJava7x = true;
@@ -46,7 +68,30 @@ public class Java7Support
             Class<?> path = Class.forName( "java.nio.file.Path" );
             isSymbolicLink = files.getMethod( "isSymbolicLink", path );
             toPath = File.class.getMethod( "toPath" );
-        } catch (ClassNotFoundException e)
+
+            Class<?> linkOption = Class.forName( "java.nio.file.LinkOption" );
+            Class<?> linkOptions = Array.newInstance( linkOption, 0 ).getClass();
+            basicFileAttributes = Class.forName( "java.nio.file.attribute.BasicFileAttributes" );
+            readAttributes = files.getMethod( "readAttributes", path, Class.class, linkOptions );
+            followLinks = Array.newInstance( linkOption, 0 );
+            noFollowLinks = Array.newInstance( linkOption, 1 );
+            Array.set( noFollowLinks, 0, linkOption.getField( "NOFOLLOW_LINKS" ).get( null ) );
+            isDirectory = basicFileAttributes.getMethod( "isDirectory" );
+            isRegularFile = basicFileAttributes.getMethod( "isRegularFile" );
+            isSymbolicLinkAttribute = basicFileAttributes.getMethod( "isSymbolicLink" );
+            size = basicFileAttributes.getMethod( "size" );
+            lastModifiedTime = basicFileAttributes.getMethod( "lastModifiedTime" );
+            toMillis = Class.forName( "java.nio.file.attribute.FileTime" ).getMethod( "toMillis" );
+        }
+        catch ( NoSuchFieldException e )
+        {
+            isJava7x = false;
+        }
+        catch ( IllegalAccessException e )
+        {
+            isJava7x = false;
+        }
+        catch (ClassNotFoundException e)
         {
             isJava7x = false;
         } catch (NoSuchMethodException e)
@@ -75,6 +120,43 @@ public class Java7Support
 
 
 
+    /**
+     * Reads the basic attributes of a file with a single file system access.
+     *
+     * @param file        the file to read the attributes of
+     * @param followLinks whether or not symbolic links should be followed. If not the attributes of the link itself
+     *                    are returned.
+     * @return the attributes of the file
+     * @throws IOException if the file does not exist or its attributes can not be read
+     */
+    public static FileAttributes readAttributes( File file, boolean followLinks )
+        throws IOException
+    {
+        try
+        {
+            Object path = toPath.invoke( file );
+            Object attributes = readAttributes.invoke( null, path, basicFileAttributes,
+                                                       followLinks ? Java7Support.followLinks : noFollowLinks );
+            return new FileAttributes( (Boolean) isDirectory.invoke( attributes ),
+                                       (Boolean) isRegularFile.invoke( attributes ),
+                                       (Boolean) isSymbolicLinkAttribute.invoke( attributes ),
+                                       (Long) size.invoke( attributes ),
+                                       (Long) toMillis.invoke( lastModifiedTime.invoke( attributes ) ) );
+        }
+        catch ( IllegalAccessException e )
+        {
+            throw new RuntimeException( e );
+        }
+        catch ( InvocationTargetException e )
+        {
+            if ( e.getTargetException() instanceof IOException )
+            {
+                throw (IOException) e.getTargetException();
+            }
+            throw new RuntimeException( e.getTargetException() );
+        }
+    }
+
     public static boolean isJava7()
     {
         return isJava7;
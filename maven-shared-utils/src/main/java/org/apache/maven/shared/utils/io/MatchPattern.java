@@ -23,6 +23,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.StringTokenizer;
+import java.util.regex.Pattern;
 
 import javax.annotation.Nonnull;
 
@@ -37,17 +38,19 @@ public class MatchPattern
 {
     private final String source;
 
-    private final String regexPattern;
+    private final Pattern regexPattern;
 
     private final String separator;
 
     private final String[] tokenized;
 
+    private final String altSource;
+
     private MatchPattern( @Nonnull String source, @Nonnull String separator )
     {
-        regexPattern = SelectorUtils.isRegexPrefixedPattern( source ) ? source.substring(
+        regexPattern = SelectorUtils.isRegexPrefixedPattern( source ) ? Pattern.compile( source.substring(
             SelectorUtils.REGEX_HANDLER_PREFIX.length(),
-            source.length() - SelectorUtils.PATTERN_HANDLER_SUFFIX.length() ) : null;
+            source.length() - SelectorUtils.PATTERN_HANDLER_SUFFIX.length() ) ) : null;
         this.source =
             SelectorUtils.isAntPrefixedPattern( source ) ? source.substring( SelectorUtils.ANT_HANDLER_PREFIX.length(),
                                                                              source.length()
@@ -55,6 +58,7 @@ public class MatchPattern
                 : source;
         this.separator = separator;
         tokenized = tokenizePathToString( this.source, separator );
+        altSource = this.source.replace( '\\', '/' );
     }
 
 
@@ -62,7 +66,7 @@ public class MatchPattern
     {
         if ( regexPattern != null )
         {
-            return str.matches( regexPattern );
+            return regexPattern.matcher( str ).matches();
         }
         else
         {
@@ -70,18 +74,6 @@ public class MatchPattern
         }
     }
 
-    boolean matchPath( String str, String[] strDirs, boolean isCaseSensitive )
-    {
-        if ( regexPattern != null )
-        {
-            return str.matches( regexPattern );
-        }
-        else
-        {
-            return SelectorUtils.matchAntPathPattern( getTokenizedPathString(), strDirs, isCaseSensitive );
-        }
-    }
-
     public boolean matchPatternStart( @Nonnull String str, boolean isCaseSensitive )
     {
         if ( regexPattern != null )
@@ -92,13 +84,16 @@ public class MatchPattern
         }
         else
         {
-            String altStr = source.replace( '\\', '/' );
-
             return SelectorUtils.matchAntPathPatternStart( this, str, File.separator, isCaseSensitive )
-                || SelectorUtils.matchAntPathPatternStart( this, altStr, "/", isCaseSensitive );
+                || SelectorUtils.matchAntPathPatternStart( this, altSource, "/", isCaseSensitive );
         }
     }
 
+    boolean isRegex()
+    {
+        return regexPattern != null;
+    }
+
     public String[] getTokenizedPathString()
     {
         return tokenized;
@@ -20,27 +20,102 @@ package org.apache.maven.shared.utils.io;
  */
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Nonnull;
 
 /**
  * A list of patterns to be matched
+ * <p/>
+ * For case sensitive matching the patterns get compiled into an index, so a path can be classified against all
+ * patterns with a few lookups instead of matching each pattern on its own:
+ * <ul>
+ * <li><code>**&#47;name</code> patterns are looked up by the last path segment</li>
+ * <li><code>**&#47;name&#47;**</code> patterns are looked up by every path segment</li>
+ * <li>patterns starting with a literal segment are looked up by the first path segment</li>
+ * </ul>
+ * Only the remaining patterns (including <code>%regex[]</code> patterns) get matched one by one.
  *
  * @author Kristian Rosenvold
  */
 public class MatchPatterns
 {
+    private static final MatchPattern[] NO_PATTERNS = new MatchPattern[0];
+
     private final MatchPattern[] patterns;
 
+    /**
+     * The names of all <code>**&#47;name</code> patterns.
+     */
+    private final SegmentSet lastSegments = new SegmentSet();
+
+    /**
+     * The names of all <code>**&#47;name&#47;**</code> patterns.
+     */
+    private final SegmentSet anySegments = new SegmentSet();
+
+    /**
+     * The patterns starting with a literal segment, keyed by this segment.
+     */
+    private final Map<String, MatchPattern[]> firstSegments = new HashMap<String, MatchPattern[]>();
+
+    /**
+     * The patterns which need to be matched one by one.
+     */
+    private final MatchPattern[] others;
+
     private MatchPatterns( @Nonnull MatchPattern... patterns )
     {
         this.patterns = patterns;
+
+        final Map<String, List<MatchPattern>> byFirstSegment = new HashMap<String, List<MatchPattern>>();
+        final List<MatchPattern> unindexed = new ArrayList<MatchPattern>();
+        for ( MatchPattern pattern : patterns )
+        {
+            final String[] tokenized = pattern.getTokenizedPathString();
+            if ( pattern.isRegex() || tokenized.length == 0 )
+            {
+                unindexed.add( pattern );
+            }
+            else if ( tokenized.length == 2 && "**".equals( tokenized[0] ) && isLiteral( tokenized[1] ) )
+            {
+                lastSegments.add( tokenized[1] );
+            }
+            else if ( tokenized.length == 3 && "**".equals( tokenized[0] ) && isLiteral( tokenized[1] )
+                && "**".equals( tokenized[2] ) )
+            {
+                anySegments.add( tokenized[1] );
+            }
+            else if ( isLiteral( tokenized[0] ) )
+            {
+                List<MatchPattern> candidates = byFirstSegment.get( tokenized[0] );
+                if ( candidates == null )
+                {
+                    candidates = new ArrayList<MatchPattern>();
+                    byFirstSegment.put( tokenized[0], candidates );
+                }
+                candidates.add( pattern );
+            }
+            else
+            {
+                unindexed.add( pattern );
+            }
+        }
+
+        for ( Map.Entry<String, List<MatchPattern>> entry : byFirstSegment.entrySet() )
+        {
+            firstSegments.put( entry.getKey(), entry.getValue().toArray( NO_PATTERNS ) );
+        }
+        others = unindexed.toArray( NO_PATTERNS );
     }
 
     /**
      * Checks these MatchPatterns against a specified string.
      * <p/>
-     * Uses far less string tokenization than any of the alternatives.
+     * The name doesn't get tokenized, the patterns are matched against the segments of the name in place.
      *
      * @param name            The name to look for
      * @param isCaseSensitive If the comparison is case sensitive
@@ -48,10 +123,59 @@ public class MatchPatterns
      */
     public boolean matches( @Nonnull String name, boolean isCaseSensitive )
     {
-        String[] tokenized = MatchPattern.tokenizePathToString( name, File.separator );
+        if ( !isCaseSensitive )
+        {
+            // the index can't reproduce the character wise case insensitive comparison of SelectorUtils
+            return matches( patterns, name, false );
+        }
+
+        // walk the path segments by their offsets, only the first one gets extracted to look up its patterns
+        final int length = name.length();
+        int lastStart = -1;
+        int lastEnd = -1;
+        int start = 0;
+        while ( start < length )
+        {
+            int end = name.indexOf( File.separatorChar, start );
+            if ( end < 0 )
+            {
+                end = length;
+            }
+            if ( end > start )
+            {
+                if ( lastStart < 0 && !firstSegments.isEmpty() )
+                {
+                    final MatchPattern[] candidates = firstSegments.get( name.substring( start, end ) );
+                    if ( candidates != null && matches( candidates, name, true ) )
+                    {
+                        return true;
+                    }
+                }
+                if ( anySegments.contains( name, start, end ) )
+                {
+                    return true;
+                }
+                lastStart = start;
+                lastEnd = end;
+            }
+            start = end + 1;
+        }
+
+        if ( lastStart >= 0 && lastSegments.contains( name, lastStart, lastEnd ) )
+        {
+            return true;
+        }
+
+        return matches( others, name, true );
+    }
+
+    private static boolean matches( MatchPattern[] patterns, String name, boolean isCaseSensitive )
+    {
         for ( MatchPattern pattern : patterns )
         {
-            if ( pattern.matchPath( name, tokenized, isCaseSensitive ) )
+            if ( pattern.isRegex() ? pattern.matchPath( name, isCaseSensitive )
+                : SelectorUtils.matchAntPathPattern( pattern.getTokenizedPathString(), name, File.separatorChar,
+                                                     isCaseSensitive ) )
             {
                 return true;
             }
@@ -59,6 +183,14 @@ public class MatchPatterns
         return false;
     }
 
+    /**
+     * @return <code>true</code> if the path segment of a pattern doesn't contain any wildcards.
+     */
+    private static boolean isLiteral( String segment )
+    {
+        return segment.indexOf( '*' ) < 0 && segment.indexOf( '?' ) < 0;
+    }
+
     public boolean matchesPatternStart( @Nonnull String name, boolean isCaseSensitive )
     {
         for ( MatchPattern includesPattern : patterns )
@@ -82,4 +214,66 @@ public class MatchPatterns
         return new MatchPatterns( result );
     }
 
+    /**
+     * A set of literal path segments, which are looked up by their region of a path, so the path segments don't need
+     * to be extracted.
+     */
+    private static final class SegmentSet
+    {
+        /**
+         * The segments by their length.
+         */
+        private String[][] byLength = new String[0][];
+
+        void add( String segment )
+        {
+            final int length = segment.length();
+            if ( contains( segment, 0, length ) )
+            {
+                return;
+            }
+
+            if ( length >= byLength.length )
+            {
+                String[][] grown = new String[length + 1][];
+                System.arraycopy( byLength, 0, grown, 0, byLength.length );
+                byLength = grown;
+            }
+
+            String[] segments = byLength[length];
+            if ( segments == null )
+            {
+                byLength[length] = new String[]{ segment };
+            }
+            else
+            {
+                String[] added = new String[segments.length + 1];
+                System.arraycopy( segments, 0, added, 0, segments.length );
+                added[segments.length] = segment;
+                byLength[length] = added;
+            }
+        }
+
+        /**
+         * @return <code>true</code> if the characters of the path from <code>start</code> to <code>end</code> are one
+         *         of the segments.
+         */
+        boolean contains( String path, int start, int end )
+        {
+            final int length = end - start;
+            if ( length >= byLength.length || byLength[length] == null )
+            {
+                return false;
+            }
+            for ( String segment : byLength[length] )
+            {
+                if ( path.regionMatches( start, segment, 0, length ) )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
 }
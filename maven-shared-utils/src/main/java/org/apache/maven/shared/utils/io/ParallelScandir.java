@@ -0,0 +1,502 @@
+package org.apache.maven.shared.utils.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Parallel variant of {@link DirectoryScanner#scandir(File, String, boolean)}.
+ * <p/>
+ * Every directory gets listed and classified by its own task on a fixed thread pool. A task records its results as
+ * an ordered list of entries and links the sub directories in at the place where the sequential scan would have
+ * descended into them. Once all tasks are finished the tree gets walked depth first to fill the result lists of the
+ * scanner, so the result order is exactly the one of a sequential scan.
+ * <p/>
+ * If a {@link ScanConductor} requests {@link ScanConductor.ScanAction#ABORT} the position of this entry in the
+ * depth first order gets remembered. All work behind this position gets skipped and nothing behind it gets merged
+ * into the result, whereas all entries in front of it are still scanned completely.
+ */
+class ParallelScandir
+{
+    private static final int FILE_INCLUDED = 0;
+
+    private static final int FILE_NOT_INCLUDED = 1;
+
+    private static final int FILE_EXCLUDED = 2;
+
+    private static final int DIR_INCLUDED = 3;
+
+    private static final int DIR_NOT_INCLUDED = 4;
+
+    private static final int DIR_EXCLUDED = 5;
+
+    private final DirectoryScanner scanner;
+
+    private final ScanConductor scanConductor;
+
+    private final boolean followSymlinks;
+
+    private final List<List<String>> results;
+
+    private final Map<String, FileAttributes> filesIncludedAttributes;
+
+    private final ExecutorService executor;
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Object lock = new Object();
+
+    private volatile int[] abortPosition;
+
+    private volatile Throwable failure;
+
+    ParallelScandir( @Nonnull DirectoryScanner scanner, ScanConductor scanConductor, boolean followSymlinks,
+                     int parallelism, List<String> filesIncluded,
+                     Map<String, FileAttributes> filesIncludedAttributes, List<String> filesNotIncluded,
+                     List<String> filesExcluded, List<String> dirsIncluded, List<String> dirsNotIncluded,
+                     List<String> dirsExcluded )
+    {
+        this.scanner = scanner;
+        this.scanConductor = scanConductor;
+        this.followSymlinks = followSymlinks;
+        this.filesIncludedAttributes = filesIncludedAttributes;
+
+        results = new ArrayList<List<String>>( 6 );
+        results.add( filesIncluded );
+        results.add( filesNotIncluded );
+        results.add( filesExcluded );
+        results.add( dirsIncluded );
+        results.add( dirsNotIncluded );
+        results.add( dirsExcluded );
+
+        executor = Executors.newFixedThreadPool( parallelism, new ScannerThreadFactory() );
+    }
+
+    /**
+     * Scans the given directory and all its sub directories in parallel and appends the results to the lists of the
+     * scanner. Blocks until the whole tree got scanned.
+     *
+     * @param dir   The directory to scan.
+     * @param vpath The path relative to the base directory.
+     * @param fast  Whether or not this call is part of a fast scan.
+     */
+    void scandir( @Nonnull File dir, @Nonnull String vpath, boolean fast )
+    {
+        abortPosition = null;
+        failure = null;
+
+        Node root = new Node( new int[0] );
+        submit( root, dir, vpath, fast );
+
+        synchronized ( lock )
+        {
+            while ( pending.get() > 0 )
+            {
+                try
+                {
+                    lock.wait();
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                    failure = e;
+                    throw new IllegalStateException( "Interrupted while scanning " + dir );
+                }
+            }
+        }
+
+        if ( failure instanceof RuntimeException )
+        {
+            throw (RuntimeException) failure;
+        }
+        if ( failure instanceof Error )
+        {
+            throw (Error) failure;
+        }
+
+        merge( root );
+    }
+
+    void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    private void submit( final Node node, final File dir, final String vpath, final boolean fast )
+    {
+        pending.incrementAndGet();
+        executor.execute( new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    scan( node, dir, vpath, fast );
+                }
+                catch ( Throwable t )
+                {
+                    failure = t;
+                }
+                finally
+                {
+                    if ( pending.decrementAndGet() == 0 )
+                    {
+                        synchronized ( lock )
+                        {
+                            lock.notifyAll();
+                        }
+                    }
+                }
+            }
+        } );
+    }
+
+    /**
+     * Scans a single directory. This mirrors {@link DirectoryScanner#scandir(File, String, boolean)} but records the
+     * results in the given node and hands sub directories over to the thread pool instead of recursing.
+     */
+    private void scan( Node node, File dir, String vpath, boolean fast )
+    {
+        if ( isAborted( node.position, 0 ) )
+        {
+            return;
+        }
+
+        String[] newfiles = dir.list();
+
+        if ( newfiles == null )
+        {
+            newfiles = new String[0];
+        }
+
+        FileAttributes[] attributes = null;
+
+        if ( !followSymlinks )
+        {
+            final List<String> noLinks = new ArrayList<String>();
+            final List<FileAttributes> noLinksAttributes = new ArrayList<FileAttributes>();
+            for ( final String newfile : newfiles )
+            {
+                try
+                {
+                    final FileAttributes fileAttributes = scanner.readAttributes( dir, newfile, false );
+                    if ( fileAttributes != null
+                        ? fileAttributes.isSymbolicLink()
+                        : scanner.isSymbolicLink( dir, newfile ) )
+                    {
+                        final String name = vpath + newfile;
+                        final File file = new File( dir, newfile );
+                        node.add( file.isDirectory() ? DIR_EXCLUDED : FILE_EXCLUDED, name, null );
+                    }
+                    else
+                    {
+                        noLinks.add( newfile );
+                        noLinksAttributes.add( fileAttributes );
+                    }
+                }
+                catch ( final IOException ioe )
+                {
+                    final String msg =
+                        "IOException caught while checking " + "for links, couldn't get cannonical path!";
+                    System.err.println( msg );
+                    noLinks.add( newfile );
+                    noLinksAttributes.add( null );
+                }
+            }
+            newfiles = noLinks.toArray( new String[noLinks.size()] );
+            attributes = noLinksAttributes.toArray( new FileAttributes[noLinksAttributes.size()] );
+        }
+
+        for ( int i = 0; i < newfiles.length; i++ )
+        {
+            if ( isAborted( node.position, i ) )
+            {
+                return;
+            }
+
+            final String name = vpath + newfiles[i];
+            final File file = new File( dir, newfiles[i] );
+            final FileAttributes fileAttributes =
+                attributes != null ? attributes[i] : scanner.readAttributes( dir, newfiles[i], true );
+            ScanConductor.ScanAction scanAction = null;
+
+            if ( scanner.isDirectory( file, fileAttributes ) )
+            {
+                if ( scanner.isIncluded( name ) )
+                {
+                    if ( !scanner.isExcluded( name ) )
+                    {
+                        if ( scanConductor != null )
+                        {
+                            scanAction = scanConductor.visitDirectory( name, file );
+
+                            if ( stop( node, i, scanAction ) )
+                            {
+                                return;
+                            }
+                        }
+
+                        if ( !ScanConductor.ScanAction.NO_RECURSE.equals( scanAction ) )
+                        {
+                            node.add( DIR_INCLUDED, name, null );
+                            if ( fast )
+                            {
+                                fork( node, i, file, name + File.separator, fast );
+                            }
+                        }
+                    }
+                    else
+                    {
+                        node.add( DIR_EXCLUDED, name, null );
+                        if ( fast && scanner.couldHoldIncluded( name ) )
+                        {
+                            fork( node, i, file, name + File.separator, fast );
+                        }
+                    }
+                }
+                else if ( fast && scanner.couldHoldIncluded( name ) )
+                {
+                    if ( scanConductor != null )
+                    {
+                        scanAction = scanConductor.visitDirectory( name, file );
+
+                        if ( stop( node, i, scanAction ) )
+                        {
+                            return;
+                        }
+                    }
+                    if ( !ScanConductor.ScanAction.NO_RECURSE.equals( scanAction ) )
+                    {
+                        node.add( DIR_NOT_INCLUDED, name, null );
+                        fork( node, i, file, name + File.separator, fast );
+                    }
+                }
+                if ( !fast )
+                {
+                    fork( node, i, file, name + File.separator, fast );
+                }
+            }
+            else if ( scanner.isFile( file, fileAttributes ) )
+            {
+                if ( scanner.isIncluded( name ) )
+                {
+                    if ( !scanner.isExcluded( name ) )
+                    {
+                        if ( scanConductor != null )
+                        {
+                            scanAction = scanConductor.visitFile( name, file );
+
+                            if ( stop( node, i, scanAction ) )
+                            {
+                                return;
+                            }
+                        }
+
+                        node.add( FILE_INCLUDED, name, fileAttributes );
+                    }
+                    else
+                    {
+                        node.add( FILE_EXCLUDED, name, null );
+                    }
+                }
+                else
+                {
+                    node.add( FILE_NOT_INCLUDED, name, null );
+                }
+            }
+        }
+    }
+
+    private void fork( Node parent, int index, File dir, String vpath, boolean fast )
+    {
+        Node child = new Node( position( parent.position, index ) );
+        parent.entries.add( child );
+        submit( child, dir, vpath, fast );
+    }
+
+    /**
+     * @return <code>true</code> if the scan of the current directory must be stopped.
+     */
+    private boolean stop( Node node, int index, ScanConductor.ScanAction scanAction )
+    {
+        if ( ScanConductor.ScanAction.ABORT.equals( scanAction ) )
+        {
+            node.aborted = true;
+            int[] position = position( node.position, index );
+            synchronized ( lock )
+            {
+                if ( abortPosition == null || compare( position, abortPosition ) < 0 )
+                {
+                    abortPosition = position;
+                }
+            }
+            return true;
+        }
+        return ScanConductor.ScanAction.ABORT_DIRECTORY.equals( scanAction );
+    }
+
+    /**
+     * @return <code>true</code> if the entry at the given index of the given directory comes behind an aborted entry
+     *         in the depth first order, or if the scan failed.
+     */
+    private boolean isAborted( int[] position, int index )
+    {
+        if ( failure != null )
+        {
+            return true;
+        }
+
+        final int[] abort = abortPosition;
+        if ( abort == null )
+        {
+            return false;
+        }
+
+        for ( int i = 0; i <= position.length; i++ )
+        {
+            if ( i >= abort.length )
+            {
+                return true;
+            }
+            int current = i < position.length ? position[i] : index;
+            if ( current != abort[i] )
+            {
+                return current > abort[i];
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Appends the results of the given node to the result lists in depth first order.
+     *
+     * @return <code>false</code> if the scan got aborted within this node.
+     */
+    private boolean merge( Node node )
+    {
+        for ( Object entry : node.entries )
+        {
+            if ( entry instanceof Node )
+            {
+                if ( !merge( (Node) entry ) )
+                {
+                    return false;
+                }
+            }
+            else
+            {
+                Entry result = (Entry) entry;
+                results.get( result.kind ).add( result.name );
+                if ( result.attributes != null )
+                {
+                    filesIncludedAttributes.put( result.name, result.attributes );
+                }
+            }
+        }
+        return !node.aborted;
+    }
+
+    private static int[] position( int[] parent, int index )
+    {
+        int[] position = new int[parent.length + 1];
+        System.arraycopy( parent, 0, position, 0, parent.length );
+        position[parent.length] = index;
+        return position;
+    }
+
+    private static int compare( int[] a, int[] b )
+    {
+        for ( int i = 0; i < a.length && i < b.length; i++ )
+        {
+            if ( a[i] != b[i] )
+            {
+                return a[i] < b[i] ? -1 : 1;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    /**
+     * The scan result of a single directory.
+     */
+    private static final class Node
+    {
+        /**
+         * The indices of this directory and all its parents within their directory listings.
+         */
+        final int[] position;
+
+        /**
+         * {@link Entry}s and sub {@link Node}s in the order the sequential scan would produce them.
+         */
+        final List<Object> entries = new ArrayList<Object>();
+
+        boolean aborted;
+
+        Node( int[] position )
+        {
+            this.position = position;
+        }
+
+        void add( int kind, String name, FileAttributes attributes )
+        {
+            entries.add( new Entry( kind, name, attributes ) );
+        }
+    }
+
+    private static final class Entry
+    {
+        final int kind;
+
+        final String name;
+
+        final FileAttributes attributes;
+
+        Entry( int kind, String name, FileAttributes attributes )
+        {
+            this.kind = kind;
+            this.name = name;
+            this.attributes = attributes;
+        }
+    }
+
+    private static final class ScannerThreadFactory
+        implements ThreadFactory
+    {
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread( Runnable r )
+        {
+            Thread thread = new Thread( r, "DirectoryScanner-" + count.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package org.apache.maven.shared.utils.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The state (size, modification time and optionally a checksum) of the included files of a {@link DirectoryScanner}
+ * at a given time.
+ * <p/>
+ * A snapshot can be persisted with {@link #write(File)} and compared against a later scan with
+ * {@link DirectoryScanner#diffSnapshot(ScanSnapshot)} to find the added, removed and modified files.
+ *
+ * @see DirectoryScanner#createSnapshot(ScanSnapshot, boolean)
+ */
+public class ScanSnapshot
+{
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String CHECKSUM_ALGORITHM = "SHA-1";
+
+    private final Map<String, FileState> files = new LinkedHashMap<String, FileState>();
+
+    /**
+     * Reads a snapshot written by {@link #write(File)}.
+     *
+     * @param file the file to read the snapshot from
+     * @return the snapshot
+     * @throws IOException if the file can't be read or doesn't contain a snapshot
+     */
+    public static ScanSnapshot read( @Nonnull File file )
+        throws IOException
+    {
+        DataInputStream in = null;
+        try
+        {
+            in = new DataInputStream( new BufferedInputStream( new FileInputStream( file ) ) );
+            if ( in.readInt() != FORMAT_VERSION )
+            {
+                throw new IOException( "Unsupported snapshot format in " + file );
+            }
+
+            ScanSnapshot snapshot = new ScanSnapshot();
+            int count = in.readInt();
+            for ( int i = 0; i < count; i++ )
+            {
+                String name = in.readUTF();
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                byte[] checksum = null;
+                int checksumLength = in.readShort();
+                if ( checksumLength >= 0 )
+                {
+                    checksum = new byte[checksumLength];
+                    in.readFully( checksum );
+                }
+                snapshot.files.put( name, new FileState( size, lastModified, checksum ) );
+            }
+            return snapshot;
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    /**
+     * Writes this snapshot in a compact binary format.
+     *
+     * @param file the file to write the snapshot to
+     * @throws IOException if the file can't be written
+     */
+    public void write( @Nonnull File file )
+        throws IOException
+    {
+        DataOutputStream out = null;
+        try
+        {
+            out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( file ) ) );
+            out.writeInt( FORMAT_VERSION );
+            out.writeInt( files.size() );
+            for ( Map.Entry<String, FileState> entry : files.entrySet() )
+            {
+                FileState state = entry.getValue();
+                out.writeUTF( entry.getKey() );
+                out.writeLong( state.size );
+                out.writeLong( state.lastModified );
+                if ( state.checksum == null )
+                {
+                    out.writeShort( -1 );
+                }
+                else
+                {
+                    out.writeShort( state.checksum.length );
+                    out.write( state.checksum );
+                }
+            }
+            out.close();
+            out = null;
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+    }
+
+    /**
+     * @return the names of the files in this snapshot, relative to the base directory of the scanner.
+     */
+    public Set<String> getFiles()
+    {
+        return Collections.unmodifiableSet( files.keySet() );
+    }
+
+    void put( @Nonnull String name, long size, long lastModified, @Nullable byte[] checksum )
+    {
+        files.put( name, new FileState( size, lastModified, checksum ) );
+    }
+
+    boolean contains( @Nonnull String name )
+    {
+        return files.containsKey( name );
+    }
+
+    /**
+     * @return the checksum of the given file if it got recorded and the file still has the recorded size and
+     *         modification time, <code>null</code> otherwise.
+     */
+    @Nullable
+    byte[] getUnchangedChecksum( @Nonnull String name, long size, long lastModified )
+    {
+        FileState state = files.get( name );
+        if ( state == null || state.size != size || state.lastModified != lastModified )
+        {
+            return null;
+        }
+        return state.checksum;
+    }
+
+    /**
+     * Checks whether the given file changed since this snapshot got taken. A file with a different modification time
+     * but the same size is only considered as modified if no checksum got recorded or the checksum differs.
+     *
+     * @param name         the name of the file, relative to the base directory
+     * @param file         the file
+     * @param size         the current size of the file
+     * @param lastModified the current modification time of the file
+     * @return <code>true</code> if the file got modified
+     * @throws IOException if the checksum of the file can't be calculated
+     */
+    boolean isModified( @Nonnull String name, @Nonnull File file, long size, long lastModified )
+        throws IOException
+    {
+        FileState state = files.get( name );
+        if ( state.size != size )
+        {
+            return true;
+        }
+        if ( state.lastModified == lastModified )
+        {
+            return false;
+        }
+        return state.checksum == null || !Arrays.equals( state.checksum, checksum( file ) );
+    }
+
+    static byte[] checksum( @Nonnull File file )
+        throws IOException
+    {
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance( CHECKSUM_ALGORITHM );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( CHECKSUM_ALGORITHM + " is not supported by this JVM" );
+        }
+
+        InputStream in = null;
+        try
+        {
+            in = new FileInputStream( file );
+            byte[] buffer = new byte[8192];
+            int read;
+            while ( ( read = in.read( buffer ) ) != -1 )
+            {
+                digest.update( buffer, 0, read );
+            }
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+        return digest.digest();
+    }
+
+    private static final class FileState
+    {
+        final long size;
+
+        final long lastModified;
+
+        final byte[] checksum;
+
+        FileState( long size, long lastModified, byte[] checksum )
+        {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.checksum = checksum;
+        }
+    }
+}
@@ -384,35 +384,40 @@ public final class SelectorUtils
      */
     public static boolean match( String pattern, String str, boolean isCaseSensitive )
     {
-        char[] patArr = pattern.toCharArray();
-        char[] strArr = str.toCharArray();
+        return match( pattern, str, 0, str.length(), isCaseSensitive );
+    }
+
+    /**
+     * Tests whether or not a range of a character sequence matches against a pattern without copying any characters.
+     *
+     * @param pattern         The pattern to match against.
+     * @param str             The character sequence containing the range to match.
+     * @param start           The index of the first character of the range.
+     * @param end             The index after the last character of the range.
+     * @param isCaseSensitive Whether or not matching should be performed case sensitively.
+     * @return <code>true</code> if the range matches against the pattern, or <code>false</code> otherwise.
+     */
+    static boolean match( String pattern, CharSequence str, int start, int end, boolean isCaseSensitive )
+    {
         int patIdxStart = 0;
-        int patIdxEnd = patArr.length - 1;
-        int strIdxStart = 0;
-        int strIdxEnd = strArr.length - 1;
+        int patIdxEnd = pattern.length() - 1;
+        int strIdxStart = start;
+        int strIdxEnd = end - 1;
         char ch;
 
-        boolean containsStar = false;
-        for ( char aPatArr : patArr )
-        {
-            if ( aPatArr == '*' )
-            {
-                containsStar = true;
-                break;
-            }
-        }
+        boolean containsStar = pattern.indexOf( '*' ) >= 0;
 
         if ( !containsStar )
         {
             // No '*'s, so we make a shortcut
-            if ( patIdxEnd != strIdxEnd )
+            if ( patIdxEnd != strIdxEnd - strIdxStart )
             {
                 return false; // Pattern and string do not have the same size
             }
             for ( int i = 0; i <= patIdxEnd; i++ )
             {
-                ch = patArr[i];
-                if ( ch != '?' && !equals( ch, strArr[i], isCaseSensitive ) )
+                ch = pattern.charAt( i );
+                if ( ch != '?' && !equals( ch, str.charAt( strIdxStart + i ), isCaseSensitive ) )
                 {
                     return false; // Character mismatch
                 }
@@ -426,9 +431,9 @@ public final class SelectorUtils
         }
 
         // Process characters before first star
-        while ( ( ch = patArr[patIdxStart] ) != '*' && strIdxStart <= strIdxEnd )
+        while ( ( ch = pattern.charAt( patIdxStart ) ) != '*' && strIdxStart <= strIdxEnd )
         {
-            if ( ch != '?' && !equals( ch, strArr[strIdxStart], isCaseSensitive ) )
+            if ( ch != '?' && !equals( ch, str.charAt( strIdxStart ), isCaseSensitive ) )
             {
                 return false; // Character mismatch
             }
@@ -441,7 +446,7 @@ public final class SelectorUtils
             // left in the pattern. If so, we succeeded. Otherwise failure.
             for ( int i = patIdxStart; i <= patIdxEnd; i++ )
             {
-                if ( patArr[i] != '*' )
+                if ( pattern.charAt( i ) != '*' )
                 {
                     return false;
                 }
@@ -450,9 +455,9 @@ public final class SelectorUtils
         }
 
         // Process characters after last star
-        while ( ( ch = patArr[patIdxEnd] ) != '*' && strIdxStart <= strIdxEnd )
+        while ( ( ch = pattern.charAt( patIdxEnd ) ) != '*' && strIdxStart <= strIdxEnd )
         {
-            if ( ch != '?' && !equals( ch, strArr[strIdxEnd], isCaseSensitive ) )
+            if ( ch != '?' && !equals( ch, str.charAt( strIdxEnd ), isCaseSensitive ) )
             {
                 return false; // Character mismatch
             }
@@ -465,7 +470,7 @@ public final class SelectorUtils
             // left in the pattern. If so, we succeeded. Otherwise failure.
             for ( int i = patIdxStart; i <= patIdxEnd; i++ )
             {
-                if ( patArr[i] != '*' )
+                if ( pattern.charAt( i ) != '*' )
                 {
                     return false;
                 }
@@ -480,7 +485,7 @@ public final class SelectorUtils
             int patIdxTmp = -1;
             for ( int i = patIdxStart + 1; i <= patIdxEnd; i++ )
             {
-                if ( patArr[i] == '*' )
+                if ( pattern.charAt( i ) == '*' )
                 {
                     patIdxTmp = i;
                     break;
@@ -502,8 +507,8 @@ public final class SelectorUtils
             {
                 for ( int j = 0; j < patLength; j++ )
                 {
-                    ch = patArr[patIdxStart + j + 1];
-                    if ( ch != '?' && !equals( ch, strArr[strIdxStart + i + j], isCaseSensitive ) )
+                    ch = pattern.charAt( patIdxStart + j + 1 );
+                    if ( ch != '?' && !equals( ch, str.charAt( strIdxStart + i + j ), isCaseSensitive ) )
                     {
                         continue strLoop;
                     }
@@ -526,7 +531,7 @@ public final class SelectorUtils
         // in the pattern. If so, we succeeded. Otherwise failure.
         for ( int i = patIdxStart; i <= patIdxEnd; i++ )
         {
-            if ( patArr[i] != '*' )
+            if ( pattern.charAt( i ) != '*' )
             {
                 return false;
             }
@@ -586,49 +591,221 @@ public final class SelectorUtils
             return false;
         }
 
-        return matchAntPathPatternStart( pattern.getTokenizedPathString(), str, separator, isCaseSensitive );
+        return matchAntPathPatternStart( pattern.getTokenizedPathString(), str, separator.charAt( 0 ),
+                                         isCaseSensitive );
     }
 
-    private static String[] tokenizePathToString( @Nonnull String path, @Nonnull String separator )
+    /**
+     * Tests whether or not a path matches the start of a tokenized pattern. The path segments are located by their
+     * offsets within the path, so no tokens get allocated.
+     */
+    static boolean matchAntPathPatternStart( @Nonnull String[] patDirs, @Nonnull CharSequence str, char separator,
+                                             boolean isCaseSensitive )
     {
-        List<String> ret = new ArrayList<String>();
-        StringTokenizer st = new StringTokenizer( path, separator );
-        while ( st.hasMoreTokens() )
+        final int strEnd = str.length();
+
+        int patIdxStart = 0;
+        int patIdxEnd = patDirs.length - 1;
+        int strStart = skipSeparators( str, 0, strEnd, separator );
+
+        // up to first '**'
+        while ( patIdxStart <= patIdxEnd && strStart < strEnd )
         {
-            ret.add( st.nextToken() );
+            String patDir = patDirs[patIdxStart];
+            if ( patDir.equals( "**" ) )
+            {
+                break;
+            }
+            int segmentEnd = segmentEnd( str, strStart, strEnd, separator );
+            if ( !match( patDir, str, strStart, segmentEnd, isCaseSensitive ) )
+            {
+                return false;
+            }
+            patIdxStart++;
+            strStart = skipSeparators( str, segmentEnd, strEnd, separator );
         }
-        return ret.toArray( new String[ret.size()] );
+
+        return strStart >= strEnd || patIdxStart <= patIdxEnd;
     }
 
-    private static boolean matchAntPathPatternStart( @Nonnull String[] patDirs,
-                                                     @Nonnull String str,
-                                                     @Nonnull  String separator,
-                                                     boolean isCaseSensitive )
+    /**
+     * Tests whether or not a path matches a tokenized pattern. This is the same algorithm as
+     * {@link #matchAntPathPattern(String[], String[], boolean)}, but the path segments are located by their offsets
+     * within the path, so neither tokens nor character arrays get allocated.
+     */
+    static boolean matchAntPathPattern( @Nonnull String[] patDirs, @Nonnull CharSequence str, char separator,
+                                        boolean isCaseSensitive )
     {
-        String[] strDirs = tokenizePathToString( str, separator );
-
         int patIdxStart = 0;
         int patIdxEnd = patDirs.length - 1;
-        int strIdxStart = 0;
-        int strIdxEnd = strDirs.length - 1;
+        // the unmatched part of the path, without leading and trailing separators
+        int strStart = skipSeparators( str, 0, str.length(), separator );
+        int strEnd = skipSeparatorsBackwards( str, str.length(), strStart, separator );
 
         // up to first '**'
-        while ( patIdxStart <= patIdxEnd && strIdxStart <= strIdxEnd )
+        while ( patIdxStart <= patIdxEnd && strStart < strEnd )
         {
             String patDir = patDirs[patIdxStart];
             if ( patDir.equals( "**" ) )
             {
                 break;
             }
-            if ( !match( patDir, strDirs[strIdxStart], isCaseSensitive ) )
+            int segmentEnd = segmentEnd( str, strStart, strEnd, separator );
+            if ( !match( patDir, str, strStart, segmentEnd, isCaseSensitive ) )
             {
                 return false;
             }
             patIdxStart++;
-            strIdxStart++;
+            strStart = skipSeparators( str, segmentEnd, strEnd, separator );
+        }
+        if ( strStart >= strEnd )
+        {
+            // String is exhausted
+            return onlyDoubleStars( patDirs, patIdxStart, patIdxEnd );
+        }
+        else if ( patIdxStart > patIdxEnd )
+        {
+            // String not exhausted, but pattern is. Failure.
+            return false;
         }
 
-        return strIdxStart > strIdxEnd || patIdxStart <= patIdxEnd;
+        // up to last '**'
+        while ( patIdxStart <= patIdxEnd && strStart < strEnd )
+        {
+            String patDir = patDirs[patIdxEnd];
+            if ( patDir.equals( "**" ) )
+            {
+                break;
+            }
+            int segmentStart = segmentStart( str, strEnd, strStart, separator );
+            if ( !match( patDir, str, segmentStart, strEnd, isCaseSensitive ) )
+            {
+                return false;
+            }
+            patIdxEnd--;
+            strEnd = skipSeparatorsBackwards( str, segmentStart, strStart, separator );
+        }
+        if ( strStart >= strEnd )
+        {
+            // String is exhausted
+            return onlyDoubleStars( patDirs, patIdxStart, patIdxEnd );
+        }
+
+        while ( patIdxStart != patIdxEnd && strStart < strEnd )
+        {
+            int patIdxTmp = -1;
+            for ( int i = patIdxStart + 1; i <= patIdxEnd; i++ )
+            {
+                if ( patDirs[i].equals( "**" ) )
+                {
+                    patIdxTmp = i;
+                    break;
+                }
+            }
+            if ( patIdxTmp == patIdxStart + 1 )
+            {
+                // '**/**' situation, so skip one
+                patIdxStart++;
+                continue;
+            }
+            // Find the pattern between padIdxStart & padIdxTmp in str between
+            // strStart & strEnd
+            int patLength = ( patIdxTmp - patIdxStart - 1 );
+            int foundEnd = -1;
+            strLoop:
+            for ( int i = strStart; i < strEnd;
+                  i = skipSeparators( str, segmentEnd( str, i, strEnd, separator ), strEnd, separator ) )
+            {
+                int position = i;
+                for ( int j = 0; j < patLength; j++ )
+                {
+                    if ( position >= strEnd )
+                    {
+                        // not enough segments left
+                        break strLoop;
+                    }
+                    int segmentEnd = segmentEnd( str, position, strEnd, separator );
+                    if ( !match( patDirs[patIdxStart + j + 1], str, position, segmentEnd, isCaseSensitive ) )
+                    {
+                        continue strLoop;
+                    }
+                    position = skipSeparators( str, segmentEnd, strEnd, separator );
+                }
+
+                foundEnd = position;
+                break;
+            }
+
+            if ( foundEnd == -1 )
+            {
+                return false;
+            }
+
+            patIdxStart = patIdxTmp;
+            strStart = foundEnd;
+        }
+
+        return onlyDoubleStars( patDirs, patIdxStart, patIdxEnd );
+    }
+
+    private static boolean onlyDoubleStars( String[] patDirs, int start, int end )
+    {
+        for ( int i = start; i <= end; i++ )
+        {
+            if ( !patDirs[i].equals( "**" ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the index of the first character at or after <code>index</code> which is not a separator.
+     */
+    private static int skipSeparators( CharSequence str, int index, int end, char separator )
+    {
+        while ( index < end && str.charAt( index ) == separator )
+        {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @return the index after the last character before <code>index</code> which is not a separator.
+     */
+    private static int skipSeparatorsBackwards( CharSequence str, int index, int start, char separator )
+    {
+        while ( index > start && str.charAt( index - 1 ) == separator )
+        {
+            index--;
+        }
+        return index;
+    }
+
+    /**
+     * @return the index after the last character of the segment starting at <code>index</code>.
+     */
+    private static int segmentEnd( CharSequence str, int index, int end, char separator )
+    {
+        while ( index < end && str.charAt( index ) != separator )
+        {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @return the index of the first character of the segment ending before <code>index</code>.
+     */
+    private static int segmentStart( CharSequence str, int index, int start, char separator )
+    {
+        while ( index > start && str.charAt( index - 1 ) != separator )
+        {
+            index--;
+        }
+        return index;
     }
 
     private static boolean separatorPatternStartSlashMismatch( @Nonnull MatchPattern matchPattern, @Nonnull String str,
@@ -792,8 +969,7 @@ public final class SelectorUtils
         {
             return false;
         }
-        String[] patDirs = matchPattern.getTokenizedPathString();
-        String[] strDirs = tokenizePathToString( str, separator );
-        return matchAntPathPattern( patDirs, strDirs, isCaseSensitive );
+        return matchAntPathPattern( matchPattern.getTokenizedPathString(), str, separator.charAt( 0 ),
+                                    isCaseSensitive );
     }
 }
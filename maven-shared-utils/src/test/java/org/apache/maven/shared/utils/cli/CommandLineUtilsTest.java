@@ -19,7 +19,10 @@ package org.apache.maven.shared.utils.cli;
  * under the License.
  */
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
@@ -94,6 +97,52 @@ public class CommandLineUtilsTest
         assertCmdLineArgs( new String[] { "foo", " ' ", "bar" }, "foo \" ' \" bar" );
     }
 
+    public void testExecuteCommandLineWithTimeout()
+        throws Exception
+    {
+        Commandline cl = new Commandline();
+        cl.setExecutable( new File( System.getProperty( "java.home" ), "bin/java" ).getAbsolutePath() );
+        cl.createArg().setValue( "-version" );
+
+        final List<String> lines = new ArrayList<String>();
+        StreamConsumer consumer = new StreamConsumer()
+        {
+            public void consumeLine( String line )
+            {
+                lines.add( line );
+            }
+        };
+
+        long start = System.currentTimeMillis();
+        assertEquals( 0, CommandLineUtils.executeCommandLine( cl, consumer, consumer, 60 ) );
+        assertTrue( System.currentTimeMillis() - start < 60000 );
+        assertFalse( lines.isEmpty() );
+    }
+
+    public void testExecuteCommandLineTimeout()
+        throws Exception
+    {
+        if ( Os.isFamily( Os.FAMILY_WINDOWS ) )
+        {
+            return;
+        }
+
+        Commandline cl = new Commandline();
+        cl.setExecutable( "sleep" );
+        cl.createArg().setValue( "30" );
+
+        long start = System.currentTimeMillis();
+        try
+        {
+            CommandLineUtils.executeCommandLine( cl, new DefaultConsumer(), new DefaultConsumer(), 1 );
+            fail( "timeout expected" );
+        }
+        catch ( CommandLineTimeOutException e )
+        {
+            assertTrue( System.currentTimeMillis() - start < 20000 );
+        }
+    }
+
     private void assertCmdLineArgs( String[] expected, String cmdLine )
         throws Exception
     {
@@ -31,6 +31,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 public class DirectoryScannerTest
 {
@@ -290,6 +291,178 @@ public class DirectoryScannerTest
         Assert.assertEquals( 2, removedFiles.length );
     }
 
+    private void createDeepTestData()
+        throws IOException
+    {
+        File rootDir = tempFolder.getRoot();
+        for ( int i = 0; i < 5; i++ )
+        {
+            for ( int j = 0; j < 5; j++ )
+            {
+                File folder = new File( rootDir, "folder" + i + "/sub" + j + "/subsub" );
+                folder.mkdirs();
+                FileTestHelper.generateTestFile( new File( folder.getParentFile(), "file" + j + ".txt" ), 10 );
+                FileTestHelper.generateTestFile( new File( folder, "file" + j + ".dat" ), 10 );
+                FileTestHelper.generateTestFile( new File( folder, "file" + j + ".txt" ), 10 );
+            }
+        }
+    }
+
+    private DirectoryScanner scanDeepTestData( int parallelism, ScanConductor scanConductor, String[] includes,
+                                               String[] excludes )
+    {
+        DirectoryScanner ds = new DirectoryScanner();
+        ds.setBasedir( tempFolder.getRoot() );
+        ds.setParallelism( parallelism );
+        ds.setScanConductor( scanConductor );
+        ds.setIncludes( includes );
+        ds.setExcludes( excludes );
+        ds.scan();
+        return ds;
+    }
+
+    private void assertSameScanResult( DirectoryScanner expected, DirectoryScanner actual )
+    {
+        Assert.assertArrayEquals( expected.getIncludedFiles(), actual.getIncludedFiles() );
+        Assert.assertArrayEquals( expected.getIncludedDirectories(), actual.getIncludedDirectories() );
+        Assert.assertArrayEquals( expected.getNotIncludedFiles(), actual.getNotIncludedFiles() );
+        Assert.assertArrayEquals( expected.getNotIncludedDirectories(), actual.getNotIncludedDirectories() );
+        Assert.assertArrayEquals( expected.getExcludedFiles(), actual.getExcludedFiles() );
+        Assert.assertArrayEquals( expected.getExcludedDirectories(), actual.getExcludedDirectories() );
+    }
+
+    @Test
+    public void testParallelScan()
+        throws Exception
+    {
+        createDeepTestData();
+
+        String[] includes = { "folder1/**", "folder2/**", "**/*.txt" };
+        String[] excludes = { "**/sub2/**", "**/file3.*" };
+
+        DirectoryScanner sequential = scanDeepTestData( 1, null, includes, excludes );
+        DirectoryScanner parallel = scanDeepTestData( 4, null, includes, excludes );
+
+        Assert.assertTrue( sequential.getIncludedFiles().length > 0 );
+        assertSameScanResult( sequential, parallel );
+    }
+
+    @Test
+    public void testParallelScanAbort()
+        throws Exception
+    {
+        createDeepTestData();
+
+        String abortAt = "folder2/sub3/subsub/file3.dat".replace( '/', File.separatorChar );
+
+        DirectoryScanner sequential = scanDeepTestData( 1, new AbortingScanConductor( abortAt ), null, null );
+        DirectoryScanner parallel = scanDeepTestData( 4, new AbortingScanConductor( abortAt ), null, null );
+
+        List<String> includedFiles = Arrays.asList( parallel.getIncludedFiles() );
+        Assert.assertFalse( includedFiles.contains( abortAt ) );
+        Assert.assertTrue( includedFiles.size() > 0 );
+        assertSameScanResult( sequential, parallel );
+    }
+
+    @Test
+    public void testScanWithFileAttributes()
+        throws Exception
+    {
+        createDeepTestData();
+
+        for ( boolean followSymlinks : new boolean[]{ true, false } )
+        {
+            DirectoryScanner expected = new DirectoryScanner();
+            expected.setBasedir( tempFolder.getRoot() );
+            expected.setFollowSymlinks( followSymlinks );
+            expected.scan();
+
+            DirectoryScanner ds = new DirectoryScanner();
+            ds.setBasedir( tempFolder.getRoot() );
+            ds.setFollowSymlinks( followSymlinks );
+            ds.setUseFileAttributes( true );
+            ds.scan();
+
+            assertSameScanResult( expected, ds );
+
+            String[] includedFiles = ds.getIncludedFiles();
+            Map<String, FileAttributes> attributes = ds.getIncludedFileAttributes();
+            Assert.assertArrayEquals( includedFiles, attributes.keySet().toArray( new String[attributes.size()] ) );
+            for ( String includedFile : includedFiles )
+            {
+                File file = new File( tempFolder.getRoot(), includedFile );
+                FileAttributes fileAttributes = attributes.get( includedFile );
+                Assert.assertTrue( fileAttributes.isRegularFile() );
+                Assert.assertFalse( fileAttributes.isDirectory() );
+                Assert.assertEquals( file.length(), fileAttributes.getSize() );
+                Assert.assertEquals( file.lastModified() / 1000, fileAttributes.getLastModified() / 1000 );
+            }
+        }
+
+        DirectoryScanner parallel = new DirectoryScanner();
+        parallel.setBasedir( tempFolder.getRoot() );
+        parallel.setParallelism( 4 );
+        parallel.setUseFileAttributes( true );
+        parallel.scan();
+        Assert.assertArrayEquals( parallel.getIncludedFiles(), parallel.getIncludedFileAttributes().keySet().toArray() );
+    }
+
+    private static class AbortingScanConductor
+        implements ScanConductor
+    {
+        private final String abortAt;
+
+        AbortingScanConductor( String abortAt )
+        {
+            this.abortAt = abortAt;
+        }
+
+        public ScanConductor.ScanAction visitDirectory( String name, File directory )
+        {
+            return ScanAction.CONTINUE;
+        }
+
+        public ScanConductor.ScanAction visitFile( String name, File file )
+        {
+            return abortAt.equals( name ) ? ScanAction.ABORT : ScanAction.CONTINUE;
+        }
+    }
+
+    @Test
+    public void testScanSnapshotDiff()
+        throws Exception
+    {
+        createTestData();
+
+        DirectoryScanner dss = new DirectoryScanner();
+        dss.setBasedir( tempFolder.getRoot() );
+        dss.setUseFileAttributes( true );
+        ScanSnapshot snapshot = dss.createSnapshot( null, true );
+
+        File snapshotFile = File.createTempFile( "snapshot", ".bin" );
+        snapshotFile.deleteOnExit();
+        snapshot.write( snapshotFile );
+
+        removeAndAddSomeFiles();
+        File rootDir = tempFolder.getRoot();
+        FileTestHelper.generateTestFile( new File( rootDir, "file1.txt" ), 21 );
+        File file3 = new File( rootDir, "file3.dat" );
+        Assert.assertTrue( file3.setLastModified( file3.lastModified() - 10000 ) );
+
+        DirectoryScanner rescan = new DirectoryScanner();
+        rescan.setBasedir( rootDir );
+        DirectoryScanResult dsr = rescan.diffSnapshot( ScanSnapshot.read( snapshotFile ) );
+
+        checkFiles( "filesAdded", new String[]{ "folder1/file9.txt" }, dsr.getFilesAdded() );
+        checkFiles( "filesRemoved", new String[]{ "file2.txt", "folder1/ignorefolder/file7.txt" },
+                    dsr.getFilesRemoved() );
+        checkFiles( "filesModified", new String[]{ "file1.txt" }, dsr.getFilesModified() );
+
+        // without checksums the touched file counts as modified as well
+        dsr = rescan.diffSnapshot( dss.createSnapshot( null, false ) );
+        checkFiles( "filesModified", new String[]{ "file1.txt", "file3.dat" }, dsr.getFilesModified() );
+    }
+
     @Ignore("Enable this test to run performance checks")
     @Test
     public void performanceTest()
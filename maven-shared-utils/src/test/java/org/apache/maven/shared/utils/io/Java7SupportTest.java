@@ -23,7 +23,9 @@ import java.io.File;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class Java7SupportTest
 {
@@ -38,4 +40,21 @@ public class Java7SupportTest
             assertFalse( Java7Support.isSymLink( file ) );
         }
     }
+
+    @Test
+    public void testReadAttributes()
+        throws Exception
+    {
+        File file = new File( "pom.xml" );
+        if ( Java7Support.isJava7() )
+        {
+            FileAttributes attributes = Java7Support.readAttributes( file, false );
+            assertTrue( attributes.isRegularFile() );
+            assertFalse( attributes.isDirectory() );
+            assertFalse( attributes.isSymbolicLink() );
+            assertEquals( file.length(), attributes.getSize() );
+
+            assertTrue( Java7Support.readAttributes( new File( "." ), true ).isDirectory() );
+        }
+    }
 }
@@ -19,6 +19,8 @@ package org.apache.maven.shared.utils.io;
  * under the License.
  */
 
+import java.io.File;
+
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -37,4 +39,49 @@ public class MatchPatternsTest
         assertTrue( from.matches( "CDEF", true ) );
         assertFalse( from.matches( "XYZ", true ) );
     }
+
+    @Test
+    public void matchesLikeSinglePatterns()
+        throws Exception
+    {
+        String[] sources = new String[DirectoryScanner.DEFAULTEXCLUDES.length + 5];
+        System.arraycopy( DirectoryScanner.DEFAULTEXCLUDES, 0, sources, 0, DirectoryScanner.DEFAULTEXCLUDES.length );
+        sources[sources.length - 5] = "src/main/**/*.java";
+        sources[sources.length - 4] = "src/test";
+        sources[sources.length - 3] = "**/target/**";
+        sources[sources.length - 2] = "%regex[.*\\.properties]";
+        sources[sources.length - 1] = "**/*.xml";
+        for ( int i = 0; i < sources.length; i++ )
+        {
+            sources[i] = sources[i].replace( '/', File.separatorChar );
+        }
+
+        String[] paths = { "", "CVS", "a/CVS", "a/cvs", "a/CVS/b", "CVS/b/c", "a/b/.svn/entries", "a.txt~", "src",
+            "src/main/java/Foo.java", "src/main/Foo.class", "src/test", "src/test/Foo.java", "target",
+            "x/target/classes", "a/b.properties", "pom.xml", "a/.git", "a/.gitignore", "SRC/main/Foo.java", "a//CVS/b",
+            "src//main/java/Foo.java/" };
+
+        MatchPatterns matchPatterns = MatchPatterns.from( sources );
+        for ( String path : paths )
+        {
+            path = path.replace( '/', File.separatorChar );
+            for ( boolean caseSensitive : new boolean[]{ true, false } )
+            {
+                boolean expected = false;
+                for ( String source : sources )
+                {
+                    expected |= SelectorUtils.matchPath( source, path, caseSensitive );
+                }
+                assertEquals( path + " caseSensitive=" + caseSensitive, expected,
+                              matchPatterns.matches( path, caseSensitive ) );
+            }
+        }
+
+        assertTrue( matchPatterns.matches( "a/CVS/b".replace( '/', File.separatorChar ), true ) );
+        assertFalse( matchPatterns.matches( "a/b.txt".replace( '/', File.separatorChar ), true ) );
+
+        MatchPatterns lastSegment = MatchPatterns.from( "**/b.txt".replace( '/', File.separatorChar ) );
+        assertTrue( lastSegment.matches( "a//b.txt".replace( '/', File.separatorChar ), true ) );
+        assertFalse( lastSegment.matches( "b.txt/c".replace( '/', File.separatorChar ), true ) );
+    }
 }
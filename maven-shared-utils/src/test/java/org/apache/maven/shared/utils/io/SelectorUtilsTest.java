@@ -22,7 +22,11 @@ package org.apache.maven.shared.utils.io;
 import static org.junit.Assert.*;
 
 import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
 
+import org.junit.Ignore;
 import org.junit.Test;
 
 /**
@@ -82,4 +86,107 @@ public class SelectorUtilsTest
     {
         return SelectorUtils.ANT_HANDLER_PREFIX + val + SelectorUtils.PATTERN_HANDLER_SUFFIX;
     }
+
+    private static final String[] PATTERNS =
+        { "**", "**/*.java", "**/CVS/**", "**/CVS", "src/main/**", "src/*/java/**/*.java", "a/**/b/**/c", "**/a?c/**",
+            "*", "a/b", "/a/b", "a//b/", "**/**/x", "a/**/**/b" };
+
+    private static final String[] PATHS =
+        { "", "a", "a/b", "/a/b", "a//b/", "a/x/b/y/c", "a/b/c", "src/main/java/Foo.java", "src/test/java/Foo.java",
+            "x/CVS", "x/CVS/y", "CVS", "x/abc/y", "x/aXc", "deep/path/to/x", "a/b/b/c/c" };
+
+    @Test
+    public void testOffsetMatchingLikeTokenizedMatching()
+    {
+        for ( String pattern : PATTERNS )
+        {
+            String[] patDirs = MatchPattern.tokenizePathToString( pattern, "/" );
+            for ( String path : PATHS )
+            {
+                for ( boolean caseSensitive : new boolean[]{ true, false } )
+                {
+                    String msg = pattern + " against " + path;
+                    assertEquals( msg, SelectorUtils.matchAntPathPattern( patDirs, MatchPattern.tokenizePathToString(
+                        path, "/" ), caseSensitive ), SelectorUtils.matchAntPathPattern( patDirs, path, '/',
+                                                                                          caseSensitive ) );
+                    assertEquals( msg, SelectorUtils.matchPatternStart( pattern, path, caseSensitive ),
+                                  pattern.startsWith( "/" ) == path.startsWith( "/" )
+                                      && SelectorUtils.matchAntPathPatternStart( patDirs, path, '/',
+                                                                                 caseSensitive ) );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMatchRange()
+    {
+        assertTrue( SelectorUtils.match( "b*d", "abcde", 1, 4, true ) );
+        assertFalse( SelectorUtils.match( "b*d", "abcde", 1, 5, true ) );
+        assertTrue( SelectorUtils.match( "B?D", "abcde", 1, 4, false ) );
+        assertFalse( SelectorUtils.match( "B?D", "abcde", 1, 4, true ) );
+    }
+
+    @Ignore( "Enable this test to measure the allocations per match" )
+    @Test
+    public void performanceTest()
+        throws Exception
+    {
+        MatchPattern[] patterns = new MatchPattern[DirectoryScanner.DEFAULTEXCLUDES.length];
+        for ( int i = 0; i < patterns.length; i++ )
+        {
+            patterns[i] = MatchPattern.fromString( DirectoryScanner.DEFAULTEXCLUDES[i].replace( '/', File.separatorChar ) );
+        }
+        String path = "src/main/resources/org/apache/maven/shared/utils/some-resource.properties".replace( '/',
+                                                                                                         File.separatorChar );
+
+        MatchPatterns excludes = MatchPatterns.from( DirectoryScanner.DEFAULTEXCLUDES );
+
+        int cycles = 100000;
+        for ( int warmup = 0; warmup < 2; warmup++ )
+        {
+            long allocatedBefore = allocatedBytes();
+            long startTime = System.nanoTime();
+            for ( int i = 0; i < cycles; i++ )
+            {
+                for ( MatchPattern pattern : patterns )
+                {
+                    pattern.matchPath( path, true );
+                    pattern.matchPatternStart( path, true );
+                }
+            }
+            long duration = System.nanoTime() - startTime;
+            long allocated = allocatedBytes() - allocatedBefore;
+
+            long matches = 2L * cycles * patterns.length;
+            System.out.println( "duration per match    [ns]: " + duration / matches );
+            System.out.println( "allocation per match   [b]: " + allocated / matches );
+
+            // the indexed patterns, as the DirectoryScanner matches each path against its excludes
+            allocatedBefore = allocatedBytes();
+            startTime = System.nanoTime();
+            for ( int i = 0; i < cycles; i++ )
+            {
+                excludes.matches( path, true );
+            }
+            duration = System.nanoTime() - startTime;
+            allocated = allocatedBytes() - allocatedBefore;
+
+            System.out.println( "duration per path     [ns]: " + duration / cycles );
+            System.out.println( "allocation per path    [b]: " + allocated / cycles );
+        }
+    }
+
+    /**
+     * @return the bytes allocated by the current thread, if the JVM supports measuring them
+     */
+    private static long allocatedBytes()
+        throws Exception
+    {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Method getThreadAllocatedBytes =
+            threadMXBean.getClass().getMethod( "getThreadAllocatedBytes", long.class );
+        getThreadAllocatedBytes.setAccessible( true );
+        return (Long) getThreadAllocatedBytes.invoke( threadMXBean, Thread.currentThread().getId() );
+    }
 }
@@ -79,16 +79,23 @@ class Classpath3xLauncher
         PrintStream out = ( logFile != null ) ? new PrintStream( new FileOutputStream( logFile ) ) : System.out;
         try
         {
-            Properties originalProperties = System.getProperties();
-            System.setProperties( null );
-            System.setProperty( "maven.home", originalProperties.getProperty( "maven.home", "" ) );
-            System.setProperty( "user.dir", new File( workingDirectory ).getAbsolutePath() );
+            Properties properties = ThreadIsolation.newInitialProperties();
+            properties.setProperty( "maven.home", System.getProperty( "maven.home", "" ) );
+            properties.setProperty( "user.dir", new File( workingDirectory ).getAbsolutePath() );
+            if ( properties.getProperty( "maven.multiModuleProjectDirectory" ) == null )
+            {
+                // required by Maven 3.3+, defaults to the project directory like in the mvn script
+                properties.setProperty( "maven.multiModuleProjectDirectory", properties.getProperty( "user.dir" ) );
+            }
+
+            // the build gets its own system properties and standard streams, MavenCli mustn't swap the global ones
+            ThreadIsolation.enter( properties, out, out );
 
             ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
             Thread.currentThread().setContextClassLoader( mavenCli.getClass().getClassLoader() );
             try
             {
-                Object result = doMain.invoke( mavenCli, new Object[]{ cliArgs, workingDirectory, out, out } );
+                Object result = doMain.invoke( mavenCli, new Object[]{ cliArgs, workingDirectory, null, null } );
 
                 return ( (Number) result ).intValue();
             }
@@ -96,7 +103,7 @@ class Classpath3xLauncher
             {
                 Thread.currentThread().setContextClassLoader( originalClassLoader );
 
-                System.setProperties( originalProperties );
+                ThreadIsolation.exit();
             }
         }
         catch ( IllegalAccessException e )
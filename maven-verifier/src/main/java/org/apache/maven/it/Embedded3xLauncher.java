@@ -44,6 +44,8 @@ class Embedded3xLauncher
     implements MavenLauncher
 {
 
+    private final String mavenHome;
+
     private final Object mavenCli;
 
     private final Method doMain;
@@ -56,6 +58,8 @@ class Embedded3xLauncher
             throw new LauncherException( "Invalid Maven home directory " + mavenHome );
         }
 
+        this.mavenHome = mavenHome;
+
         System.setProperty( "maven.home", mavenHome );
 
         File config = new File( mavenHome, "bin/m2.conf" );
@@ -165,16 +169,23 @@ class Embedded3xLauncher
         PrintStream out = ( logFile != null ) ? new PrintStream( new FileOutputStream( logFile ) ) : System.out;
         try
         {
-            Properties originalProperties = System.getProperties();
-            System.setProperties( null );
-            System.setProperty( "maven.home", originalProperties.getProperty( "maven.home", "" ) );
-            System.setProperty( "user.dir", new File( workingDirectory ).getAbsolutePath() );
+            Properties properties = ThreadIsolation.newInitialProperties();
+            properties.setProperty( "maven.home", mavenHome );
+            properties.setProperty( "user.dir", new File( workingDirectory ).getAbsolutePath() );
+            if ( properties.getProperty( "maven.multiModuleProjectDirectory" ) == null )
+            {
+                // required by Maven 3.3+, defaults to the project directory like in the mvn script
+                properties.setProperty( "maven.multiModuleProjectDirectory", properties.getProperty( "user.dir" ) );
+            }
+
+            // the build gets its own system properties and standard streams, MavenCli mustn't swap the global ones
+            ThreadIsolation.enter( properties, out, out );
 
             ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
             Thread.currentThread().setContextClassLoader( mavenCli.getClass().getClassLoader() );
             try
             {
-                Object result = doMain.invoke( mavenCli, new Object[]{ cliArgs, workingDirectory, out, out } );
+                Object result = doMain.invoke( mavenCli, new Object[]{ cliArgs, workingDirectory, null, null } );
 
                 return ( (Number) result ).intValue();
             }
@@ -182,7 +193,7 @@ class Embedded3xLauncher
             {
                 Thread.currentThread().setContextClassLoader( originalClassLoader );
 
-                System.setProperties( originalProperties );
+                ThreadIsolation.exit();
             }
         }
         catch ( IllegalAccessException e )
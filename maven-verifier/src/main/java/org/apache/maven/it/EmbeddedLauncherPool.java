@@ -0,0 +1,144 @@
+package org.apache.maven.it;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+import org.apache.maven.shared.utils.StringUtils;
+
+/**
+ * The embedded Maven launchers of the JVM, by Maven home directory. A launcher is used by one execution at a time and
+ * returned to the pool afterwards, so its configured class world is reused by the following executions. Concurrent
+ * executions get launchers of their own, i.e. separate class worlds, since Maven disposes the realms created during
+ * an execution when it completes. The launchers of the current class path share its classes.
+ */
+class EmbeddedLauncherPool
+{
+
+    private final Map<String, LinkedList<MavenLauncher>> idleLaunchers =
+        new HashMap<String, LinkedList<MavenLauncher>>();
+
+    private long launchers;
+
+    private long startupTime;
+
+    private long executions;
+
+    private long executionTime;
+
+    /**
+     * Gets an idle launcher of the given Maven installation, starting a new one if all of them are in use.
+     *
+     * @param mavenHome The Maven home directory, may be empty to use the Maven of the current class path.
+     * @return The launcher, to be {@link #release(String, MavenLauncher) released} after the execution.
+     */
+    public MavenLauncher acquire( String mavenHome )
+        throws LauncherException
+    {
+        String key = StringUtils.isEmpty( mavenHome ) ? "" : mavenHome;
+
+        synchronized ( this )
+        {
+            LinkedList<MavenLauncher> idle = idleLaunchers.get( key );
+            if ( idle != null && !idle.isEmpty() )
+            {
+                return idle.removeFirst();
+            }
+        }
+
+        long start = System.currentTimeMillis();
+
+        MavenLauncher launcher;
+        if ( key.length() <= 0 )
+        {
+            launcher = new Classpath3xLauncher();
+        }
+        else
+        {
+            launcher = new Embedded3xLauncher( key );
+        }
+
+        long time = System.currentTimeMillis() - start;
+        synchronized ( this )
+        {
+            launchers++;
+            startupTime += time;
+        }
+
+        return launcher;
+    }
+
+    /**
+     * Returns a launcher to the pool once its execution completed.
+     */
+    public synchronized void release( String mavenHome, MavenLauncher launcher )
+    {
+        String key = StringUtils.isEmpty( mavenHome ) ? "" : mavenHome;
+
+        LinkedList<MavenLauncher> idle = idleLaunchers.get( key );
+        if ( idle == null )
+        {
+            idle = new LinkedList<MavenLauncher>();
+            idleLaunchers.put( key, idle );
+        }
+        idle.addFirst( launcher );
+    }
+
+    /**
+     * Runs Maven with a launcher acquired from this pool and records the time of the execution.
+     */
+    public int run( MavenLauncher launcher, String[] cliArgs, String workingDirectory, File logFile )
+        throws IOException, LauncherException
+    {
+        long start = System.currentTimeMillis();
+        try
+        {
+            return launcher.run( cliArgs, workingDirectory, logFile );
+        }
+        finally
+        {
+            long time = System.currentTimeMillis() - start;
+            synchronized ( this )
+            {
+                executions++;
+                executionTime += time;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of started launchers and executions, and the time they took in milliseconds.
+     */
+    public synchronized Map<String, Long> getMetrics()
+    {
+        Map<String, Long> metrics = new LinkedHashMap<String, Long>();
+        metrics.put( "launchers", Long.valueOf( launchers ) );
+        metrics.put( "startupTime", Long.valueOf( startupTime ) );
+        metrics.put( "executions", Long.valueOf( executions ) );
+        metrics.put( "executionTime", Long.valueOf( executionTime ) );
+        return metrics;
+    }
+
+}
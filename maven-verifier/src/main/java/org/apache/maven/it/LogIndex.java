@@ -0,0 +1,142 @@
+package org.apache.maven.it;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The lines of a build log, loaded once and shared by the log assertions of the {@link Verifier}. The error lines are
+ * collected while indexing and the answers to text and pattern queries are remembered, so repeated assertions against
+ * a large log neither reread nor rescan it. The index is only valid as long as the log file remains unchanged.
+ */
+class LogIndex
+{
+
+    private final File file;
+
+    private final long lastModified;
+
+    private final long length;
+
+    private final List<String> lines;
+
+    private final List<String> errorLines = new ArrayList<String>();
+
+    private final Map<String, Boolean> texts = new HashMap<String, Boolean>();
+
+    private final Map<String, Boolean> patterns = new HashMap<String, Boolean>();
+
+    /**
+     * Creates an index of the given log lines.
+     *
+     * @param file The log file, must not be <code>null</code>.
+     * @param lastModified The modification time of the log file before its lines were loaded.
+     * @param length The length of the log file before its lines were loaded.
+     * @param lines The lines of the log file, must not be <code>null</code>.
+     */
+    public LogIndex( File file, long lastModified, long length, List<String> lines )
+    {
+        this.file = file;
+        this.lastModified = lastModified;
+        this.length = length;
+        this.lines = lines;
+
+        for ( String line : lines )
+        {
+            if ( line.contains( "[ERROR]" ) )
+            {
+                errorLines.add( line );
+            }
+        }
+    }
+
+    /**
+     * Indicates whether this index still reflects the given log file.
+     */
+    public boolean isCurrent( File file )
+    {
+        return this.file.equals( file ) && file.lastModified() == lastModified && file.length() == length;
+    }
+
+    public List<String> getLines()
+    {
+        return lines;
+    }
+
+    /**
+     * Gets the lines containing <code>[ERROR]</code>, in the order of the log.
+     */
+    public List<String> getErrorLines()
+    {
+        return errorLines;
+    }
+
+    /**
+     * Indicates whether a line of the log contains the given text.
+     */
+    public boolean containsText( String text )
+    {
+        Boolean found = texts.get( text );
+        if ( found == null )
+        {
+            found = Boolean.FALSE;
+            for ( String line : lines )
+            {
+                if ( line.contains( text ) )
+                {
+                    found = Boolean.TRUE;
+                    break;
+                }
+            }
+            texts.put( text, found );
+        }
+        return found.booleanValue();
+    }
+
+    /**
+     * Indicates whether the given regular expression can be found in a line of the log.
+     */
+    public boolean containsPattern( String regex )
+    {
+        Boolean found = patterns.get( regex );
+        if ( found == null )
+        {
+            Pattern pattern = Pattern.compile( regex );
+
+            found = Boolean.FALSE;
+            for ( String line : lines )
+            {
+                if ( pattern.matcher( line ).find() )
+                {
+                    found = Boolean.TRUE;
+                    break;
+                }
+            }
+            patterns.put( regex, found );
+        }
+        return found.booleanValue();
+    }
+
+}
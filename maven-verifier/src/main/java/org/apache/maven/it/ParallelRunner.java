@@ -0,0 +1,410 @@
+package org.apache.maven.it;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.maven.shared.utils.WriterFactory;
+import org.apache.maven.shared.utils.io.IOUtil;
+import org.apache.maven.shared.utils.xml.PrettyPrintXMLWriter;
+
+/**
+ * Runs the integration tests of {@link Verifier#main(String[])} several at a time.
+ * <p>
+ * The stream capturing of the verifier is global to the JVM, so it is disabled and each verifier writes its messages,
+ * including those of the hook commands, to a buffer of its test instead, which is printed once the test completed. The
+ * builds write to their log files, the concurrent embedded builds getting launchers, system properties and standard
+ * streams of their own. The tests can use their own local repository, to keep concurrent builds from installing into
+ * the same one.
+ */
+class ParallelRunner
+{
+
+    private static final String SUITE_NAME = "integration-tests";
+
+    private final String basedir;
+
+    private final String settingsFile;
+
+    private final int threads;
+
+    private File localRepoRoot;
+
+    private File reportsDirectory;
+
+    public ParallelRunner( String basedir, String settingsFile, int threads )
+    {
+        this.basedir = basedir;
+        this.settingsFile = settingsFile;
+        this.threads = threads;
+    }
+
+    /**
+     * Parses a number of threads like Maven does, either an absolute number or a multiple of the available processors,
+     * e.g. <code>1.5C</code>.
+     */
+    public static int parseThreads( String value )
+    {
+        try
+        {
+            if ( value.endsWith( "C" ) || value.endsWith( "c" ) )
+            {
+                float factor = Float.parseFloat( value.substring( 0, value.length() - 1 ) );
+                return Math.max( 1, (int) ( factor * Runtime.getRuntime().availableProcessors() ) );
+            }
+            return Math.max( 1, Integer.parseInt( value ) );
+        }
+        catch ( NumberFormatException e )
+        {
+            throw new IllegalArgumentException( "Invalid number of threads: " + value );
+        }
+    }
+
+    /**
+     * Sets the directory of the local repositories of the tests, each test getting its own subdirectory. Defaults to
+     * <code>null</code>, i.e. the tests share the default local repository.
+     */
+    public void setLocalRepoRoot( File localRepoRoot )
+    {
+        this.localRepoRoot = localRepoRoot;
+    }
+
+    /**
+     * Sets the directory of the JUnit-style XML report of the tests. Defaults to <code>null</code>, i.e. no report.
+     */
+    public void setReportsDirectory( File reportsDirectory )
+    {
+        this.reportsDirectory = reportsDirectory;
+    }
+
+    /**
+     * Runs the given tests and prints the outcome of each test once it completed, followed by a timing summary.
+     *
+     * @param tests The directories of the tests, relative to the base directory.
+     * @return The results of the tests, in the order of the tests.
+     */
+    public List<TestResult> run( List<String> tests )
+        throws VerificationException
+    {
+        long start = System.currentTimeMillis();
+
+        List<TestResult> results = new ArrayList<TestResult>( tests.size() );
+
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            CompletionService<TestResult> completion = new ExecutorCompletionService<TestResult>( executor );
+
+            for ( String test : tests )
+            {
+                final TestResult result = new TestResult( test, basedir + "/" + test );
+                results.add( result );
+
+                completion.submit( new Callable<TestResult>()
+                {
+                    public TestResult call()
+                    {
+                        runTest( result );
+                        return result;
+                    }
+                } );
+            }
+
+            for ( int i = tests.size(); i > 0; i-- )
+            {
+                printResult( completion.take().get() );
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new VerificationException( "Interrupted while running the integration tests", e );
+        }
+        catch ( ExecutionException e )
+        {
+            throw new VerificationException( e.getCause() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+
+        printSummary( results, elapsed );
+
+        if ( reportsDirectory != null )
+        {
+            writeReport( results, elapsed, reportsDirectory );
+        }
+
+        return results;
+    }
+
+    private void runTest( TestResult result )
+    {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream log = new PrintStream( buffer, true );
+
+        long start = System.currentTimeMillis();
+        try
+        {
+            // debug keeps the verifier from capturing the global streams
+            Verifier verifier = new Verifier( result.directory, null, true );
+            verifier.setLogStreams( log, log );
+            verifier.findLocalRepo( settingsFile );
+
+            if ( localRepoRoot != null )
+            {
+                File localRepo = new File( localRepoRoot, result.name.replaceAll( "[^A-Za-z0-9._-]", "_" ) );
+                //noinspection ResultOfMethodCallIgnored
+                localRepo.mkdirs();
+                verifier.setLocalRepo( localRepo.getAbsolutePath() );
+            }
+
+            result.verifier = verifier;
+
+            log.println( "Using local repository: " + verifier.localRepo );
+
+            Verifier.runIntegrationTest( verifier, log );
+        }
+        catch ( Throwable e )
+        {
+            result.failure = e;
+        }
+        finally
+        {
+            result.time = System.currentTimeMillis() - start;
+
+            log.close();
+            result.output = buffer.toString();
+        }
+    }
+
+    private static void printResult( TestResult result )
+    {
+        if ( result.failure == null )
+        {
+            System.out.println( result.name + "... OK (" + formatTime( result.time ) + " s)" );
+            return;
+        }
+
+        System.out.println( result.name + "... FAILED (" + formatTime( result.time ) + " s)" );
+
+        if ( result.output.trim().length() > 0 )
+        {
+            System.out.println( "----- Standard Out -----" );
+            System.out.println( result.output );
+        }
+
+        System.out.println( ">>>>>> Error Stacktrace:" );
+        result.failure.printStackTrace( System.out );
+        System.out.println( "<<<<<< Error Stacktrace" );
+
+        if ( result.verifier != null )
+        {
+            result.verifier.displayLogFile();
+        }
+    }
+
+    private static void printSummary( List<TestResult> results, long elapsed )
+    {
+        long total = 0;
+        int failures = 0;
+        for ( TestResult result : results )
+        {
+            total += result.time;
+            if ( result.failure != null )
+            {
+                failures++;
+            }
+        }
+
+        System.out.println();
+        System.out.println( "Results :" );
+        System.out.println();
+        System.out.println( "Tests run: " + results.size() + ", Failures: " + failures + ", Time elapsed: "
+            + formatTime( elapsed ) + " sec, Total test time: " + formatTime( total ) + " sec" );
+
+        Map<String, Long> metrics = Verifier.getEmbeddedLauncherMetrics();
+        if ( metrics.get( "executions" ).longValue() > 0 )
+        {
+            System.out.println( "Embedded launchers: " + metrics.get( "launchers" ) + ", Startup time: "
+                + formatTime( metrics.get( "startupTime" ).longValue() ) + " sec, Executions: "
+                + metrics.get( "executions" ) + ", Execution time: "
+                + formatTime( metrics.get( "executionTime" ).longValue() ) + " sec" );
+        }
+    }
+
+    static void writeReport( List<TestResult> results, long elapsed, File reportsDirectory )
+        throws VerificationException
+    {
+        int failures = 0;
+        int errors = 0;
+        for ( TestResult result : results )
+        {
+            if ( result.failure instanceof VerificationException )
+            {
+                failures++;
+            }
+            else if ( result.failure != null )
+            {
+                errors++;
+            }
+        }
+
+        //noinspection ResultOfMethodCallIgnored
+        reportsDirectory.mkdirs();
+        File reportFile = new File( reportsDirectory, "TEST-" + SUITE_NAME + ".xml" );
+
+        Writer writer = null;
+        try
+        {
+            writer = WriterFactory.newXmlWriter( reportFile );
+
+            PrettyPrintXMLWriter xml = new PrettyPrintXMLWriter( writer, "UTF-8", null );
+
+            xml.startElement( "testsuite" );
+            xml.addAttribute( "name", SUITE_NAME );
+            xml.addAttribute( "tests", String.valueOf( results.size() ) );
+            xml.addAttribute( "failures", String.valueOf( failures ) );
+            xml.addAttribute( "errors", String.valueOf( errors ) );
+            xml.addAttribute( "skipped", "0" );
+            xml.addAttribute( "time", formatTime( elapsed ) );
+
+            for ( TestResult result : results )
+            {
+                xml.startElement( "testcase" );
+                xml.addAttribute( "name", result.name );
+                xml.addAttribute( "classname", SUITE_NAME );
+                xml.addAttribute( "time", formatTime( result.time ) );
+
+                if ( result.failure != null )
+                {
+                    xml.startElement( ( result.failure instanceof VerificationException ) ? "failure" : "error" );
+                    if ( result.failure.getMessage() != null )
+                    {
+                        xml.addAttribute( "message", toXmlText( result.failure.getMessage() ) );
+                    }
+                    xml.addAttribute( "type", result.failure.getClass().getName() );
+
+                    StringWriter trace = new StringWriter();
+                    result.failure.printStackTrace( new PrintWriter( trace ) );
+                    xml.writeText( toXmlText( trace.toString() ) );
+
+                    xml.endElement();
+                }
+
+                if ( result.output != null && result.output.length() > 0 )
+                {
+                    xml.startElement( "system-out" );
+                    xml.writeText( toXmlText( result.output ) );
+                    xml.endElement();
+                }
+
+                xml.endElement();
+            }
+
+            xml.endElement();
+        }
+        catch ( IOException e )
+        {
+            throw new VerificationException( "Failed to write test report " + reportFile, e );
+        }
+        finally
+        {
+            IOUtil.close( writer );
+        }
+    }
+
+    /**
+     * Drops the control characters which XML 1.0 doesn't allow, e.g. the ANSI escapes of colored build output.
+     */
+    private static String toXmlText( String text )
+    {
+        StringBuilder buffer = null;
+        for ( int i = 0; i < text.length(); i++ )
+        {
+            char c = text.charAt( i );
+            if ( c < 0x20 && c != '\t' && c != '\n' && c != '\r' )
+            {
+                if ( buffer == null )
+                {
+                    buffer = new StringBuilder( text.length() );
+                    buffer.append( text, 0, i );
+                }
+            }
+            else if ( buffer != null )
+            {
+                buffer.append( c );
+            }
+        }
+        return ( buffer != null ) ? buffer.toString() : text;
+    }
+
+    private static String formatTime( long millis )
+    {
+        NumberFormat format = new DecimalFormat( "0.000", new DecimalFormatSymbols( Locale.ENGLISH ) );
+        return format.format( millis / 1000.0 );
+    }
+
+    static class TestResult
+    {
+
+        final String name;
+
+        final String directory;
+
+        Verifier verifier;
+
+        long time;
+
+        Throwable failure;
+
+        String output;
+
+        TestResult( String name, String directory )
+        {
+            this.name = name;
+            this.directory = directory;
+        }
+
+    }
+
+}
@@ -0,0 +1,444 @@
+package org.apache.maven.it;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Gives the embedded Maven executions their own system properties and standard streams, so several of them can run
+ * concurrently in one JVM. While at least one execution is active, the system properties and the standard streams of
+ * the JVM delegate to those of the current execution, which are inherited by the threads it starts, and to the
+ * original ones outside of executions. Once the last execution exited, the original ones are restored.
+ */
+final class ThreadIsolation
+{
+
+    private static final RoutingProperties PROPERTIES = new RoutingProperties();
+
+    private static final RoutingOutputStream OUT = new RoutingOutputStream();
+
+    private static final RoutingOutputStream ERR = new RoutingOutputStream();
+
+    private static final PrintStream OUT_STREAM = new PrintStream( OUT, true );
+
+    private static final PrintStream ERR_STREAM = new PrintStream( ERR, true );
+
+    private static Properties initialProperties;
+
+    private static int executions;
+
+    private ThreadIsolation()
+    {
+        // hide constructor
+    }
+
+    /**
+     * Creates a copy of the system properties the JVM started with, i.e. of those restored by
+     * <code>System.setProperties( null )</code>.
+     */
+    public static synchronized Properties newInitialProperties()
+    {
+        if ( initialProperties == null )
+        {
+            Properties current = System.getProperties();
+            System.setProperties( null );
+            initialProperties = copy( System.getProperties() );
+            System.setProperties( current );
+        }
+        return copy( initialProperties );
+    }
+
+    /**
+     * Makes the current thread, and the threads it starts, use the given system properties and standard streams. Each
+     * call must be followed by a call to {@link #exit()} from the same thread.
+     */
+    public static void enter( Properties properties, PrintStream out, PrintStream err )
+    {
+        synchronized ( ThreadIsolation.class )
+        {
+            executions++;
+            install();
+        }
+
+        PROPERTIES.current.set( properties );
+        OUT.current.set( out );
+        ERR.current.set( err );
+    }
+
+    /**
+     * Makes the current thread use the system properties and standard streams of the JVM again. The last execution to
+     * exit restores the original ones of the JVM.
+     */
+    public static void exit()
+    {
+        PROPERTIES.current.remove();
+        OUT.current.remove();
+        ERR.current.remove();
+
+        synchronized ( ThreadIsolation.class )
+        {
+            if ( --executions <= 0 )
+            {
+                executions = 0;
+                uninstall();
+            }
+        }
+    }
+
+    /**
+     * Installs the routing properties and streams, unless they are still installed. Whatever replaced them in the
+     * meantime, e.g. the output capturing of the verifier, becomes the fallback outside of executions.
+     */
+    private static void install()
+    {
+        if ( System.getProperties() != PROPERTIES )
+        {
+            PROPERTIES.fallback = System.getProperties();
+            System.setProperties( PROPERTIES );
+        }
+        if ( System.out != OUT_STREAM )
+        {
+            OUT.fallback = System.out;
+            System.setOut( OUT_STREAM );
+        }
+        if ( System.err != ERR_STREAM )
+        {
+            ERR.fallback = System.err;
+            System.setErr( ERR_STREAM );
+        }
+    }
+
+    /**
+     * Restores the fallbacks of the routing properties and streams, unless they were replaced in the meantime.
+     */
+    private static void uninstall()
+    {
+        if ( System.getProperties() == PROPERTIES )
+        {
+            System.setProperties( PROPERTIES.fallback );
+        }
+        if ( System.out == OUT_STREAM )
+        {
+            System.setOut( OUT.fallback );
+        }
+        if ( System.err == ERR_STREAM )
+        {
+            System.setErr( ERR.fallback );
+        }
+    }
+
+    private static Properties copy( Properties properties )
+    {
+        Properties copy = new Properties();
+        copy.putAll( properties );
+        return copy;
+    }
+
+    private static final class RoutingOutputStream
+        extends OutputStream
+    {
+        final InheritableThreadLocal<PrintStream> current = new InheritableThreadLocal<PrintStream>();
+
+        volatile PrintStream fallback;
+
+        private PrintStream target()
+        {
+            PrintStream target = current.get();
+            return ( target != null ) ? target : fallback;
+        }
+
+        public void write( int b )
+        {
+            target().write( b );
+        }
+
+        public void write( byte[] b, int off, int len )
+        {
+            target().write( b, off, len );
+        }
+
+        public void flush()
+        {
+            target().flush();
+        }
+    }
+
+    /**
+     * The system properties of the current execution. The methods added to maps by Java 8 which take functions, e.g.
+     * <code>compute()</code>, <code>merge()</code> or <code>forEach()</code>, aren't routed, the others are implemented
+     * on top of the methods of Java 5, atomically like those of {@link java.util.Hashtable}.
+     */
+    private static final class RoutingProperties
+        extends Properties
+    {
+        final InheritableThreadLocal<Properties> current = new InheritableThreadLocal<Properties>();
+
+        volatile Properties fallback;
+
+        private Properties target()
+        {
+            Properties target = current.get();
+            return ( target != null ) ? target : fallback;
+        }
+
+        public String getProperty( String key )
+        {
+            return target().getProperty( key );
+        }
+
+        public String getProperty( String key, String defaultValue )
+        {
+            return target().getProperty( key, defaultValue );
+        }
+
+        public Object setProperty( String key, String value )
+        {
+            return target().setProperty( key, value );
+        }
+
+        public Enumeration<?> propertyNames()
+        {
+            return target().propertyNames();
+        }
+
+        public Set<String> stringPropertyNames()
+        {
+            return target().stringPropertyNames();
+        }
+
+        public void list( PrintStream out )
+        {
+            target().list( out );
+        }
+
+        public void list( PrintWriter out )
+        {
+            target().list( out );
+        }
+
+        public void load( InputStream inStream )
+            throws IOException
+        {
+            target().load( inStream );
+        }
+
+        public void load( Reader reader )
+            throws IOException
+        {
+            target().load( reader );
+        }
+
+        public void loadFromXML( InputStream in )
+            throws IOException
+        {
+            target().loadFromXML( in );
+        }
+
+        public void store( OutputStream out, String comments )
+            throws IOException
+        {
+            target().store( out, comments );
+        }
+
+        public void store( Writer writer, String comments )
+            throws IOException
+        {
+            target().store( writer, comments );
+        }
+
+        public void storeToXML( OutputStream os, String comment )
+            throws IOException
+        {
+            target().storeToXML( os, comment );
+        }
+
+        public void storeToXML( OutputStream os, String comment, String encoding )
+            throws IOException
+        {
+            target().storeToXML( os, comment, encoding );
+        }
+
+        public Object get( Object key )
+        {
+            return target().get( key );
+        }
+
+        public Object put( Object key, Object value )
+        {
+            return target().put( key, value );
+        }
+
+        public Object remove( Object key )
+        {
+            return target().remove( key );
+        }
+
+        public Object getOrDefault( Object key, Object defaultValue )
+        {
+            Properties target = target();
+            synchronized ( target )
+            {
+                Object value = target.get( key );
+                return ( value != null ) ? value : defaultValue;
+            }
+        }
+
+        public Object putIfAbsent( Object key, Object value )
+        {
+            Properties target = target();
+            synchronized ( target )
+            {
+                Object current = target.get( key );
+                return ( current != null ) ? current : target.put( key, value );
+            }
+        }
+
+        public boolean remove( Object key, Object value )
+        {
+            Properties target = target();
+            synchronized ( target )
+            {
+                Object current = target.get( key );
+                if ( current != null && current.equals( value ) )
+                {
+                    target.remove( key );
+                    return true;
+                }
+                return false;
+            }
+        }
+
+        public Object replace( Object key, Object value )
+        {
+            Properties target = target();
+            synchronized ( target )
+            {
+                return target.containsKey( key ) ? target.put( key, value ) : null;
+            }
+        }
+
+        public boolean replace( Object key, Object oldValue, Object newValue )
+        {
+            Properties target = target();
+            synchronized ( target )
+            {
+                Object current = target.get( key );
+                if ( current != null && current.equals( oldValue ) )
+                {
+                    target.put( key, newValue );
+                    return true;
+                }
+                return false;
+            }
+        }
+
+        public void putAll( Map<?, ?> t )
+        {
+            target().putAll( t );
+        }
+
+        public void clear()
+        {
+            target().clear();
+        }
+
+        public boolean containsKey( Object key )
+        {
+            return target().containsKey( key );
+        }
+
+        public boolean contains( Object value )
+        {
+            return target().contains( value );
+        }
+
+        public boolean containsValue( Object value )
+        {
+            return target().containsValue( value );
+        }
+
+        public int size()
+        {
+            return target().size();
+        }
+
+        public boolean isEmpty()
+        {
+            return target().isEmpty();
+        }
+
+        public Enumeration<Object> keys()
+        {
+            return target().keys();
+        }
+
+        public Enumeration<Object> elements()
+        {
+            return target().elements();
+        }
+
+        public Set<Object> keySet()
+        {
+            return target().keySet();
+        }
+
+        public Set<Map.Entry<Object, Object>> entrySet()
+        {
+            return target().entrySet();
+        }
+
+        public Collection<Object> values()
+        {
+            return target().values();
+        }
+
+        public Object clone()
+        {
+            return target().clone();
+        }
+
+        public String toString()
+        {
+            return target().toString();
+        }
+
+        public boolean equals( Object o )
+        {
+            return o == this || target().equals( o );
+        }
+
+        public int hashCode()
+        {
+            return target().hashCode();
+        }
+    }
+
+}
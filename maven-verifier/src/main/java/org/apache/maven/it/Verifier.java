@@ -88,6 +88,10 @@ public class Verifier
 
     private PrintStream originalErr;
 
+    private PrintStream logOut;
+
+    private PrintStream logErr;
+
     private List<String> cliOptions = new ArrayList<String>();
 
     private Properties systemProperties = new Properties();
@@ -115,7 +119,9 @@ public class Verifier
 
     private boolean debugJvm = false;
 
-    private static MavenLauncher embeddedLauncher;
+    private static final EmbeddedLauncherPool EMBEDDED_LAUNCHERS = new EmbeddedLauncherPool();
+
+    private LogIndex logIndex;
 
     public Verifier( String basedir )
         throws VerificationException
@@ -218,6 +224,26 @@ public class Verifier
         }
     }
 
+    /**
+     * Sets the streams for the messages of this verifier itself, e.g. the executed hook commands or the exit code of a
+     * failed build. Defaults to <code>null</code>, i.e. the current standard streams of the JVM.
+     */
+    void setLogStreams( PrintStream out, PrintStream err )
+    {
+        this.logOut = out;
+        this.logErr = err;
+    }
+
+    private PrintStream getLogOut()
+    {
+        return ( logOut != null ) ? logOut : System.out;
+    }
+
+    private PrintStream getLogErr()
+    {
+        return ( logErr != null ) ? logErr : System.err;
+    }
+
     public void displayStreamBuffers()
     {
         String out = outStream.toString();
@@ -264,12 +290,10 @@ public class Verifier
     public void verifyErrorFreeLog()
         throws VerificationException
     {
-        List<String> lines = loadFile( getBasedir(), getLogFileName(), false );
-
-        for ( String line : lines )
+        for ( String line : getLogIndex().getErrorLines() )
         {
             // A hack to keep stupid velocity resource loader errors from triggering failure
-            if ( line.contains( "[ERROR]" ) && !isVelocityError( line ) )
+            if ( !isVelocityError( line ) )
             {
                 throw new VerificationException( "Error in execution: " + line );
             }
@@ -297,21 +321,45 @@ public class Verifier
     public void verifyTextInLog( String text )
         throws VerificationException
     {
-        List<String> lines = loadFile( getBasedir(), getLogFileName(), false );
+        if ( !getLogIndex().containsText( text ) )
+        {
+            throw new VerificationException( "Text not found in log: " + text );
+        }
+    }
 
-        boolean result = false;
-        for ( String line : lines )
+    /**
+     * Throws an exception if the regular expression is not found in any line of the log.
+     *
+     * @param regex the regular expression to assert present
+     * @throws VerificationException
+     * @since 1.5
+     */
+    public void verifyPatternInLog( String regex )
+        throws VerificationException
+    {
+        if ( !getLogIndex().containsPattern( regex ) )
         {
-            if ( line.contains( text ) )
-            {
-                result = true;
-                break;
-            }
+            throw new VerificationException( "Pattern not found in log: " + regex );
         }
-        if ( !result )
+    }
+
+    /**
+     * Gets the index of the current log file, loading the log only if it changed since the last assertion.
+     */
+    private LogIndex getLogIndex()
+        throws VerificationException
+    {
+        File logFile = new File( getBasedir(), getLogFileName() );
+
+        if ( logIndex == null || !logIndex.isCurrent( logFile ) )
         {
-            throw new VerificationException( "Text not found in log: " + text );
+            long lastModified = logFile.lastModified();
+            long length = logFile.length();
+
+            logIndex = new LogIndex( logFile, lastModified, length, loadFile( logFile, false ) );
         }
+
+        return logIndex;
     }
 
     public Properties loadProperties( String filename )
@@ -737,7 +785,7 @@ public class Verifier
 
         if ( "rm".equals( cmd ) )
         {
-            System.out.println( "Removing file: " + args );
+            getLogOut().println( "Removing file: " + args );
 
             File f = new File( args );
 
@@ -748,7 +796,7 @@ public class Verifier
         }
         else if ( "rmdir".equals( cmd ) )
         {
-            System.out.println( "Removing directory: " + args );
+            getLogOut().println( "Removing directory: " + args );
 
             try
             {
@@ -763,7 +811,7 @@ public class Verifier
         }
         else if ( "svn".equals( cmd ) )
         {
-            launchSubversion( line, getBasedir() );
+            launchSubversion( line, getBasedir(), getLogOut(), getLogErr() );
         }
         else
         {
@@ -773,6 +821,12 @@ public class Verifier
 
     public static void launchSubversion( String line, String basedir )
         throws VerificationException
+    {
+        launchSubversion( line, basedir, System.out, System.err );
+    }
+
+    private static void launchSubversion( String line, String basedir, PrintStream log, PrintStream errorLog )
+        throws VerificationException
     {
         try
         {
@@ -786,7 +840,7 @@ public class Verifier
 
             StreamConsumer err = new WriterStreamConsumer( logWriter );
 
-            System.out.println( "Command: " + CommandLineUtils.toString( cli.getCommandline() ) );
+            log.println( "Command: " + CommandLineUtils.toString( cli.getCommandline() ) );
 
             int ret = CommandLineUtils.executeCommandLine( cli, out, err );
 
@@ -794,7 +848,7 @@ public class Verifier
 
             if ( ret > 0 )
             {
-                System.err.println( "Exit code: " + ret );
+                errorLog.println( "Exit code: " + ret );
 
                 throw new VerificationException();
             }
@@ -809,10 +863,10 @@ public class Verifier
         }
     }
 
-    private static String retrieveLocalRepo( String settingsXmlPath )
+    private static String retrieveLocalRepo( String settingsXmlPath, PrintStream log, PrintStream errorLog )
         throws VerificationException
     {
-        UserModelReader userModelReader = new UserModelReader();
+        UserModelReader userModelReader = new UserModelReader( errorLog );
 
         String userHome = System.getProperty( "user.home" );
 
@@ -822,7 +876,7 @@ public class Verifier
 
         if ( settingsXmlPath != null )
         {
-            System.out.println( "Using settings from " + settingsXmlPath );
+            log.println( "Using settings from " + settingsXmlPath );
             userXml = new File( settingsXmlPath );
         }
         else
@@ -1134,7 +1188,7 @@ public class Verifier
                     }
                     catch ( IOException e )
                     {
-                        System.err.println( "WARN: error closing stream: " + e );
+                        getLogErr().println( "WARN: error closing stream: " + e );
                     }
                 }
             }
@@ -1281,6 +1335,9 @@ public class Verifier
 
         File logFile = new File( getBasedir(), getLogFileName() );
 
+        // the execution rewrites the log, even within the resolution of its modification time
+        logIndex = null;
+
         for ( Object cliOption : cliOptions )
         {
             String key = String.valueOf( cliOption );
@@ -1333,6 +1390,7 @@ public class Verifier
             String[] cliArgs = args.toArray( new String[args.size()] );
 
             boolean fork;
+            MavenLauncher embeddedLauncher = null;
             if ( forkJvm != null )
             {
                 fork = forkJvm;
@@ -1343,7 +1401,7 @@ public class Verifier
 
                 try
                 {
-                    initEmbeddedLauncher();
+                    embeddedLauncher = EMBEDDED_LAUNCHERS.acquire( defaultMavenHome );
                 }
                 catch ( Exception e )
                 {
@@ -1357,9 +1415,19 @@ public class Verifier
 
             if ( !fork )
             {
-                initEmbeddedLauncher();
+                if ( embeddedLauncher == null )
+                {
+                    embeddedLauncher = EMBEDDED_LAUNCHERS.acquire( defaultMavenHome );
+                }
 
-                ret = embeddedLauncher.run( cliArgs, getBasedir(), logFile );
+                try
+                {
+                    ret = EMBEDDED_LAUNCHERS.run( embeddedLauncher, cliArgs, getBasedir(), logFile );
+                }
+                finally
+                {
+                    EMBEDDED_LAUNCHERS.release( defaultMavenHome, embeddedLauncher );
+                }
             }
             else
             {
@@ -1379,7 +1447,7 @@ public class Verifier
 
         if ( ret > 0 )
         {
-            System.err.println( "Exit code: " + ret );
+            getLogErr().println( "Exit code: " + ret );
 
             throw new VerificationException(
                 "Exit code was non-zero: " + ret + "; command line and log = \n" + new File( defaultMavenHome,
@@ -1388,20 +1456,17 @@ public class Verifier
         }
     }
 
-    private void initEmbeddedLauncher()
-        throws LauncherException
+    /**
+     * Gets the timing metrics of the embedded Maven launchers of this JVM, which are reused by the executions of all
+     * verifiers with the same Maven home directory.
+     *
+     * @return The number of started <code>launchers</code> and their total <code>startupTime</code>, the number of
+     *         <code>executions</code> and their total <code>executionTime</code>, in milliseconds.
+     * @since 1.5
+     */
+    public static Map<String, Long> getEmbeddedLauncherMetrics()
     {
-        if ( embeddedLauncher == null )
-        {
-            if ( StringUtils.isEmpty( defaultMavenHome ) )
-            {
-                embeddedLauncher = new Classpath3xLauncher();
-            }
-            else
-            {
-                embeddedLauncher = new Embedded3xLauncher( defaultMavenHome );
-            }
-        }
+        return EMBEDDED_LAUNCHERS.getMetrics();
     }
 
     public String getMavenVersion()
@@ -1519,7 +1584,7 @@ public class Verifier
         }
     }
 
-    private void displayLogFile()
+    void displayLogFile()
     {
         System.out.println( "Log file contents:" );
         BufferedReader reader = null;
@@ -1563,6 +1628,8 @@ public class Verifier
 
         String settingsFile = null;
 
+        int threads = 1;
+
         // skip options
         for ( int i = 0; i < args.length; i++ )
         {
@@ -1589,6 +1656,16 @@ public class Verifier
 
                 settingsFile = args[i];
             }
+            else if ( "-T".equals( args[i] ) || "--threads".equals( args[i] ) )
+            {
+                if ( i == args.length - 1 )
+                {
+                    throw new IllegalStateException( "missing argument to -T" );
+                }
+                i += 1;
+
+                threads = ParallelRunner.parseThreads( args[i] );
+            }
             else if ( args[i].startsWith( "-" ) )
             {
                 System.out.println( "skipping unrecognised argument: " + args[i] );
@@ -1663,6 +1740,11 @@ public class Verifier
             System.out.println( "No tests to run" );
         }
 
+        if ( threads > 1 )
+        {
+            System.exit( runIntegrationTests( basedir, settingsFile, threads, tests ) );
+        }
+
         int exitCode = 0;
 
         List<String> failed = new ArrayList<String>();
@@ -1717,7 +1799,56 @@ public class Verifier
         System.exit( exitCode );
     }
 
-    private void findLocalRepo( String settingsFile )
+    private static int runIntegrationTests( String basedir, String settingsFile, int threads, List<String> tests )
+        throws VerificationException
+    {
+        for ( String test : tests )
+        {
+            String dir = basedir + "/" + test;
+
+            if ( !new File( dir, "goals.txt" ).exists() )
+            {
+                System.err.println( "Test " + test + " in " + dir + " does not exist" );
+
+                return 2;
+            }
+        }
+
+        System.out.println( "Running " + tests.size() + " tests with " + threads + " threads" );
+
+        ParallelRunner runner = new ParallelRunner( basedir, settingsFile, threads );
+
+        String localRepoRoot = System.getProperty( "verifier.localRepoRoot" );
+        if ( StringUtils.isNotEmpty( localRepoRoot ) )
+        {
+            runner.setLocalRepoRoot( new File( localRepoRoot ) );
+        }
+
+        String reportsDirectory = System.getProperty( "verifier.reportsDirectory" );
+        if ( StringUtils.isNotEmpty( reportsDirectory ) )
+        {
+            runner.setReportsDirectory( new File( reportsDirectory ) );
+        }
+
+        List<String> failed = new ArrayList<String>();
+        for ( ParallelRunner.TestResult result : runner.run( tests ) )
+        {
+            if ( result.failure != null )
+            {
+                failed.add( result.name );
+            }
+        }
+
+        System.out.println( tests.size() - failed.size() + "/" + tests.size() + " passed" );
+        if ( !failed.isEmpty() )
+        {
+            System.out.println( "Failed tests: " + failed );
+        }
+
+        return failed.isEmpty() ? 0 : 1;
+    }
+
+    void findLocalRepo( String settingsFile )
         throws VerificationException
     {
         if ( localRepo == null )
@@ -1727,7 +1858,7 @@ public class Verifier
 
         if ( localRepo == null )
         {
-            localRepo = retrieveLocalRepo( settingsFile );
+            localRepo = retrieveLocalRepo( settingsFile, getLogOut(), getLogErr() );
         }
 
         if ( localRepo == null )
@@ -1751,6 +1882,16 @@ public class Verifier
 
     private static void runIntegrationTest( Verifier verifier )
         throws VerificationException
+    {
+        runIntegrationTest( verifier, System.out );
+
+        verifier.resetStreams();
+
+        System.out.println( "OK" );
+    }
+
+    static void runIntegrationTest( Verifier verifier, PrintStream log )
+        throws VerificationException
     {
         verifier.executeHook( "prebuild-hook.txt" );
 
@@ -1774,13 +1915,9 @@ public class Verifier
 
         verifier.executeHook( "postbuild-hook.txt" );
 
-        System.out.println( "*** Verifying: fail when [ERROR] detected? " + chokeOnErrorOutput + " ***" );
+        log.println( "*** Verifying: fail when [ERROR] detected? " + chokeOnErrorOutput + " ***" );
 
         verifier.verify( chokeOnErrorOutput );
-
-        verifier.resetStreams();
-
-        System.out.println( "OK" );
     }
 
     public void assertArtifactContents( String org, String artifact, String version, String type, String contents )
@@ -1797,6 +1934,18 @@ public class Verifier
 
         private StringBuffer currentBody = new StringBuffer();
 
+        private final PrintStream errorLog;
+
+        public UserModelReader()
+        {
+            this( System.err );
+        }
+
+        UserModelReader( PrintStream errorLog )
+        {
+            this.errorLog = errorLog;
+        }
+
         public void parse( File file )
             throws VerificationException
         {
@@ -1845,7 +1994,7 @@ public class Verifier
 
         private void printParseError( String type, SAXParseException spe )
         {
-            System.err.println(
+            errorLog.println(
                 type + " [line " + spe.getLineNumber() + ", row " + spe.getColumnNumber() + "]: " + spe.getMessage() );
         }
 
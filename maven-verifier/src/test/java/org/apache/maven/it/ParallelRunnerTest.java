@@ -0,0 +1,84 @@
+package org.apache.maven.it;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.shared.utils.io.FileUtils;
+
+public class ParallelRunnerTest
+    extends TestCase
+{
+
+    public void testParseThreads()
+    {
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        assertEquals( 4, ParallelRunner.parseThreads( "4" ) );
+        assertEquals( processors, ParallelRunner.parseThreads( "1C" ) );
+        assertEquals( 2 * processors, ParallelRunner.parseThreads( "2c" ) );
+        assertEquals( 1, ParallelRunner.parseThreads( "0" ) );
+
+        try
+        {
+            ParallelRunner.parseThreads( "x" );
+            fail( "invalid thread count accepted" );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            // expected
+        }
+    }
+
+    public void testWriteReport()
+        throws Exception
+    {
+        ParallelRunner.TestResult passed = new ParallelRunner.TestResult( "it0001", "it0001" );
+        passed.time = 1500;
+        passed.output = "OK\n";
+
+        ParallelRunner.TestResult failed = new ParallelRunner.TestResult( "it0002", "it0002" );
+        failed.time = 250;
+        failed.output = "\u001b[1mcolored\u001b[m\n";
+        failed.failure = new VerificationException( "Exit code was non-zero: 1" );
+
+        ParallelRunner.TestResult broken = new ParallelRunner.TestResult( "it0003", "it0003" );
+        broken.failure = new IllegalStateException( "boom" );
+
+        File reportsDirectory = new File( "target/parallel-runner-reports" );
+        ParallelRunner.writeReport( Arrays.asList( passed, failed, broken ), 1750, reportsDirectory );
+
+        String report = FileUtils.fileRead( new File( reportsDirectory, "TEST-integration-tests.xml" ), "UTF-8" );
+
+        assertTrue( report, report.contains( "tests=\"3\"" ) );
+        assertTrue( report, report.contains( "failures=\"1\"" ) );
+        assertTrue( report, report.contains( "errors=\"1\"" ) );
+        assertTrue( report, report.contains( "name=\"it0001\"" ) );
+        assertTrue( report, report.contains( "time=\"1.500\"" ) );
+        assertTrue( report, report.contains( "<failure message=\"Exit code was non-zero: 1\"" ) );
+        assertTrue( report, report.contains( "<error message=\"boom\"" ) );
+        assertTrue( report, report.contains( "[1mcolored[m" ) );
+        assertFalse( report, report.contains( "\u001b" ) );
+    }
+
+}
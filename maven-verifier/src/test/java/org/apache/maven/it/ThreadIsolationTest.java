@@ -0,0 +1,178 @@
+package org.apache.maven.it;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Properties;
+
+import junit.framework.TestCase;
+
+public class ThreadIsolationTest
+    extends TestCase
+{
+
+    private static final String KEY = "thread.isolation.test";
+
+    private Properties originalProperties;
+
+    private PrintStream originalOut;
+
+    private PrintStream originalErr;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        originalProperties = System.getProperties();
+        originalOut = System.out;
+        originalErr = System.err;
+    }
+
+    protected void tearDown()
+        throws Exception
+    {
+        System.setProperties( originalProperties );
+        System.setOut( originalOut );
+        System.setErr( originalErr );
+
+        System.clearProperty( KEY );
+        System.clearProperty( KEY + ".set" );
+
+        super.tearDown();
+    }
+
+    public void testExecutionsShouldHaveTheirOwnPropertiesAndStreams()
+        throws Exception
+    {
+        System.setProperty( KEY, "global" );
+
+        Properties properties = ThreadIsolation.newInitialProperties();
+        assertNull( properties.getProperty( KEY ) );
+        properties.setProperty( KEY, "execution" );
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream( buffer, true );
+
+        final String[] seen = new String[2];
+
+        ThreadIsolation.enter( properties, out, out );
+        try
+        {
+            assertEquals( "execution", System.getProperty( KEY ) );
+            System.setProperty( KEY + ".set", "true" );
+            System.out.println( "routed" );
+
+            // threads started by the execution inherit its properties, other threads don't
+            Thread child = new Thread()
+            {
+                public void run()
+                {
+                    seen[0] = System.getProperty( KEY );
+                }
+            };
+            child.start();
+            child.join();
+        }
+        finally
+        {
+            ThreadIsolation.exit();
+        }
+
+        Thread other = new Thread()
+        {
+            public void run()
+            {
+                seen[1] = System.getProperty( KEY );
+            }
+        };
+        other.start();
+        other.join();
+
+        assertEquals( "execution", seen[0] );
+        assertEquals( "global", seen[1] );
+        assertEquals( "global", System.getProperty( KEY ) );
+        assertNull( System.getProperty( KEY + ".set" ) );
+        assertEquals( "true", properties.getProperty( KEY + ".set" ) );
+        assertEquals( "routed", buffer.toString().trim() );
+    }
+
+    public void testShouldRestoreTheOriginalsOnceTheLastExecutionExited()
+    {
+        PrintStream out = new PrintStream( new ByteArrayOutputStream(), true );
+
+        ThreadIsolation.enter( new Properties(), out, out );
+        try
+        {
+            ThreadIsolation.enter( new Properties(), out, out );
+            ThreadIsolation.exit();
+
+            assertNotSame( originalProperties, System.getProperties() );
+            assertNotSame( originalOut, System.out );
+            assertNotSame( originalErr, System.err );
+        }
+        finally
+        {
+            ThreadIsolation.exit();
+        }
+
+        assertSame( originalProperties, System.getProperties() );
+        assertSame( originalOut, System.out );
+        assertSame( originalErr, System.err );
+    }
+
+    public void testShouldRouteTheMapMethodsOfJava8()
+    {
+        Properties properties = new Properties();
+        properties.setProperty( KEY, "execution" );
+
+        PrintStream out = new PrintStream( new ByteArrayOutputStream(), true );
+
+        ThreadIsolation.enter( properties, out, out );
+        try
+        {
+            Properties system = System.getProperties();
+
+            assertEquals( "execution", system.getOrDefault( KEY, "default" ) );
+            assertEquals( "default", system.getOrDefault( KEY + ".set", "default" ) );
+
+            assertEquals( "execution", system.putIfAbsent( KEY, "other" ) );
+            assertNull( system.putIfAbsent( KEY + ".set", "true" ) );
+            assertEquals( "true", properties.getProperty( KEY + ".set" ) );
+
+            assertFalse( system.replace( KEY, "other", "replaced" ) );
+            assertTrue( system.replace( KEY, "execution", "replaced" ) );
+            assertEquals( "replaced", system.replace( KEY, "again" ) );
+            assertEquals( "again", properties.getProperty( KEY ) );
+
+            assertFalse( system.remove( KEY, "other" ) );
+            assertTrue( system.remove( KEY, "again" ) );
+            assertFalse( properties.containsKey( KEY ) );
+        }
+        finally
+        {
+            ThreadIsolation.exit();
+        }
+
+        assertNull( System.getProperty( KEY + ".set" ) );
+    }
+
+}
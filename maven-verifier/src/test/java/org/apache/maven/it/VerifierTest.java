@@ -19,11 +19,15 @@ package org.apache.maven.it;
  * under the License.
  */
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.PrintStream;
 import java.util.Arrays;
 
 import junit.framework.TestCase;
 
+import org.apache.maven.shared.utils.io.FileUtils;
+
 public class VerifierTest
     extends TestCase
 {
@@ -49,4 +53,76 @@ public class VerifierTest
         verifier.assertFileNotPresent( "mshared104.jar!/fud.xml" );
     }
 
+    public void testLogStreams()
+        throws Exception
+    {
+        File basedir = new File( "target/log-streams" ).getAbsoluteFile();
+        basedir.mkdirs();
+        File file = new File( basedir, "obsolete.txt" );
+        FileUtils.fileWrite( file.getPath(), "obsolete" );
+        FileUtils.fileWrite( new File( basedir, "prebuild-hook.txt" ).getPath(), "rm ${basedir}/obsolete.txt\n" );
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream log = new PrintStream( buffer, true );
+
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream globalBuffer = new ByteArrayOutputStream();
+        System.setOut( new PrintStream( globalBuffer, true ) );
+        try
+        {
+            Verifier verifier = new Verifier( basedir.getPath(), true );
+            verifier.setLogStreams( log, log );
+            verifier.executeHook( "prebuild-hook.txt" );
+        }
+        finally
+        {
+            System.setOut( originalOut );
+        }
+
+        assertFalse( file.exists() );
+        assertTrue( buffer.toString(), buffer.toString().startsWith( "Removing file: " ) );
+        assertEquals( "", globalBuffer.toString() );
+    }
+
+    public void testLogAssertions()
+        throws Exception
+    {
+        File basedir = new File( "target/log-assertions" ).getAbsoluteFile();
+        basedir.mkdirs();
+        File logFile = new File( basedir, "log.txt" );
+        FileUtils.fileWrite( logFile.getPath(), "[INFO] Building test 1.0\n"
+            + "[ERROR] VM_global_library.vm not found\n" + "[INFO] BUILD SUCCESS\n" );
+
+        Verifier verifier = new Verifier( basedir.getPath(), true );
+        verifier.verifyTextInLog( "BUILD SUCCESS" );
+        verifier.verifyTextInLog( "BUILD SUCCESS" );
+        verifier.verifyPatternInLog( "Building \\w+ 1\\.0" );
+        verifier.verifyErrorFreeLog();
+
+        try
+        {
+            verifier.verifyTextInLog( "BUILD FAILURE" );
+            fail( "text not in log found" );
+        }
+        catch ( VerificationException e )
+        {
+            // expected
+        }
+
+        // a rewritten log must not be answered from the index of the previous one
+        FileUtils.fileWrite( logFile.getPath(), "[ERROR] BUILD FAILURE, see above for details\n" );
+        logFile.setLastModified( logFile.lastModified() - 5000 );
+
+        verifier.verifyTextInLog( "BUILD FAILURE" );
+        try
+        {
+            verifier.verifyErrorFreeLog();
+            fail( "error in log not detected" );
+        }
+        catch ( VerificationException e )
+        {
+            assertTrue( e.getMessage(), e.getMessage().contains( "BUILD FAILURE" ) );
+        }
+    }
+
 }